@@ -0,0 +1,51 @@
+/******************************************************************************
+ *  Benchmarks Digraph.getDist over random vertex pairs of the hypernym graph.
+ ******************************************************************************/
+
+package wordnet.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wordnet.Digraph;
+
+/**
+ * Measures the throughput and latency distribution of Digraph.getDist between
+ * random pairs of synsets.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DigraphBenchmark {
+    @Param("Input")
+    public String input; // directory holding synsets.txt and hypernyms.txt
+
+    private Digraph G;
+    private int[][] pairs;
+
+    @Setup
+    public void setup() {
+        G = Workload.hypernyms(input);
+        pairs = Workload.vertexGroups(G.V(), 2);
+    }
+
+    @Benchmark
+    public int getDist(Workload.Cursor cursor) {
+        int[] pair = pairs[cursor.next()];
+        return G.getDist(pair[0], pair[1]);
+    }
+}
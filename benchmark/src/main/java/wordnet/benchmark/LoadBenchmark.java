@@ -0,0 +1,56 @@
+/******************************************************************************
+ *  Benchmarks building a WordNet from the input files.
+ ******************************************************************************/
+
+package wordnet.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wordnet.WordNet;
+
+/**
+ * Times the construction of a WordNet from synsets.txt and hypernyms.txt, with
+ * the original Scanner constructor and with the memory-mapped loader. Each
+ * invocation is a whole load, so it runs as single shots.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 20)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LoadBenchmark {
+    @Param("Input")
+    public String input; // directory holding synsets.txt and hypernyms.txt
+
+    private String synsets;
+    private String hypernyms;
+
+    @Setup
+    public void setup() {
+        synsets = Workload.input(input, "synsets.txt");
+        hypernyms = Workload.input(input, "hypernyms.txt");
+    }
+
+    @Benchmark
+    public WordNet scanner() {
+        return new WordNet(synsets, hypernyms);
+    }
+
+    @Benchmark
+    public WordNet load() {
+        return WordNet.load(synsets, hypernyms);
+    }
+}
@@ -0,0 +1,55 @@
+/******************************************************************************
+ *  Benchmarks Outcast.outcast over random groups of nouns.
+ ******************************************************************************/
+
+package wordnet.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wordnet.Outcast;
+import wordnet.WordNet;
+
+/**
+ * Measures the throughput and latency distribution of outcast() over random
+ * groups of nouns of the given size.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OutcastBenchmark {
+    @Param("Input")
+    public String input; // directory holding synsets.txt and hypernyms.txt
+
+    @Param({ "8", "32" })
+    public int size; // nouns per group
+
+    private Outcast outcast;
+    private String[][] groups;
+
+    @Setup
+    public void setup() {
+        WordNet wordnet = WordNet.load(Workload.input(input, "synsets.txt"), Workload.input(input, "hypernyms.txt"));
+        outcast = new Outcast(wordnet);
+        groups = Workload.nounGroups(Workload.nouns(wordnet), size);
+    }
+
+    @Benchmark
+    public String outcast(Workload.Cursor cursor) {
+        return outcast.outcast(groups[cursor.next()]);
+    }
+}
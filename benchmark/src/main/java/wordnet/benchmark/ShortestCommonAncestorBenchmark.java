@@ -0,0 +1,99 @@
+/******************************************************************************
+ *  Benchmarks ShortestCommonAncestor over random vertices and vertex subsets
+ *  of the hypernym graph, with each of its optional indexes.
+ ******************************************************************************/
+
+package wordnet.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wordnet.CompactDigraph;
+import wordnet.ShortestCommonAncestor;
+
+/**
+ * Measures the throughput and latency distribution of length() and ancestor()
+ * between random pairs of synsets, and of lengthSubset() and ancestorSubset()
+ * between random subsets of three synsets each. The engine parameter selects
+ * the plain search, the ancestor index, the hub labels or the ancestor cache.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ShortestCommonAncestorBenchmark {
+    private static final int SUBSET = 3;
+
+    @Param("Input")
+    public String input; // directory holding synsets.txt and hypernyms.txt
+
+    @Param({ "search", "index", "labels", "cache" })
+    public String engine;
+
+    private ShortestCommonAncestor sca;
+    private int[][] pairs;
+    private List<List<Integer>> subsetsA;
+    private List<List<Integer>> subsetsB;
+
+    @Setup
+    public void setup() {
+        CompactDigraph G = new CompactDigraph(Workload.hypernyms(input));
+
+        sca = new ShortestCommonAncestor(G);
+        if (engine.equals("index"))
+            sca.buildIndex();
+        else if (engine.equals("labels"))
+            sca.buildLabels();
+        else if (engine.equals("cache"))
+            sca.enableAncestorCache(1 << 20);
+
+        pairs = Workload.vertexGroups(G.V(), 2);
+        int[][] groups = Workload.vertexGroups(G.V(), 2 * SUBSET);
+        subsetsA = new ArrayList<List<Integer>>(groups.length);
+        subsetsB = new ArrayList<List<Integer>>(groups.length);
+        for (int[] group : groups) {
+            subsetsA.add(Workload.boxed(Arrays.copyOfRange(group, 0, SUBSET)));
+            subsetsB.add(Workload.boxed(Arrays.copyOfRange(group, SUBSET, 2 * SUBSET)));
+        }
+    }
+
+    @Benchmark
+    public int length(Workload.Cursor cursor) {
+        int[] pair = pairs[cursor.next()];
+        return sca.length(pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public int ancestor(Workload.Cursor cursor) {
+        int[] pair = pairs[cursor.next()];
+        return sca.ancestor(pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public int lengthSubset(Workload.Cursor cursor) {
+        int i = cursor.next();
+        return sca.lengthSubset(subsetsA.get(i), subsetsB.get(i));
+    }
+
+    @Benchmark
+    public int ancestorSubset(Workload.Cursor cursor) {
+        int i = cursor.next();
+        return sca.ancestorSubset(subsetsA.get(i), subsetsB.get(i));
+    }
+}
@@ -0,0 +1,78 @@
+/******************************************************************************
+ *  Benchmarks WordNet.distance and WordNet.sca over random noun pairs.
+ ******************************************************************************/
+
+package wordnet.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import wordnet.WordNet;
+
+/**
+ * Measures the throughput and latency distribution of distance() and sca()
+ * between random pairs of nouns, with the result cache off (capacity 0) or on,
+ * on a WordNet loaded from the input files or opened from a snapshot of them.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WordNetBenchmark {
+    @Param("Input")
+    public String input; // directory holding synsets.txt and hypernyms.txt
+
+    @Param({ "0", "4096" })
+    public int cache; // capacity of the result cache, or 0 for none
+
+    @Param({ "load", "snapshot" })
+    public String source; // parse the input files, or map a snapshot written from them
+
+    private WordNet wordnet;
+    private String[][] pairs;
+
+    @Setup
+    public void setup() {
+        wordnet = WordNet.load(Workload.input(input, "synsets.txt"), Workload.input(input, "hypernyms.txt"));
+        if (source.equals("snapshot")) {
+            try {
+                File snapshot = File.createTempFile("wordnet", ".snapshot");
+                snapshot.deleteOnExit();
+                wordnet.save(snapshot.getPath());
+                wordnet = WordNet.open(snapshot.getPath());
+            } catch (IOException e) {
+                throw new IllegalStateException("could not write a snapshot", e);
+            }
+        }
+        if (cache > 0)
+            wordnet.enableCache(cache);
+        pairs = Workload.nounGroups(Workload.nouns(wordnet), 2);
+    }
+
+    @Benchmark
+    public int distance(Workload.Cursor cursor) {
+        String[] pair = pairs[cursor.next()];
+        return wordnet.distance(pair[0], pair[1]);
+    }
+
+    @Benchmark
+    public String sca(Workload.Cursor cursor) {
+        String[] pair = pairs[cursor.next()];
+        return wordnet.sca(pair[0], pair[1]);
+    }
+}
@@ -0,0 +1,38 @@
+/******************************************************************************
+ *  Entry point of the benchmark jar.
+ ******************************************************************************/
+
+package wordnet.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the WordNet benchmarks with the gc profiler attached, so that every
+ * result comes with its allocation rate. The arguments are the usual JMH
+ * command line, e.g. a benchmark regex, -p input=/data/wordnet or -rf json.
+ * <p>
+ * Every benchmark reads synsets.txt and hypernyms.txt from the directory given
+ * by its input parameter. The default, Input, holds only hypernyms.txt in this
+ * repository, so -p input=&lt;dir&gt; naming a directory with both files is
+ * required; without it, setup fails with a message saying so.
+ * <p>
+ * Typical use, from the repository root:
+ * <pre>
+ *   mvn package
+ *   java -jar benchmark/target/benchmarks.jar -p input=/data/wordnet
+ *   java -jar benchmark/target/benchmarks.jar WordNetBenchmark -p input=/data/wordnet -rf json -rff before.json
+ * </pre>
+ */
+public class WordNetBenchmarks {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,166 @@
+/******************************************************************************
+ *  Fixed-seed random workloads shared by the WordNet benchmarks.
+ ******************************************************************************/
+
+package wordnet.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import wordnet.Digraph;
+import wordnet.WordNet;
+
+/**
+ * The Workload class draws the random queries that the benchmarks run. Every
+ * workload comes from a fixed seed, so two runs, and two builds being compared,
+ * answer exactly the same queries in the same order.
+ */
+public final class Workload {
+    static final long SEED = 0x5EEDL;
+    static final int QUERIES = 4096; // queries per workload; a power of two
+
+    private Workload() { }
+
+    /**
+     * Returns the path of a file in the WordNet input directory.
+     *
+     * @param dir  the input directory
+     * @param file the name of the file
+     * @return the path of the file
+     * @throws IllegalArgumentException if the file does not exist
+     */
+    static String input(String dir, String file) {
+        File f = new File(dir, file);
+        if (!f.isFile())
+            throw new IllegalArgumentException(f + " not found; pass -p input=<dir> to point at the Input directory");
+        return f.getPath();
+    }
+
+    /**
+     * Returns the nouns of the WordNet, in sorted order.
+     *
+     * @param wordnet the WordNet
+     * @return the nouns
+     */
+    static String[] nouns(WordNet wordnet) {
+        List<String> nouns = new ArrayList<String>();
+        for (String noun : wordnet.nouns())
+            nouns.add(noun);
+        return nouns.toArray(new String[0]);
+    }
+
+    /**
+     * Draws groups of nouns, with repetition across groups.
+     *
+     * @param nouns the nouns to draw from
+     * @param size  the number of nouns per group
+     * @return QUERIES groups of size nouns
+     */
+    static String[][] nounGroups(String[] nouns, int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        String[][] groups = new String[QUERIES][size];
+        for (String[] group : groups) {
+            for (int i = 0; i < size; i++)
+                group[i] = nouns[random.nextInt(nouns.length)];
+        }
+        return groups;
+    }
+
+    /**
+     * Draws groups of vertices, with repetition across groups.
+     *
+     * @param V    the number of vertices
+     * @param size the number of vertices per group
+     * @return QUERIES groups of size vertices
+     */
+    static int[][] vertexGroups(int V, int size) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        int[][] groups = new int[QUERIES][size];
+        for (int[] group : groups) {
+            for (int i = 0; i < size; i++)
+                group[i] = random.nextInt(V);
+        }
+        return groups;
+    }
+
+    /**
+     * Boxes a group of vertices for the subset queries.
+     *
+     * @param group the vertices
+     * @return the vertices as a list
+     */
+    static List<Integer> boxed(int[] group) {
+        List<Integer> list = new ArrayList<Integer>(group.length);
+        for (int v : group)
+            list.add(v);
+        return list;
+    }
+
+    /**
+     * Reads the hypernym graph of the WordNet input with the public Digraph API:
+     * one vertex per line of synsets.txt, and an edge from each synset to each
+     * hypernym listed for it in hypernyms.txt. The edges are added in file order,
+     * so the adjacency lists match those that WordNet builds.
+     *
+     * @param dir the input directory
+     * @return the hypernym graph
+     * @throws IllegalArgumentException if a file is missing or cannot be read
+     */
+    static Digraph hypernyms(String dir) {
+        String synsets = input(dir, "synsets.txt");
+        String hypernyms = input(dir, "hypernyms.txt");
+        try {
+            int V = 0;
+            try (BufferedReader in = Files.newBufferedReader(Paths.get(synsets), StandardCharsets.UTF_8)) {
+                for (String line = in.readLine(); line != null; line = in.readLine()) {
+                    if (!line.isEmpty())
+                        V++;
+                }
+            }
+
+            Digraph G = new Digraph(V);
+            try (BufferedReader in = Files.newBufferedReader(Paths.get(hypernyms), StandardCharsets.UTF_8)) {
+                for (String line = in.readLine(); line != null; line = in.readLine()) {
+                    if (line.isEmpty())
+                        continue;
+                    String[] fields = line.split(",");
+                    int v = Integer.parseInt(fields[0]);
+                    for (int i = 1; i < fields.length; i++)
+                        G.addEdge(v, Integer.parseInt(fields[i]));
+                }
+            }
+            return G;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("could not read " + dir, e);
+        }
+    }
+
+    /**
+     * The position of one benchmark thread in a workload, so that threads step
+     * through the queries without contending on a shared counter.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        /**
+         * Returns the index of the next query, wrapping around at the end.
+         *
+         * @return an index between 0 and QUERIES - 1
+         */
+        int next() {
+            next = (next + 1) & (QUERIES - 1);
+            return next;
+        }
+    }
+}
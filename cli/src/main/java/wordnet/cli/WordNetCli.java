@@ -0,0 +1,97 @@
+/******************************************************************************
+ *  Command-line front end to the WordNet library.
+ ******************************************************************************/
+
+package wordnet.cli;
+
+import java.io.File;
+import java.util.Arrays;
+
+import wordnet.Outcast;
+import wordnet.WordNet;
+
+/**
+ * The WordNetCli class answers one WordNet query per invocation. The WordNet is
+ * loaded either from a directory holding synsets.txt and hypernyms.txt, or from
+ * a snapshot written by the save command, which opens much faster. The index
+ * command also writes the hub labels of the WordNet next to the snapshot, and
+ * --snapshot uses them when it finds them, so that queries do not search.
+ * <pre>
+ *   java -jar wordnet.jar --input Input distance horse zebra
+ *   java -jar wordnet.jar --input Input save wordnet.snap
+ *   java -jar wordnet.jar --input Input index wordnet.snap
+ *   java -jar wordnet.jar --snapshot wordnet.snap sca horse zebra
+ *   java -jar wordnet.jar --snapshot wordnet.snap outcast horse zebra cat bear table
+ * </pre>
+ */
+public final class WordNetCli {
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "usage: wordnet (--input <dir> | --snapshot <file>) <command> [arguments]",
+            "commands:",
+            "  distance <noun1> <noun2>   length of a shortest ancestral path",
+            "  sca <noun1> <noun2>        synset of a shortest common ancestor",
+            "  outcast <noun>...          the noun least related to the others",
+            "  save <file>                write a snapshot for --snapshot",
+            "  index <file>               write a snapshot with hub labels next to it");
+
+    private WordNetCli() { }
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        try {
+            WordNet wordnet = open(args[0], args[1]);
+            System.out.println(run(wordnet, args[2], Arrays.copyOfRange(args, 3, args.length)));
+        } catch (IllegalArgumentException e) {
+            System.err.println("wordnet: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // loads the WordNet named by the source option
+    private static WordNet open(String option, String path) {
+        switch (option) {
+            case "--input":
+                return WordNet.load(new File(path, "synsets.txt").getPath(), new File(path, "hypernyms.txt").getPath());
+            case "--snapshot":
+                return WordNet.open(path);
+            default:
+                throw new IllegalArgumentException("unknown option " + option + System.lineSeparator() + USAGE);
+        }
+    }
+
+    // runs one command and returns what it prints
+    private static String run(WordNet wordnet, String command, String[] args) {
+        switch (command) {
+            case "distance":
+                expect(command, args, 2);
+                return Integer.toString(wordnet.distance(args[0], args[1]));
+            case "sca":
+                expect(command, args, 2);
+                return wordnet.sca(args[0], args[1]);
+            case "outcast":
+                if (args.length < 2)
+                    throw new IllegalArgumentException("outcast needs at least two nouns");
+                return new Outcast(wordnet).outcast(args);
+            case "save":
+                expect(command, args, 1);
+                wordnet.save(args[0]);
+                return "saved " + args[0];
+            case "index":
+                expect(command, args, 1);
+                wordnet.buildLabels();
+                wordnet.save(args[0]);
+                return "saved " + args[0] + " and " + WordNet.labels(args[0]);
+            default:
+                throw new IllegalArgumentException("unknown command " + command + System.lineSeparator() + USAGE);
+        }
+    }
+
+    // throw an IllegalArgumentException unless the command has n arguments
+    private static void expect(String command, String[] args, int n) {
+        if (args.length != n)
+            throw new IllegalArgumentException(command + " takes " + n + " argument" + (n == 1 ? "" : "s"));
+    }
+}
@@ -0,0 +1,194 @@
+/******************************************************************************
+ *  Bounded, lock-striped LRU cache of the ancestor sets of single vertices.
+ ******************************************************************************/
+
+package wordnet;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The AncestorCache class remembers, for recently queried vertices, the set of
+ * their ancestors with the distance to each, so that a shortest ancestral path
+ * between two cached vertices is a merge of two sorted arrays instead of a
+ * graph search. Hypernym closures are small compared with the whole graph and
+ * common vertices recur across many different pairs, so one cached set serves
+ * many queries.
+ * <p>
+ * The budget is the total number of ancestors held, not the number of sets,
+ * since a deep vertex has hundreds of ancestors and a shallow one a handful.
+ * This implementation splits the vertices over a power-of-two number of
+ * stripes, each an access-ordered LinkedHashMap behind its own lock with an
+ * equal share of the budget, and evicts least recently used sets from a stripe
+ * until it fits. A missing set is built outside the lock, so a slow build
+ * never blocks readers of the same stripe. Each ancestor costs 6 bytes of heap.
+ */
+final class AncestorCache {
+    private final Stripe[] stripes;
+    private final long capacity;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Initializes an empty cache that holds at most capacity ancestors in all.
+     *
+     * @param capacity the maximum total size of the cached sets
+     * @throws IllegalArgumentException if capacity < 1
+     */
+    AncestorCache(long capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be positive");
+
+        int n = 1;
+        while (n < 16 && 2 * n * 1024L <= capacity)
+            n *= 2;
+        this.stripes = new Stripe[n];
+        for (int i = 0; i < n; i++)
+            stripes[i] = new Stripe(capacity / n);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the ancestors of v in G, building and caching them if they are not
+     * cached. A set larger than the share of its stripe is returned uncached.
+     *
+     * @param G the digraph
+     * @param v the vertex
+     * @return the ancestors of v with their distances
+     */
+    AncestorSet get(CompactDigraph G, int v) {
+        Stripe s = stripes[(v * 0x9E3779B9 >>> 16) & (stripes.length - 1)];
+        AncestorSet set;
+        synchronized (s) {
+            set = s.get(v);
+        }
+        MetricsRegistry m = Metrics.registry();
+        if (set != null) {
+            hits.increment();
+            if (m != null)
+                m.add(Metric.ANCESTOR_CACHE_HITS, 1);
+            return set;
+        }
+        misses.increment();
+        if (m != null)
+            m.add(Metric.ANCESTOR_CACHE_MISSES, 1);
+
+        set = AncestorSet.of(G, new int[] { v }, 0, 1);
+        synchronized (s) {
+            s.add(v, set);
+        }
+        return set;
+    }
+
+    /**
+     * Returns a new cache of the same capacity that holds the cached sets of
+     * every vertex that has not changed, in the same least recently used
+     * order; this cache is left as it is. A set stays valid as long as no
+     * ancestor of its vertex gains an edge, so after edges are added only the
+     * sets of their tails and the descendants of those tails need to go. The
+     * counters of the new cache start at zero.
+     *
+     * @param changed changed[v] is true if the ancestors of v may have changed;
+     *                vertices beyond its length count as unchanged
+     * @return the new cache
+     */
+    AncestorCache without(boolean[] changed) {
+        AncestorCache copy = new AncestorCache(capacity);
+        for (int i = 0; i < stripes.length; i++) {
+            Stripe from = stripes[i];
+            Stripe to = copy.stripes[i];
+            synchronized (from) {
+                for (Map.Entry<Integer, AncestorSet> e : from.entrySet()) {
+                    int v = e.getKey();
+                    if (v >= changed.length || !changed[v])
+                        to.add(v, e.getValue());
+                }
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the number of lookups that found a cached set.
+     *
+     * @return the number of hits
+     */
+    long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that had to build a set.
+     *
+     * @return the number of misses
+     */
+    long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of sets evicted to make room for others.
+     *
+     * @return the number of evictions
+     */
+    long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the total number of ancestors held by the cached sets.
+     *
+     * @return the number of cached ancestors
+     */
+    long size() {
+        long size = 0;
+        for (Stripe s : stripes) {
+            synchronized (s) {
+                size += s.entries;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns a summary of the counters.
+     *
+     * @return a one-line report of size, hits, misses and evictions
+     */
+    public String toString() {
+        return String.format("%d/%d ancestors, %d hits, %d misses, %d evictions",
+                size(), capacity, hits(), misses(), evictions());
+    }
+
+    // one access-ordered map bounded by its total set size; guarded by its own monitor
+    private final class Stripe extends LinkedHashMap<Integer, AncestorSet> {
+        private static final long serialVersionUID = 1L;
+
+        private final long limit;
+        private long entries; // total size of the sets in this stripe
+
+        Stripe(long limit) {
+            super(16, 0.75f, true);
+            this.limit = limit;
+        }
+
+        // adds the set of v unless another thread already has, then evicts the
+        // least recently used sets until the stripe fits its share again
+        void add(int v, AncestorSet set) {
+            if (set.size() > limit || containsKey(v))
+                return;
+            put(v, set);
+            entries += set.size();
+            Iterator<Map.Entry<Integer, AncestorSet>> it = entrySet().iterator();
+            while (entries > limit) {
+                Map.Entry<Integer, AncestorSet> eldest = it.next();
+                entries -= eldest.getValue().size();
+                it.remove();
+                evictions.increment();
+            }
+        }
+    }
+}
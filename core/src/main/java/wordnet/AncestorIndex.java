@@ -0,0 +1,270 @@
+/******************************************************************************
+ *  Depth and binary-lifting index over a rooted DAG, for shortest common
+ *  ancestor queries between vertices whose ancestors form a single chain.
+ ******************************************************************************/
+
+package wordnet;
+
+import java.util.Arrays;
+
+/**
+ * The AncestorIndex class precomputes, for every vertex of a rooted DAG, its
+ * depth (the length of a shortest path to the root) and whether its ancestors
+ * form a single chain, i.e. whether the vertex and all of its ancestors have at
+ * most one hypernym. The WordNet hypernym graph is close to a tree, so most
+ * vertices are chain vertices.
+ * <p>
+ * The chain vertices form a tree, over which this class builds a binary
+ * lifting table: up[k][v] is the 2^k-th ancestor of v. Two chain vertices have
+ * a shortest common ancestor at their lowest common ancestor in that tree,
+ * found in O(log depth) time. When only one vertex is a chain vertex, a single
+ * breadth-first search from the other vertex is checked against the chain of
+ * the first. When neither is, the query falls back to AncestorSearch.
+ * <p>
+ * Construction takes θ(E + V log D) time and θ(V log D) space, where D is the
+ * depth of the DAG. An index is immutable once built and can be shared by any
+ * number of threads.
+ */
+final class AncestorIndex {
+    private final CompactDigraph G;
+    private final int[] depth; // depth[v] = length of shortest path from v to the root
+    private final boolean[] chain; // chain[v] = do the ancestors of v form one chain?
+    private final int[][] up; // up[k][v] = 2^k-th ancestor of chain vertex v, or -1
+
+    /**
+     * Builds the index over the rooted DAG G, given a topological order of G
+     * such as DirectedCycle.order() returns for it.
+     *
+     * @param G     the digraph, already validated as a rooted DAG
+     * @param order the vertices of G, each before all of its hypernyms
+     */
+    AncestorIndex(CompactDigraph G, int[] order) {
+        this.G = G;
+        int V = G.V();
+        this.depth = new int[V];
+        this.chain = new boolean[V];
+
+        // visit the vertices parents-first, which is the topological order
+        // read backwards
+        int maxDepth = 0;
+        for (int k = V - 1; k >= 0; k--) {
+            int v = order[k];
+            int degree = G.outdegree(v);
+            if (degree == 0) {
+                depth[v] = 0;
+                chain[v] = true;
+            }
+            else {
+                int d = Integer.MAX_VALUE;
+                for (int i = 0; i < degree; i++)
+                    d = Math.min(d, depth[G.neighbor(v, i)] + 1);
+                depth[v] = d;
+                chain[v] = degree == 1 && chain[G.neighbor(v, 0)];
+            }
+            maxDepth = Math.max(maxDepth, depth[v]);
+        }
+
+        int levels = 1;
+        while ((1 << levels) <= maxDepth)
+            levels++;
+        this.up = new int[levels][V];
+        for (int v = 0; v < V; v++)
+            up[0][v] = (chain[v] && G.outdegree(v) == 1) ? G.neighbor(v, 0) : -1;
+        for (int k = 1; k < levels; k++) {
+            for (int v = 0; v < V; v++) {
+                int mid = up[k - 1][v];
+                up[k][v] = (mid < 0) ? -1 : up[k - 1][mid];
+            }
+        }
+    }
+
+    // takes over complete arrays, used by update()
+    private AncestorIndex(CompactDigraph G, int[] depth, boolean[] chain, int[][] up) {
+        this.G = G;
+        this.depth = depth;
+        this.chain = chain;
+        this.up = up;
+    }
+
+    /**
+     * Returns the index over G, a copy of the digraph of this index with edges
+     * and vertices added, leaving this index as it is. Only the changed
+     * vertices are recomputed: the depth, chain flag and lifting entries of a
+     * vertex depend only on its ancestors, so they change only for the tails of
+     * the added edges, the added vertices and their descendants. Every other
+     * entry is copied. If the added vertices make the DAG deeper than the
+     * lifting table reaches, the index is rebuilt from scratch instead.
+     *
+     * @param G       the extended digraph, already validated as a rooted DAG
+     * @param changed the changed vertices, closed under descendants
+     * @param n       the number of changed vertices
+     * @return the index over G
+     */
+    AncestorIndex update(CompactDigraph G, int[] changed, int n) {
+        int V = G.V();
+        int[] depth = Arrays.copyOf(this.depth, V);
+        boolean[] chain = Arrays.copyOf(this.chain, V);
+
+        // visit the changed vertices parents-first, counting only their changed
+        // hypernyms; the others keep their entries
+        boolean[] marked = new boolean[V];
+        for (int k = 0; k < n; k++)
+            marked[changed[k]] = true;
+        int[] remaining = new int[V];
+        int[] order = new int[n];
+        int head = 0, tail = 0;
+        for (int k = 0; k < n; k++) {
+            int v = changed[k];
+            for (int i = 0, degree = G.outdegree(v); i < degree; i++) {
+                if (marked[G.neighbor(v, i)])
+                    remaining[v]++;
+            }
+            if (remaining[v] == 0)
+                order[tail++] = v;
+        }
+        int maxDepth = 0;
+        while (head < tail) {
+            int v = order[head++];
+            int degree = G.outdegree(v);
+            if (degree == 0) {
+                depth[v] = 0;
+                chain[v] = true;
+            }
+            else {
+                int d = Integer.MAX_VALUE;
+                for (int i = 0; i < degree; i++)
+                    d = Math.min(d, depth[G.neighbor(v, i)] + 1);
+                depth[v] = d;
+                chain[v] = degree == 1 && chain[G.neighbor(v, 0)];
+            }
+            maxDepth = Math.max(maxDepth, depth[v]);
+
+            int hyponyms = G.indegree(v);
+            for (int i = 0; i < hyponyms; i++) {
+                int hyponym = G.reverseNeighbor(v, i);
+                if (--remaining[hyponym] == 0)
+                    order[tail++] = hyponym;
+            }
+        }
+        if ((1 << this.up.length) <= maxDepth)
+            return new AncestorIndex(G, new DirectedCycle(G).order());
+
+        // the lifting entries of a vertex only read those of its ancestors,
+        // which parents-first order has already filled in
+        int[][] up = new int[this.up.length][];
+        for (int k = 0; k < up.length; k++)
+            up[k] = Arrays.copyOf(this.up[k], V);
+        for (int i = 0; i < n; i++) {
+            int v = order[i];
+            up[0][v] = (chain[v] && G.outdegree(v) == 1) ? G.neighbor(v, 0) : -1;
+            for (int k = 1; k < up.length; k++) {
+                int mid = up[k - 1][v];
+                up[k][v] = (mid < 0) ? -1 : up[k - 1][mid];
+            }
+        }
+        return new AncestorIndex(G, depth, chain, up);
+    }
+
+    /**
+     * Returns the length of a shortest path from v to the root.
+     *
+     * @param v the vertex
+     * @return the depth of v
+     */
+    int depth(int v) {
+        return depth[v];
+    }
+
+    /**
+     * Do the ancestors of v form a single chain up to the root?
+     *
+     * @param v the vertex
+     * @return true if v and all of its ancestors have at most one hypernym
+     */
+    boolean isChain(int v) {
+        return chain[v];
+    }
+
+    /**
+     * Returns the lowest common ancestor of two chain vertices.
+     *
+     * @param v one chain vertex
+     * @param w the other chain vertex
+     * @return the lowest common ancestor of v and w
+     */
+    int lca(int v, int w) {
+        if (depth[v] < depth[w]) {
+            int t = v;
+            v = w;
+            w = t;
+        }
+        // lift v to the depth of w
+        for (int k = up.length - 1, diff = depth[v] - depth[w]; k >= 0; k--) {
+            if ((diff & (1 << k)) != 0)
+                v = up[k][v];
+        }
+        if (v == w)
+            return v;
+        for (int k = up.length - 1; k >= 0; k--) {
+            if (up[k][v] != up[k][w]) {
+                v = up[k][v];
+                w = up[k][w];
+            }
+        }
+        return up[0][v];
+    }
+
+    /**
+     * Finds a shortest ancestral path between v and w, if at least one of them is
+     * a chain vertex.
+     *
+     * @param v one vertex
+     * @param w the other vertex
+     * @return the length in the high 32 bits and the ancestor in the low 32 bits,
+     *         or -1 if neither vertex is a chain vertex
+     */
+    long query(int v, int w) {
+        if (chain[v] && chain[w]) {
+            int x = lca(v, w);
+            return pack(depth[v] + depth[w] - 2 * depth[x], x);
+        }
+        if (!chain[v] && !chain[w])
+            return -1;
+        if (!chain[v]) {
+            int t = v;
+            v = w;
+            w = t;
+        }
+
+        // v is a chain vertex: search from w, then walk up the chain of v
+        TraversalContext fromW = TraversalContext.forThread(0, G.V());
+        fromW.visit(w, 0);
+        fromW.enqueue(w);
+        while (fromW.queueSize() > 0) {
+            int x = fromW.dequeue();
+            int d = fromW.dist(x);
+            int degree = G.outdegree(x);
+            for (int i = 0; i < degree; i++) {
+                int y = G.neighbor(x, i);
+                if (fromW.visit(y, d + 1))
+                    fromW.enqueue(y);
+            }
+        }
+
+        int best = Integer.MAX_VALUE;
+        int ancestor = -1;
+        for (int x = v, d = 0; x >= 0 && d < best; x = up[0][x], d++) {
+            int dw = fromW.dist(x);
+            if (dw >= 0 && d + dw < best) {
+                best = d + dw;
+                ancestor = x;
+            }
+        }
+        return pack(best, ancestor);
+    }
+
+    // packs a length and an ancestor into one long
+    private static long pack(int length, int ancestor) {
+        return ((long) length << 32) | (ancestor & 0xFFFFFFFFL);
+    }
+}
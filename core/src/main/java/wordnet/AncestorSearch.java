@@ -0,0 +1,319 @@
+/******************************************************************************
+ *  Shortest ancestral path between two vertices of a digraph, found with
+ *  two breadth-first searches that advance one level at a time.
+ ******************************************************************************/
+
+package wordnet;
+
+/**
+ * The AncestorSearch class finds a shortest ancestral path between two vertices
+ * v and w of a digraph: a common ancestor x that minimizes the distance from v
+ * to x plus the distance from w to x. A single search yields both the length
+ * of the path and the ancestor.
+ * <p>
+ * The same search also accepts a subset of vertices on either side, seeding
+ * each breadth-first search with all of its subset at distance 0.
+ * <p>
+ * This implementation runs a breadth-first search from v and one from w over
+ * the outgoing (hypernym) edges, always expanding the smaller frontier by one
+ * level. Whenever one search reaches a vertex the other has already reached,
+ * that vertex is a candidate ancestor. A search stops expanding once its next
+ * level can no longer beat the best candidate, so the traversal only covers
+ * the ancestors that are closer than the answer. Each search takes O(E + V)
+ * time in the worst case. The marks, distances and queues come from the
+ * calling thread's TraversalContext objects, so a search allocates nothing
+ * and costs time proportional to the vertices it touches.
+ */
+final class AncestorSearch {
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    private final CompactDigraph G;
+    private final AncestorIndex index; // answers most queries without a search, or null
+    private final HubLabelIndex labels; // answers every query without a search, or null
+    private final AncestorCache closures; // ancestor sets of recently queried vertices, or null
+
+    private int length; // length of the last shortest ancestral path, or -1
+    private int ancestor; // ancestor on the last shortest ancestral path, or -1
+
+    /**
+     * Initializes a search engine over the digraph G.
+     *
+     * @param G the digraph
+     */
+    AncestorSearch(CompactDigraph G) {
+        this(G, null, null, null);
+    }
+
+    /**
+     * Initializes a search engine over the digraph G that consults the labels,
+     * then the index, before it searches.
+     *
+     * @param G      the digraph
+     * @param index  the ancestor index of G, or null
+     * @param labels the hub labels of G, or null
+     */
+    AncestorSearch(CompactDigraph G, AncestorIndex index, HubLabelIndex labels) {
+        this(G, index, labels, null);
+    }
+
+    /**
+     * Initializes a search engine over the digraph G that consults the labels,
+     * then the index for two chain vertices, then the ancestor sets of the
+     * cache, before it searches.
+     *
+     * @param G        the digraph
+     * @param index    the ancestor index of G, or null
+     * @param labels   the hub labels of G, or null
+     * @param closures a cache of ancestor sets of G, or null
+     */
+    AncestorSearch(CompactDigraph G, AncestorIndex index, HubLabelIndex labels, AncestorCache closures) {
+        this.G = G;
+        this.index = index;
+        this.labels = labels;
+        this.closures = closures;
+    }
+
+    /**
+     * Finds a shortest ancestral path between v and w. The result is available
+     * from length() and ancestor() until the next search.
+     *
+     * @param v one vertex
+     * @param w the other vertex
+     */
+    void search(int v, int w) {
+        MetricsRegistry m = Metrics.registry();
+        if (labels != null) {
+            long result = labels.query(v, w);
+            this.length = (result < 0) ? -1 : (int) (result >>> 32);
+            this.ancestor = (result < 0) ? -1 : (int) result;
+            if (m != null)
+                m.add(Metric.ANSWERED_BY_LABELS, 1);
+            return;
+        }
+        if (index != null && (closures == null || index.isChain(v) && index.isChain(w))) {
+            long result = index.query(v, w);
+            if (result >= 0) {
+                this.length = (int) (result >>> 32);
+                this.ancestor = (int) result;
+                if (m != null)
+                    m.add(Metric.ANSWERED_BY_INDEX, 1);
+                return;
+            }
+        }
+        if (closures != null) {
+            long result = closures.get(G, v).meet(closures.get(G, w));
+            this.length = (result < 0) ? -1 : (int) (result >>> 32);
+            this.ancestor = (result < 0) ? -1 : (int) result;
+            if (m != null)
+                m.add(Metric.ANSWERED_BY_CLOSURES, 1);
+            return;
+        }
+
+        TraversalContext fromV = TraversalContext.forThread(0, G.V());
+        TraversalContext fromW = TraversalContext.forThread(1, G.V());
+        fromV.visit(v, 0);
+        fromV.enqueue(v);
+        fromW.visit(w, 0);
+        fromW.enqueue(w);
+        run(fromV, fromW, (v == w) ? v : -1);
+    }
+
+    /**
+     * Finds a shortest ancestral path between the vertex subsets A and B: a common
+     * ancestor x of some a in A and some b in B that minimizes the distance from a
+     * to x plus the distance from b to x. Both searches are seeded with a whole
+     * subset, so this takes one pair of traversals rather than one per pair of
+     * vertices.
+     *
+     * @param subsetA one subset of vertices
+     * @param subsetB the other subset of vertices
+     */
+    void search(Iterable<Integer> subsetA, Iterable<Integer> subsetB) {
+        TraversalContext fromA = TraversalContext.forThread(0, G.V());
+        TraversalContext fromB = TraversalContext.forThread(1, G.V());
+        int common = -1; // a vertex in both subsets is its own ancestor at distance 0
+        for (int a : subsetA) {
+            if (fromA.visit(a, 0))
+                fromA.enqueue(a);
+        }
+        for (int b : subsetB) {
+            if (fromB.visit(b, 0))
+                fromB.enqueue(b);
+            if (fromA.isMarked(b))
+                common = b;
+        }
+        run(fromA, fromB, common);
+    }
+
+    /**
+     * Finds a shortest ancestral path between the vertex subsets a[aLo .. aHi)
+     * and b[bLo .. bHi), as search(Iterable, Iterable) does, without boxing.
+     * Like search(int, int), it first consults the labels, then the index when
+     * every vertex of both subsets is a chain vertex, then the ancestor sets of
+     * the cache, taking the best answer over all pairs of one vertex from each
+     * subset; only without any of them does it run one multi-source search.
+     *
+     * @param a   holds one subset of vertices
+     * @param aLo the index of the first vertex of that subset
+     * @param aHi one past the index of its last vertex
+     * @param b   holds the other subset of vertices
+     * @param bLo the index of the first vertex of that subset
+     * @param bHi one past the index of its last vertex
+     */
+    void search(int[] a, int aLo, int aHi, int[] b, int bLo, int bHi) {
+        if (aHi - aLo == 1 && bHi - bLo == 1) {
+            search(a[aLo], b[bLo]);
+            return;
+        }
+        if (labels != null || closures != null || index != null && allChain(a, aLo, aHi) && allChain(b, bLo, bHi)) {
+            pairs(a, aLo, aHi, b, bLo, bHi);
+            return;
+        }
+        TraversalContext fromA = TraversalContext.forThread(0, G.V());
+        TraversalContext fromB = TraversalContext.forThread(1, G.V());
+        int common = -1;
+        for (int i = aLo; i < aHi; i++) {
+            if (fromA.visit(a[i], 0))
+                fromA.enqueue(a[i]);
+        }
+        for (int i = bLo; i < bHi; i++) {
+            if (fromB.visit(b[i], 0))
+                fromB.enqueue(b[i]);
+            if (fromA.isMarked(b[i]))
+                common = b[i];
+        }
+        run(fromA, fromB, common);
+    }
+
+    // are all of a[lo .. hi) chain vertices of the index?
+    private boolean allChain(int[] a, int lo, int hi) {
+        for (int i = lo; i < hi; i++) {
+            if (!index.isChain(a[i]))
+                return false;
+        }
+        return true;
+    }
+
+    // the best of the answers for every pair of a vertex of a[aLo .. aHi) and
+    // one of b[bLo .. bHi), each from the labels, the index or the cache; a
+    // tie keeps the ancestor of the first pair that reached the length
+    private void pairs(int[] a, int aLo, int aHi, int[] b, int bLo, int bHi) {
+        long best = -1;
+        Metric answeredBy;
+        if (labels != null) {
+            answeredBy = Metric.ANSWERED_BY_LABELS;
+            for (int i = aLo; i < aHi; i++) {
+                for (int j = bLo; j < bHi; j++)
+                    best = better(best, labels.query(a[i], b[j]));
+            }
+        }
+        else if (index != null && allChain(a, aLo, aHi) && allChain(b, bLo, bHi)) {
+            answeredBy = Metric.ANSWERED_BY_INDEX;
+            for (int i = aLo; i < aHi; i++) {
+                for (int j = bLo; j < bHi; j++)
+                    best = better(best, index.query(a[i], b[j]));
+            }
+        }
+        else {
+            answeredBy = Metric.ANSWERED_BY_CLOSURES;
+            for (int j = bLo; j < bHi; j++) {
+                AncestorSet ancestorsB = closures.get(G, b[j]);
+                for (int i = aLo; i < aHi; i++)
+                    best = better(best, closures.get(G, a[i]).meet(ancestorsB));
+            }
+        }
+        this.length = (best < 0) ? -1 : (int) (best >>> 32);
+        this.ancestor = (best < 0) ? -1 : (int) best;
+        MetricsRegistry m = Metrics.registry();
+        if (m != null)
+            m.add(answeredBy, 1);
+    }
+
+    // the shorter of two packed answers, either of which may be -1 for none
+    private static long better(long best, long result) {
+        if (result < 0)
+            return best;
+        return (best < 0 || (result >>> 32) < (best >>> 32)) ? result : best;
+    }
+
+    // expands the two seeded searches until neither can improve on the best
+    // common ancestor; common is a vertex seeded in both, or -1
+    private void run(TraversalContext fromV, TraversalContext fromW, int common) {
+        int best = (common >= 0) ? 0 : INFINITY;
+        int bestAncestor = common;
+
+        // the queue of each search holds its frontier, at distance level
+        int levelV = 0, levelW = 0;
+        int vertices = 0, edges = 0; // work done, for the metrics
+        MetricsRegistry m = Metrics.registry();
+
+        while (true) {
+            // a level is only worth expanding if its vertices could beat best
+            boolean growV = fromV.queueSize() > 0 && levelV + 1 < best;
+            boolean growW = fromW.queueSize() > 0 && levelW + 1 < best;
+            if (!growV && !growW)
+                break;
+
+            TraversalContext near, far;
+            int level;
+            if (growV && (!growW || fromV.queueSize() <= fromW.queueSize())) {
+                near = fromV;
+                far = fromW;
+                level = levelV++;
+            }
+            else {
+                near = fromW;
+                far = fromV;
+                level = levelW++;
+            }
+
+            int frontier = near.queueSize();
+            vertices += frontier;
+            if (m != null)
+                m.record(Metric.SEARCH_FRONTIER, frontier);
+            for (int n = frontier; n > 0; n--) {
+                int x = near.dequeue();
+                int degree = G.outdegree(x);
+                edges += degree;
+                for (int i = 0; i < degree; i++) {
+                    int y = G.neighbor(x, i);
+                    if (!near.visit(y, level + 1))
+                        continue;
+                    near.enqueue(y);
+                    int d = far.dist(y);
+                    if (d >= 0 && level + 1 + d < best) {
+                        best = level + 1 + d;
+                        bestAncestor = y;
+                    }
+                }
+            }
+        }
+
+        this.length = (best == INFINITY) ? -1 : best;
+        this.ancestor = bestAncestor;
+        if (m != null) {
+            m.add(Metric.ANSWERED_BY_SEARCH, 1);
+            m.record(Metric.SEARCH_VERTICES, vertices);
+            m.record(Metric.SEARCH_EDGES, edges);
+        }
+    }
+
+    /**
+     * Returns the length of the shortest ancestral path found by the last search.
+     *
+     * @return the length, or -1 if the two vertices have no common ancestor
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Returns the common ancestor on the shortest ancestral path found by the last
+     * search.
+     *
+     * @return the ancestor, or -1 if the two vertices have no common ancestor
+     */
+    int ancestor() {
+        return ancestor;
+    }
+}
@@ -0,0 +1,187 @@
+/******************************************************************************
+ *  The ancestors of a set of vertices, with their distances, as sorted
+ *  primitive arrays.
+ ******************************************************************************/
+
+package wordnet;
+
+import java.util.Arrays;
+
+/**
+ * The AncestorSet class holds every ancestor of a set of source vertices (the
+ * sources included, at distance 0) together with its distance from the nearest
+ * source. For WordNet the sources are the senses of one noun, and the set is
+ * its hypernym closure, which is small compared with the whole graph.
+ * <p>
+ * The ancestors are kept sorted by vertex in an int array, with the distances
+ * in a parallel short array. Two sets meet at their common ancestor with the
+ * smallest distance sum, which is found by merging the two arrays in time
+ * linear in their sizes and without allocating. Building a set takes one
+ * breadth-first search. A set is immutable and can be shared between threads.
+ */
+final class AncestorSet {
+    private final int[] vertices; // ancestors, in increasing order
+    private final short[] dists; // dists[i] = distance from the sources to vertices[i]
+
+    private AncestorSet(int[] vertices, short[] dists) {
+        this.vertices = vertices;
+        this.dists = dists;
+    }
+
+    /**
+     * Collects the ancestors of the sources s[lo .. hi) in G.
+     *
+     * @param G  the digraph
+     * @param s  holds the sources
+     * @param lo the index of the first source
+     * @param hi one past the index of the last source
+     * @return the ancestors of the sources with their distances
+     * @throws IllegalArgumentException if an ancestor is more than 32767 edges away
+     */
+    static AncestorSet of(CompactDigraph G, int[] s, int lo, int hi) {
+        TraversalContext c = TraversalContext.forThread(0, G.V());
+        for (int i = lo; i < hi; i++) {
+            if (c.visit(s[i], 0))
+                c.enqueue(s[i]);
+        }
+
+        long[] found = new long[16]; // vertex in the high bits, distance in the low bits
+        int n = 0;
+        while (c.queueSize() > 0) {
+            int x = c.dequeue();
+            int d = c.dist(x);
+            if (d > Short.MAX_VALUE)
+                throw new IllegalArgumentException("ancestor " + x + " is too far away to record");
+            if (n == found.length)
+                found = Arrays.copyOf(found, 2 * n);
+            found[n++] = ((long) x << 16) | d;
+
+            int degree = G.outdegree(x);
+            for (int i = 0; i < degree; i++) {
+                int y = G.neighbor(x, i);
+                if (c.visit(y, d + 1))
+                    c.enqueue(y);
+            }
+        }
+        Arrays.sort(found, 0, n);
+
+        int[] vertices = new int[n];
+        short[] dists = new short[n];
+        for (int i = 0; i < n; i++) {
+            vertices[i] = (int) (found[i] >>> 16);
+            dists[i] = (short) (found[i] & 0xFFFF);
+        }
+        return new AncestorSet(vertices, dists);
+    }
+
+    /**
+     * Returns the number of ancestors in this set.
+     *
+     * @return the number of ancestors, sources included
+     */
+    int size() {
+        return vertices.length;
+    }
+
+    /**
+     * Returns the distance from the sources to a vertex.
+     *
+     * @param v the vertex
+     * @return the distance to v, or -1 if v is not an ancestor of the sources
+     */
+    int dist(int v) {
+        int i = Arrays.binarySearch(vertices, v);
+        return (i < 0) ? -1 : dists[i];
+    }
+
+    /**
+     * Finds a shortest ancestral path between the sources of this set and the
+     * sources of that set.
+     *
+     * @param that the other set
+     * @return the length in the high 32 bits and the ancestor in the low 32 bits,
+     *         or -1 if the two sets have no common ancestor
+     */
+    long meet(AncestorSet that) {
+        int[] a = this.vertices, b = that.vertices;
+        int i = 0, j = 0;
+        int best = Integer.MAX_VALUE;
+        int ancestor = -1;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j])
+                i++;
+            else if (a[i] > b[j])
+                j++;
+            else {
+                int d = this.dists[i] + that.dists[j];
+                if (d < best) {
+                    best = d;
+                    ancestor = a[i];
+                }
+                i++;
+                j++;
+            }
+        }
+        if (ancestor < 0)
+            return -1;
+        return ((long) best << 32) | ancestor;
+    }
+
+    /**
+     * Finds a shortest ancestral path between the sources of this set and the
+     * targets t[lo .. hi), without building an ancestor set for the targets: a
+     * breadth-first search walks up from the targets, looks every ancestor up in
+     * this set, and stops once its distance alone can no longer beat the best
+     * common ancestor.
+     *
+     * @param G  the digraph this set was built from
+     * @param t  holds the targets
+     * @param lo the index of the first target
+     * @param hi one past the index of the last target
+     * @return the length in the high 32 bits and the ancestor in the low 32 bits,
+     *         or -1 if the sources and the targets have no common ancestor
+     */
+    long meet(CompactDigraph G, int[] t, int lo, int hi) {
+        TraversalContext c = TraversalContext.forThread(1, G.V());
+        for (int i = lo; i < hi; i++) {
+            if (c.visit(t[i], 0))
+                c.enqueue(t[i]);
+        }
+
+        int best = Integer.MAX_VALUE;
+        int ancestor = -1;
+        while (c.queueSize() > 0) {
+            int x = c.dequeue();
+            int d = c.dist(x);
+            if (d >= best)
+                break; // the queue is in distance order, so nothing left can win
+            int ds = dist(x);
+            if (ds >= 0 && d + ds < best) {
+                best = d + ds;
+                ancestor = x;
+            }
+
+            int degree = G.outdegree(x);
+            for (int i = 0; i < degree; i++) {
+                int y = G.neighbor(x, i);
+                if (c.visit(y, d + 1))
+                    c.enqueue(y);
+            }
+        }
+        if (ancestor < 0)
+            return -1;
+        return ((long) best << 32) | ancestor;
+    }
+
+    /**
+     * Returns the length of a shortest ancestral path between the sources of this
+     * set and the sources of that set.
+     *
+     * @param that the other set
+     * @return the length, or -1 if the two sets have no common ancestor
+     */
+    int distanceTo(AncestorSet that) {
+        long m = meet(that);
+        return (m < 0) ? -1 : (int) (m >>> 32);
+    }
+}
@@ -2,6 +2,8 @@
  *  A generic bag or multiset, implemented using a singly linked list.
  ******************************************************************************/
 
+package wordnet;
+
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
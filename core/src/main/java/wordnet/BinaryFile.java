@@ -0,0 +1,134 @@
+/******************************************************************************
+ *  Versioned, checksummed binary files, written atomically and read mapped.
+ ******************************************************************************/
+
+package wordnet;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The BinaryFile class writes and reads the binary files of the WordNet
+ * snapshot and of the hub label index, which share one layout: a fixed header
+ * of a magic number, the format version, the length of the payload and a
+ * CRC-32 of the payload, then the payload itself. All numbers are big-endian.
+ * <p>
+ * Writing goes to a temporary file that replaces the target once it is
+ * complete, so a reader never sees a partial file. Reading maps the file into
+ * memory and rejects a file with the wrong magic number or version, a
+ * truncated payload or, if asked to verify it, a checksum mismatch.
+ */
+final class BinaryFile {
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8; // magic, version, length, checksum
+
+    private BinaryFile() { }
+
+    /**
+     * The Payload interface writes the body of a file.
+     */
+    interface Payload {
+        /**
+         * Writes the payload.
+         *
+         * @param out the destination
+         * @throws IOException if out cannot be written
+         */
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * Writes a file, replacing it if it exists.
+     *
+     * @param file    the name of the file
+     * @param kind    what the file holds, for error messages
+     * @param magic   the magic number of the kind of file
+     * @param version the format version
+     * @param payload writes the body of the file
+     * @throws IllegalArgumentException if the file cannot be written
+     */
+    static void write(String file, String kind, int magic, int version, Payload payload) {
+        Path target = Paths.get(file);
+        Path temp = Paths.get(file + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            // the header is written last, once the length and checksum are known
+            channel.position(HEADER_BYTES);
+            CRC32 crc = new CRC32();
+            OutputStream raw = Channels.newOutputStream(channel);
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new CheckedOutputStream(raw, crc), 1 << 16));
+            payload.write(out);
+            out.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(magic).putInt(version).putLong(out.size()).putLong(crc.getValue());
+            header.flip();
+            channel.write(header, 0);
+            channel.force(true);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("could not write " + kind + " " + file, e);
+        }
+
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("could not replace " + kind + " " + file, e);
+        }
+    }
+
+    /**
+     * Maps a file and checks its header.
+     *
+     * @param file    the name of the file
+     * @param kind    what the file holds, for error messages
+     * @param magic   the magic number of the kind of file
+     * @param version the format version
+     * @param verify  whether to check the checksum of the payload, which reads
+     *                the whole payload once
+     * @return the mapped file, positioned at the start of the payload
+     * @throws IllegalArgumentException if the file cannot be read, or is not of
+     *                                  this kind and version, or is truncated,
+     *                                  or fails its checksum
+     */
+    static MappedByteBuffer read(String file, String kind, int magic, int version, boolean verify) {
+        MappedByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IllegalArgumentException(file + " is too large to map");
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("could not read " + kind + " " + file, e);
+        }
+
+        if (buf.limit() < HEADER_BYTES || buf.getInt() != magic)
+            throw new IllegalArgumentException(file + " is not a " + kind);
+        int v = buf.getInt();
+        if (v != version)
+            throw new IllegalArgumentException(file + " has " + kind + " version " + v + ", expected " + version);
+        long length = buf.getLong();
+        long checksum = buf.getLong();
+        if (length != buf.remaining())
+            throw new IllegalArgumentException(file + " is truncated or has trailing data");
+
+        if (verify) {
+            CRC32 crc = new CRC32();
+            crc.update(buf.duplicate());
+            if (crc.getValue() != checksum)
+                throw new IllegalArgumentException(file + " fails its checksum");
+        }
+        return buf;
+    }
+}
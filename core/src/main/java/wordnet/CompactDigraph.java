@@ -0,0 +1,532 @@
+/******************************************************************************
+ *  An immutable graph, implemented using compressed sparse row arrays.
+ *  Parallel edges and self-loops are permitted.
+ ******************************************************************************/
+
+package wordnet;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+/**
+ * The CompactDigraph class represents a frozen directed graph of vertices named
+ * 0 through V - 1. It supports the same read-only operations as Digraph, plus
+ * iteration over the vertices adjacent to a given vertex (the hyponyms, when
+ * the graph holds hypernym edges).
+ * <p>
+ * This implementation uses a compressed sparse row (CSR) representation: the
+ * vertices adjacent from v are targets[offsets[v]] through
+ * targets[offsets[v + 1] - 1]. The reverse index is built once, in the same
+ * form, when the digraph is constructed. It uses θ(E + V) space in four int
+ * arrays, with no per-edge objects. A digraph read from a snapshot is a
+ * MappedDigraph instead, which serves the same arrays from the mapped file.
+ * Constructing a CompactDigraph takes θ(E + V) time; the reverse() method takes
+ * θ(1) time; all other instance methods take θ(1) time. (Though, iterating
+ * over the vertices returned by adj(int) takes time proportional to the
+ * outdegree of the vertex.)
+ */
+public class CompactDigraph implements DigraphView {
+    private static final String NEWLINE = System.getProperty("line.separator");
+
+    private final int V; // number of vertices in this digraph
+    private final int E; // number of edges in this digraph
+    private final int[] offsets; // targets[offsets[v] .. offsets[v+1]) = vertices adjacent from v
+    private final int[] targets;
+    private final int[] revOffsets; // revTargets[revOffsets[v] .. revOffsets[v+1]) = vertices adjacent to v
+    private final int[] revTargets;
+
+    /**
+     * Initializes a frozen copy of the specified digraph. The adjacency lists keep
+     * the iteration order of G.
+     *
+     * @param G the digraph to copy
+     * @throws IllegalArgumentException if G is null
+     */
+    public CompactDigraph(DigraphView G) {
+        if (G == null)
+            throw new IllegalArgumentException("argument is null");
+
+        this.V = G.V();
+        this.E = G.E();
+        int[] offsets = new int[V + 1];
+        int[] targets = new int[E];
+
+        int i = 0;
+        for (int v = 0; v < V; v++) {
+            offsets[v] = i;
+            int degree = G.outdegree(v);
+            for (int k = 0; k < degree; k++) {
+                targets[i++] = G.neighbor(v, k);
+            }
+        }
+        offsets[V] = i;
+
+        int[] revOffsets = new int[V + 1];
+        int[] revTargets = new int[E];
+        transpose(V, offsets, targets, revOffsets, revTargets);
+        this.offsets = offsets;
+        this.targets = targets;
+        this.revOffsets = revOffsets;
+        this.revTargets = revTargets;
+    }
+
+    /**
+     * Initializes a digraph directly from CSR arrays. The arrays are taken over,
+     * not copied, so the caller must not modify them afterwards.
+     *
+     * @param V       the number of vertices
+     * @param offsets the V + 1 row offsets into targets
+     * @param targets the heads of the edges, grouped by tail vertex
+     * @throws IllegalArgumentException if the arrays are not a valid CSR layout
+     */
+    CompactDigraph(int V, int[] offsets, int[] targets) {
+        if (V < 0)
+            throw new IllegalArgumentException("Number of vertices in a Digraph must be non-negative");
+        if (offsets.length != V + 1 || offsets[0] != 0 || offsets[V] > targets.length)
+            throw new IllegalArgumentException("invalid CSR offsets");
+
+        this.V = V;
+        this.E = offsets[V];
+        for (int i = 0; i < E; i++) {
+            if (targets[i] < 0 || targets[i] >= V)
+                throw new IllegalArgumentException("vertex " + targets[i] + " is not between 0 and " + (V - 1));
+        }
+
+        int[] revOffsets = new int[V + 1];
+        int[] revTargets = new int[E];
+        transpose(V, offsets, targets, revOffsets, revTargets);
+        this.offsets = offsets;
+        this.targets = targets;
+        this.revOffsets = revOffsets;
+        this.revTargets = revTargets;
+    }
+
+    // takes over complete arrays, used by reverse(), withEdges() and
+    // ParallelGraphBuilder
+    CompactDigraph(int V, int E, int[] offsets, int[] targets, int[] revOffsets, int[] revTargets) {
+        this.V = V;
+        this.E = E;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.revOffsets = revOffsets;
+        this.revTargets = revTargets;
+    }
+
+    // used by MappedDigraph, which keeps the arrays in the mapped file and
+    // overrides every method that reads them
+    CompactDigraph(int V, int E) {
+        this(V, E, null, null, null, null);
+    }
+
+    // builds the reverse CSR index with a counting pass followed by a fill pass
+    private static void transpose(int V, int[] offsets, int[] targets, int[] revOffsets, int[] revTargets) {
+        int E = offsets[V];
+        for (int i = 0; i < E; i++)
+            revOffsets[targets[i] + 1]++;
+        for (int v = 0; v < V; v++)
+            revOffsets[v + 1] += revOffsets[v];
+
+        int[] next = new int[V];
+        System.arraycopy(revOffsets, 0, next, 0, V);
+        for (int v = 0; v < V; v++) {
+            for (int i = offsets[v]; i < offsets[v + 1]; i++) {
+                revTargets[next[targets[i]]++] = v;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of vertices in this digraph.
+     *
+     * @return the number of vertices in this digraph
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of edges in this digraph.
+     *
+     * @return the number of edges in this digraph
+     */
+    public int E() {
+        return E;
+    }
+
+    // throw an IllegalArgumentException unless 0 <= v < V
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V - 1));
+    }
+
+    /**
+     * Returns the vertices adjacent from vertex v in this digraph.
+     *
+     * @param v the vertex
+     * @return the vertices adjacent from vertex v in this digraph, as an iterable
+     * @throws IllegalArgumentException unless 0 <= v < V
+     */
+    public Iterable<Integer> adj(int v) {
+        validateVertex(v);
+        return new Slice(targets, offsets[v], offsets[v + 1]);
+    }
+
+    /**
+     * Returns the i-th vertex adjacent from vertex v, in the same order as adj(v).
+     * Unlike adj(v), this allocates nothing.
+     *
+     * @param v the vertex
+     * @param i the position in the adjacency list
+     * @return the i-th vertex adjacent from vertex v
+     * @throws IllegalArgumentException unless 0 <= v < V and 0 <= i < outdegree(v)
+     */
+    public int neighbor(int v, int i) {
+        validateVertex(v);
+        int from = offsets[v];
+        int degree = offsets[v + 1] - from;
+        if (i < 0 || i >= degree)
+            throw new IllegalArgumentException("index " + i + " is not between 0 and " + (degree - 1));
+        return targets[from + i];
+    }
+
+    /**
+     * Copies the vertices adjacent from vertex v into buf, with a single array
+     * copy.
+     *
+     * @param v   the vertex
+     * @param buf the destination, with room for at least outdegree(v) vertices
+     * @return the number of vertices copied, which is the outdegree of v
+     * @throws IllegalArgumentException unless 0 <= v < V and buf is large enough
+     */
+    public int copyNeighbors(int v, int[] buf) {
+        validateVertex(v);
+        int degree = offsets[v + 1] - offsets[v];
+        if (buf.length < degree)
+            throw new IllegalArgumentException("buffer holds " + buf.length + " vertices, need " + degree);
+        System.arraycopy(targets, offsets[v], buf, 0, degree);
+        return degree;
+    }
+
+    /**
+     * Returns the vertices adjacent to vertex v in this digraph. For a graph of
+     * hypernym edges these are the hyponyms of v.
+     *
+     * @param v the vertex
+     * @return the vertices with an edge into v, as an iterable
+     * @throws IllegalArgumentException unless 0 <= v < V
+     */
+    public Iterable<Integer> reverseAdj(int v) {
+        validateVertex(v);
+        return new Slice(revTargets, revOffsets[v], revOffsets[v + 1]);
+    }
+
+    /**
+     * Returns the i-th vertex adjacent to vertex v, in the same order as
+     * reverseAdj(v). Unlike reverseAdj(v), this allocates nothing.
+     *
+     * @param v the vertex
+     * @param i the position in the reverse adjacency list
+     * @return the i-th vertex with an edge into v
+     * @throws IllegalArgumentException unless 0 <= v < V and 0 <= i < indegree(v)
+     */
+    public int reverseNeighbor(int v, int i) {
+        validateVertex(v);
+        int from = revOffsets[v];
+        int degree = revOffsets[v + 1] - from;
+        if (i < 0 || i >= degree)
+            throw new IllegalArgumentException("index " + i + " is not between 0 and " + (degree - 1));
+        return revTargets[from + i];
+    }
+
+    /**
+     * Returns the number of directed edges incident from vertex v. This is known as
+     * the outdegree of vertex v.
+     *
+     * @param v the vertex
+     * @return the outdegree of vertex v
+     * @throws IllegalArgumentException unless 0 <= v < V
+     */
+    public int outdegree(int v) {
+        validateVertex(v);
+        return offsets[v + 1] - offsets[v];
+    }
+
+    /**
+     * Returns the number of directed edges incident to vertex v. This is known as
+     * the indegree of vertex v.
+     *
+     * @param v the vertex
+     * @return the indegree of vertex v
+     * @throws IllegalArgumentException unless 0 <= v < V
+     */
+    public int indegree(int v) {
+        validateVertex(v);
+        return revOffsets[v + 1] - revOffsets[v];
+    }
+
+    /**
+     * Returns the reverse of the digraph. The reverse shares this digraph's
+     * arrays, since neither can be modified.
+     *
+     * @return the reverse of the digraph
+     */
+    public CompactDigraph reverse() {
+        return new CompactDigraph(V, E, revOffsets, revTargets, offsets, targets);
+    }
+
+    /**
+     * Returns a string representation of the graph.
+     *
+     * @return the number of vertices V, followed by the number of edges E, followed
+     *         by the V adjacency lists
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(V + " vertices, " + E + " edges " + NEWLINE);
+
+        for (int v = 0; v < V; v++) {
+            s.append(String.format("%d: ", v));
+            for (int i = 0, degree = outdegree(v); i < degree; i++) {
+                s.append(String.format("%d ", neighbor(v, i)));
+            }
+            s.append(NEWLINE);
+        }
+
+        return s.toString();
+    }
+
+    /**
+     * Returns a copy of this digraph with more vertices and edges; this digraph
+     * is left as it is. The k-th added edge runs from tails[k] to heads[k].
+     * Every row keeps its old edges in order, after the added ones, which come
+     * most recent first as with Digraph.addEdge; every reverse row stays sorted
+     * by tail vertex, as the constructors build it. The rows are copied in bulk
+     * rather than rebuilt edge by edge, so this takes θ(E + V) time plus the
+     * time to sort the reverse rows that gain edges.
+     *
+     * @param V     the number of vertices of the copy, at least V()
+     * @param tails the tail of each added edge
+     * @param heads the head of each added edge
+     * @param n     the number of added edges
+     * @return the extended digraph
+     * @throws IllegalArgumentException if V < V() or an added edge has a vertex
+     *                                  that is not between 0 and V - 1
+     */
+    CompactDigraph withEdges(int V, int[] tails, int[] heads, int n) {
+        if (V < this.V)
+            throw new IllegalArgumentException("a digraph cannot lose vertices: " + V + " < " + this.V);
+        int[] added = new int[V]; // added outdegree of each vertex
+        int[] addedIn = new int[V]; // added indegree of each vertex
+        for (int k = 0; k < n; k++) {
+            if (tails[k] < 0 || tails[k] >= V)
+                throw new IllegalArgumentException("vertex " + tails[k] + " is not between 0 and " + (V - 1));
+            if (heads[k] < 0 || heads[k] >= V)
+                throw new IllegalArgumentException("vertex " + heads[k] + " is not between 0 and " + (V - 1));
+            added[tails[k]]++;
+            addedIn[heads[k]]++;
+        }
+
+        int E = this.E + n;
+        int[] offsets = new int[V + 1];
+        int[] revOffsets = new int[V + 1];
+        for (int v = 0; v < V; v++) {
+            boolean old = v < this.V;
+            offsets[v + 1] = offsets[v] + added[v] + (old ? outdegree(v) : 0);
+            revOffsets[v + 1] = revOffsets[v] + addedIn[v] + (old ? indegree(v) : 0);
+        }
+
+        // the old rows go after the added edges, the old reverse rows before them
+        int[] targets = new int[E];
+        int[] revTargets = new int[E];
+        for (int v = 0; v < this.V; v++) {
+            copyRow(v, targets, offsets[v] + added[v]);
+            copyReverseRow(v, revTargets, revOffsets[v]);
+        }
+        for (int k = 0; k < n; k++) {
+            targets[offsets[tails[k]] + --added[tails[k]]] = heads[k];
+            revTargets[revOffsets[heads[k] + 1] - addedIn[heads[k]]--] = tails[k];
+        }
+        for (int k = 0; k < n; k++) {
+            int v = heads[k];
+            if (addedIn[v] == 0) {
+                Arrays.sort(revTargets, revOffsets[v], revOffsets[v + 1]);
+                addedIn[v] = -1; // sorted
+            }
+        }
+        return new CompactDigraph(V, E, offsets, targets, revOffsets, revTargets);
+    }
+
+    /**
+     * Returns a fingerprint of this digraph: a CRC-32 of its vertex and edge
+     * counts and of its adjacency lists, in order. Two digraphs with the same
+     * edges in the same order have the same fingerprint; any other pair almost
+     * surely differs. This takes θ(E + V) time.
+     *
+     * @return the fingerprint
+     */
+    long fingerprint() {
+        CRC32 crc = new CRC32();
+        ByteBuffer chunk = ByteBuffer.allocate(1 << 12);
+        chunk.putInt(V).putInt(E);
+        int[] row = new int[16];
+        int offset = 0;
+        for (int v = 0; v <= V; v++) {
+            chunk = flushIfFull(crc, chunk);
+            chunk.putInt(offset);
+            if (v < V)
+                offset += outdegree(v);
+        }
+        for (int v = 0; v < V; v++) {
+            int degree = outdegree(v);
+            if (row.length < degree)
+                row = new int[Math.max(degree, 2 * row.length)];
+            copyRow(v, row, 0);
+            for (int i = 0; i < degree; i++) {
+                chunk = flushIfFull(crc, chunk);
+                chunk.putInt(row[i]);
+            }
+        }
+        chunk.flip();
+        crc.update(chunk);
+        return crc.getValue();
+    }
+
+    // chunk, emptied into crc first if it has no room left
+    private static ByteBuffer flushIfFull(CRC32 crc, ByteBuffer chunk) {
+        if (!chunk.hasRemaining()) {
+            chunk.flip();
+            crc.update(chunk);
+            chunk.clear();
+        }
+        return chunk;
+    }
+
+    // copies the vertices adjacent from v into dst, starting at to
+    void copyRow(int v, int[] dst, int to) {
+        System.arraycopy(targets, offsets[v], dst, to, offsets[v + 1] - offsets[v]);
+    }
+
+    // copies the vertices adjacent to v into dst, starting at to
+    void copyReverseRow(int v, int[] dst, int to) {
+        System.arraycopy(revTargets, revOffsets[v], dst, to, revOffsets[v + 1] - revOffsets[v]);
+    }
+
+    /**
+     * Writes the four CSR arrays of this digraph, so that MappedDigraph.read
+     * can serve it from the file without rebuilding the reverse index. The
+     * counts are big-endian, followed by the byte order of the arrays, which
+     * is the native order of this machine, so that reading an array from the
+     * mapped file needs no byte swap.
+     *
+     * @param out the destination
+     * @throws IOException if out cannot be written
+     */
+    void write(DataOutput out) throws IOException {
+        boolean little = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+        out.writeInt(V);
+        out.writeInt(E);
+        out.writeInt(little ? MappedDigraph.LITTLE_ENDIAN : MappedDigraph.BIG_ENDIAN);
+        int[] row = new int[16];
+        for (boolean reverse : new boolean[] { false, true }) {
+            int offset = 0;
+            for (int v = 0; v <= V; v++) {
+                out.writeInt(little ? Integer.reverseBytes(offset) : offset);
+                if (v < V)
+                    offset += reverse ? indegree(v) : outdegree(v);
+            }
+            for (int v = 0; v < V; v++) {
+                int degree = reverse ? indegree(v) : outdegree(v);
+                if (row.length < degree)
+                    row = new int[Math.max(degree, 2 * row.length)];
+                if (reverse)
+                    copyReverseRow(v, row, 0);
+                else
+                    copyRow(v, row, 0);
+                for (int i = 0; i < degree; i++)
+                    out.writeInt(little ? Integer.reverseBytes(row[i]) : row[i]);
+            }
+        }
+    }
+
+    // same traversal as Digraph.getDist, over the CSR arrays
+    int getDist(int a, int b) {
+        int distance = 0;
+        int result = -1;
+        int vertices = 0, edges = 0; // work done, for the metrics
+
+        // reusable marks and queue of the calling thread
+        TraversalContext c = TraversalContext.forThread(0, this.V);
+
+        // Mark the current node as visited and enqueue it
+        c.visit(a, 0);
+        c.enqueue(a);
+
+        search:
+        while (c.queueSize() != 0) {
+            a = c.dequeue();
+            vertices++;
+
+            int from = offsets[a], to = offsets[a + 1];
+            for (int i = from; i < to; i++) {
+                int n = targets[i];
+                edges++;
+
+                // return the distance if this is the node we want
+                if (n == b) {
+                    result = distance;
+                    break search;
+                }
+
+                // do bfs with current node if its not the node we're looking for
+                else if (c.visit(n, 0)) {
+                    c.enqueue(n);
+                    distance++;
+                }
+            }
+            distance -= (to - from - 1);
+        }
+
+        MetricsRegistry m = Metrics.registry();
+        if (m != null) {
+            m.record(Metric.GETDIST_VERTICES, vertices);
+            m.record(Metric.GETDIST_EDGES, edges);
+        }
+        // -1 if there's no path
+        return result;
+    }
+
+    // an iterable over a range of one of the CSR target arrays
+    private static class Slice implements Iterable<Integer> {
+        private final int[] items;
+        private final int lo, hi;
+
+        public Slice(int[] items, int lo, int hi) {
+            this.items = items;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        public Iterator<Integer> iterator() {
+            return new Iterator<Integer>() {
+                private int i = lo;
+
+                public boolean hasNext() {
+                    return i < hi;
+                }
+
+                public void remove() { throw new UnsupportedOperationException(); }
+
+                public Integer next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    return items[i++];
+                }
+            };
+        }
+    }
+}
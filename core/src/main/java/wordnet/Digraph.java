@@ -1,9 +1,10 @@
-
 /******************************************************************************
  *  A graph, implemented using an array of lists.
  *  Parallel edges and self-loops are permitted.
  ******************************************************************************/
 
+package wordnet;
+
 import java.util.*;
 import java.io.*;
 
@@ -17,21 +18,30 @@ import java.io.*;
  * permitted.
  * <p>
  * This implementation uses an adjacency-lists representation, which is a
- * vertex-indexed array of Bag objects. It uses Î¸(E + V) space, where E is the
+ * vertex-indexed array of growable int arrays. Like a bag, each list is
+ * iterated with the most recently added edge first. The neighbor(int, int)
+ * method reads a list without allocating or boxing, and adj(int) returns a
+ * view of the list rather than a copy. It uses θ(E + V) space, where E is the
  * number of edges and V is the number of vertices. The reverse() method takes
- * Î¸(E + V) time and space; all other instancce methods take Î¸(1) time.
+ * θ(E + V) time and space; all other instance methods take θ(1) time (adding
+ * an edge takes amortized θ(1) time, as the list it goes into may grow).
  * (Though, iterating over the vertices returned by adj(int) takes time
  * proportional to the outdegree of the vertex.) Constructing an empty digraph
- * with V vertices takes Î¸(V) time; constructing a digraph with E edges and V
- * vertices takes Î¸(E + V) time.
+ * with V vertices takes θ(V) time; constructing a digraph with E edges and V
+ * vertices takes θ(E + V) time.
+ * <p>
+ * Once a digraph is fully built, it can be frozen into a CompactDigraph, which
+ * answers the same read-only queries from primitive arrays.
  */
 
-public class Digraph {
+public class Digraph implements DigraphView {
     private static final String NEWLINE = System.getProperty("line.separator");
+    private static final int[] EMPTY = new int[0]; // shared list for vertices without edges
 
     private final int V; // number of vertices in this digraph
     private int E; // number of edges in this digraph
-    private Bag<Integer>[] adj; // adj[v] = adjacency list for vertex v
+    private int[][] adj; // adj[v][0 .. outdegree[v]) = vertices adjacent from v, in insertion order
+    private int[] outdegree; // outdegree[v] = outdegree of vertex v
     private int[] indegree; // indegree[v] = indegree of vertex v
 
     /**
@@ -47,10 +57,11 @@ public class Digraph {
         this.V = V;
         this.E = 0;
         indegree = new int[V];
-        adj = (Bag<Integer>[]) new Bag[V];
+        outdegree = new int[V];
+        adj = new int[V][];
 
         for (int v = 0; v < V; v++) {
-            adj[v] = new Bag<Integer>();
+            adj[v] = EMPTY;
         }
     }
 
@@ -77,9 +88,10 @@ public class Digraph {
                 throw new IllegalArgumentException("number of vertices in a Digraph must be non-negative");
 
             indegree = new int[V];
-            adj = (Bag<Integer>[]) new Bag[V];
+            outdegree = new int[V];
+            adj = new int[V][];
             for (int v = 0; v < V; v++) {
-                adj[v] = new Bag<Integer>();
+                adj[v] = EMPTY;
             }
 
             int E = input.nextInt();
@@ -115,21 +127,12 @@ public class Digraph {
         for (int v = 0; v < V; v++)
             this.indegree[v] = G.indegree(v);
 
-        // update adjacency lists
-        adj = (Bag<Integer>[]) new Bag[V];
+        // update adjacency lists, trimmed to their outdegree
+        outdegree = new int[V];
+        adj = new int[V][];
         for (int v = 0; v < V; v++) {
-            adj[v] = new Bag<Integer>();
-        }
-
-        for (int v = 0; v < G.V(); v++) {
-            // reverse so that adjacency list is in same order as original
-            Stack<Integer> reverse = new Stack<Integer>();
-            for (int w : G.adj[v]) {
-                reverse.push(w);
-            }
-            for (int w : reverse) {
-                adj[v].add(w);
-            }
+            outdegree[v] = G.outdegree[v];
+            adj[v] = Arrays.copyOf(G.adj[v], outdegree[v]);
         }
     }
 
@@ -168,7 +171,10 @@ public class Digraph {
         validateVertex(v);
         validateVertex(w);
 
-        adj[v].add(w);
+        if (outdegree[v] == adj[v].length) {
+            adj[v] = Arrays.copyOf(adj[v], Math.max(2, 2 * outdegree[v]));
+        }
+        adj[v][outdegree[v]++] = w;
 
         indegree[w]++;
         E++;
@@ -183,7 +189,36 @@ public class Digraph {
      */
     public Iterable<Integer> adj(int v) {
         validateVertex(v);
-        return adj[v];
+        return () -> new Iterator<Integer>() {
+            private final int[] list = adj[v];
+            private int i = outdegree[v]; // list[0 .. i) still to return, last first
+
+            public boolean hasNext() {
+                return i > 0;
+            }
+
+            public Integer next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return list[--i];
+            }
+        };
+    }
+
+    /**
+     * Returns the i-th vertex adjacent from vertex v, in the same order as adj(v).
+     * Unlike adj(v), this allocates nothing.
+     *
+     * @param v the vertex
+     * @param i the position in the adjacency list
+     * @return the i-th vertex adjacent from vertex v
+     * @throws IllegalArgumentException unless 0 <= v < V and 0 <= i < outdegree(v)
+     */
+    public int neighbor(int v, int i) {
+        validateVertex(v);
+        if (i < 0 || i >= outdegree[v])
+            throw new IllegalArgumentException("index " + i + " is not between 0 and " + (outdegree[v] - 1));
+        return adj[v][outdegree[v] - 1 - i];
     }
 
     /**
@@ -196,7 +231,7 @@ public class Digraph {
      */
     public int outdegree(int v) {
         validateVertex(v);
-        return adj[v].size();
+        return outdegree[v];
     }
 
     /**
@@ -221,8 +256,8 @@ public class Digraph {
         Digraph reverse = new Digraph(V);
 
         for (int v = 0; v < V; v++) {
-            for (int w : adj(v)) {
-                reverse.addEdge(w, v);
+            for (int i = outdegree[v] - 1; i >= 0; i--) {
+                reverse.addEdge(adj[v][i], v);
             }
         }
 
@@ -241,8 +276,8 @@ public class Digraph {
 
         for (int v = 0; v < V; v++) {
             s.append(String.format("%d: ", v));
-            for (int w : adj[v]) {
-                s.append(String.format("%d ", w));
+            for (int i = outdegree[v] - 1; i >= 0; i--) {
+                s.append(String.format("%d ", adj[v][i]));
             }
             s.append(NEWLINE);
         }
@@ -250,46 +285,62 @@ public class Digraph {
         return s.toString();
     }
 
-    int getDist(int a, int b) {
+    /**
+     * Searches breadth-first from vertex a for vertex b, with the traversal of
+     * the original assignment, and returns the distance counter that search
+     * keeps. It is public so that the benchmark module can time it as the
+     * baseline traversal.
+     *
+     * @param a the vertex to search from
+     * @param b the vertex to search for
+     * @return the distance counter of the search when it reaches b, or -1 if b
+     *         cannot be reached from a
+     */
+    public int getDist(int a, int b) {
         int distance = 0;
+        int result = -1;
+        int vertices = 0, edges = 0; // work done, for the metrics
 
-        boolean visited[] = new boolean[this.V];
-
-        // BFS queue
-        LinkedList<Integer> queue = new LinkedList<Integer>();
+        // reusable marks and queue of the calling thread
+        TraversalContext c = TraversalContext.forThread(0, this.V);
 
         // Mark the current node as visited and enqueue it
-        visited[a] = true;
-        queue.add(a);
+        c.visit(a, 0);
+        c.enqueue(a);
 
-        // iterator to traverse graph
-        Iterator<Integer> i;
-        while (queue.size() != 0) {
+        search:
+        while (c.queueSize() != 0) {
 
-            a = queue.poll();
+            a = c.dequeue();
+            vertices++;
             int n;
-            i = adj[a].iterator();
 
-            while (i.hasNext()) {
-                n = i.next();
-                // System.out.println("currently checking " + n);
+            for (int i = outdegree[a] - 1; i >= 0; i--) {
+                n = adj[a][i];
+                edges++;
 
                 // return the distance if this is the node we want
-                if (n == b)
-                    return distance;
+                if (n == b) {
+                    result = distance;
+                    break search;
+                }
 
                 // do bfs with current node if its not the node we're looking for
-                else if (!visited[n]) {
-                    visited[n] = true;
-                    queue.add(n);
+                else if (c.visit(n, 0)) {
+                    c.enqueue(n);
                     distance++;
                 }
             }
-            distance -= (adj[a].size() - 1);
+            distance -= (outdegree[a] - 1);
         }
 
-        // if there's no path
-        return -1;
+        MetricsRegistry m = Metrics.registry();
+        if (m != null) {
+            m.record(Metric.GETDIST_VERTICES, vertices);
+            m.record(Metric.GETDIST_EDGES, edges);
+        }
+        // -1 if there's no path
+        return result;
     }
 
     public static void main(String[] args) throws FileNotFoundException, NoSuchElementException {
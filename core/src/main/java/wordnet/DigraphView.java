@@ -0,0 +1,87 @@
+/******************************************************************************
+ *  The read-only surface shared by every digraph representation.
+ ******************************************************************************/
+
+package wordnet;
+
+/**
+ * The DigraphView interface is the read-only view of a directed graph with
+ * vertices named 0 through V - 1. It is implemented by the mutable, list-based
+ * Digraph and by the frozen, array-based CompactDigraph, so the algorithms
+ * that only inspect a graph (DirectedCycle, ShortestCommonAncestor, WordNet)
+ * can run on either representation.
+ */
+public interface DigraphView {
+
+    /**
+     * Returns the number of vertices in this digraph.
+     *
+     * @return the number of vertices in this digraph
+     */
+    int V();
+
+    /**
+     * Returns the number of edges in this digraph.
+     *
+     * @return the number of edges in this digraph
+     */
+    int E();
+
+    /**
+     * Returns the vertices adjacent from vertex v in this digraph.
+     *
+     * @param v the vertex
+     * @return the vertices adjacent from vertex v in this digraph, as an iterable
+     * @throws IllegalArgumentException unless 0 <= v < V
+     */
+    Iterable<Integer> adj(int v);
+
+    /**
+     * Returns the i-th vertex adjacent from vertex v, in the same order as adj(v).
+     * Together with outdegree(v) this lets a traversal visit every edge without
+     * allocating an iterator or boxing a vertex.
+     *
+     * @param v the vertex
+     * @param i the position in the adjacency list
+     * @return the i-th vertex adjacent from vertex v
+     * @throws IllegalArgumentException unless 0 <= v < V and 0 <= i < outdegree(v)
+     */
+    int neighbor(int v, int i);
+
+    /**
+     * Copies the vertices adjacent from vertex v into buf, in the same order as
+     * adj(v).
+     *
+     * @param v   the vertex
+     * @param buf the destination, with room for at least outdegree(v) vertices
+     * @return the number of vertices copied, which is the outdegree of v
+     * @throws IllegalArgumentException unless 0 <= v < V and buf is large enough
+     */
+    default int copyNeighbors(int v, int[] buf) {
+        int degree = outdegree(v);
+        if (buf.length < degree)
+            throw new IllegalArgumentException("buffer holds " + buf.length + " vertices, need " + degree);
+        for (int i = 0; i < degree; i++) {
+            buf[i] = neighbor(v, i);
+        }
+        return degree;
+    }
+
+    /**
+     * Returns the number of directed edges incident from vertex v.
+     *
+     * @param v the vertex
+     * @return the outdegree of vertex v
+     * @throws IllegalArgumentException unless 0 <= v < V
+     */
+    int outdegree(int v);
+
+    /**
+     * Returns the number of directed edges incident to vertex v.
+     *
+     * @param v the vertex
+     * @return the indegree of vertex v
+     * @throws IllegalArgumentException unless 0 <= v < V
+     */
+    int indegree(int v);
+}
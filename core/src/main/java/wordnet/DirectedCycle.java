@@ -0,0 +1,150 @@
+package wordnet;
+
+/**
+ *  The DirectedCycle class represents a data type for 
+ *  determining whether a digraph has a directed cycle.
+ *  The hasCycle operation determines whether the digraph has
+ *  a simple directed cycle and, if so, the cycle operation
+ *  returns one.
+ *  <p>
+ *  This implementation uses depth-first search, run iteratively
+ *  with an explicit stack of vertices and a cursor into the
+ *  adjacency list of each, so it cannot overflow the call stack
+ *  however deep the digraph is. When there is no cycle, the
+ *  reverse postorder of the search is a topological order.
+ *  The constructor takes θ(V + E) time in the worst
+ *  case, where V is the number of vertices and E is
+ *  the number of edges.
+ *  Each instance method takes θ(1) time, except cycle() and
+ *  order(), which take time linear in their result.
+ *  It uses θ(V) extra space (not including the digraph).
+ */
+public class DirectedCycle {
+    private boolean[] marked; // marked[v] = has vertex v been marked?
+    private int[] edgeTo; // edgeTo[v] = previous vertex on path to v
+    private boolean[] onStack; // onStack[v] = is vertex on the stack?
+    private int[] cycle; // directed cycle in edge order, first vertex repeated last (or null if no such cycle)
+    private int[] order; // order[V-1-i] = i-th vertex to finish (or null if there is a cycle)
+
+    /**
+     * Determines whether the digraph G has a directed cycle and, if so, finds such
+     * a cycle.
+     * 
+     * @param G the digraph
+     */
+    public DirectedCycle(DigraphView G) {
+        int V = G.V();
+        marked = new boolean[V];
+        onStack = new boolean[V];
+        edgeTo = new int[V];
+        int[] stack = new int[V]; // the path of the search, from its source
+        int[] cursor = new int[V]; // cursor[v] = next edge of v to follow
+        int[] postorder = new int[V];
+        int finished = 0;
+
+        for (int s = 0; s < V && cycle == null; s++) {
+            if (marked[s])
+                continue;
+            int top = 0;
+            stack[top++] = s;
+            marked[s] = true;
+            onStack[s] = true;
+
+            while (top > 0 && cycle == null) {
+                int v = stack[top - 1];
+                if (cursor[v] == G.outdegree(v)) {
+                    // every edge of v is done, so v finishes
+                    onStack[v] = false;
+                    postorder[finished++] = v;
+                    top--;
+                    continue;
+                }
+                int w = G.neighbor(v, cursor[v]++);
+
+                // found new vertex, so descend
+                if (!marked[w]) {
+                    edgeTo[w] = v;
+                    marked[w] = true;
+                    onStack[w] = true;
+                    stack[top++] = w;
+                }
+
+                // trace back directed cycle
+                else if (onStack[w]) {
+                    int length = 2;
+                    for (int x = v; x != w; x = edgeTo[x])
+                        length++;
+                    // edge v->w closes the path w->...->v of the search
+                    cycle = new int[length];
+                    int i = length - 1;
+                    for (int x = v; x != w; x = edgeTo[x])
+                        cycle[i--] = x;
+                    cycle[i--] = w;
+                    cycle[i] = v;
+                    assert check();
+                }
+            }
+        }
+
+        if (cycle == null) {
+            order = new int[V];
+            for (int i = 0; i < V; i++)
+                order[i] = postorder[V - 1 - i];
+        }
+    }
+
+    /**
+     * Does the digraph have a directed cycle?
+     * 
+     * @return true if the digraph has a directed cycle, false otherwise
+     */
+    public boolean hasCycle() {
+        return cycle != null;
+    }
+
+    /**
+     * Returns a directed cycle if the digraph has a directed cycle, and null
+     * otherwise.
+     * 
+     * @return a directed cycle (as an iterable) if the digraph has a directed
+     *         cycle, and null otherwise
+     */
+    public Iterable<Integer> cycle() {
+        if (cycle == null)
+            return null;
+        Bag<Integer> vertices = new Bag<Integer>();
+        for (int i = cycle.length - 1; i >= 0; i--)
+            vertices.add(cycle[i]);
+        return vertices;
+    }
+
+    /**
+     * Returns a topological order of the digraph if it has no directed cycle:
+     * every vertex comes before all the vertices it has an edge to. For the
+     * WordNet hypernym graph, every synset comes before its hypernyms, so the
+     * order read backwards visits the root first and each synset after all of
+     * its hypernyms, as a depth computation needs.
+     * 
+     * @return the vertices in topological order, or null if the digraph has a
+     *         directed cycle
+     */
+    public int[] order() {
+        return (order == null) ? null : order.clone();
+    }
+
+    // certify that digraph has a directed cycle if it reports one
+    private boolean check() {
+
+        if (hasCycle()) {
+            // verify cycle
+            int first = cycle[0], last = cycle[cycle.length - 1];
+
+            if (first != last) {
+                System.err.printf("cycle begins with %d and ends with %d\n", first, last);
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,210 @@
+/******************************************************************************
+ *  Symmetric matrix of the distances between every pair of a set of nouns.
+ ******************************************************************************/
+
+package wordnet;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
+
+/**
+ * The DistanceMatrix class holds the WordNet distance between every pair of K
+ * nouns: get(i, j) is the length of a shortest ancestral path between any
+ * sense of the i-th noun and any sense of the j-th, or -1 if they have no
+ * common ancestor. The matrix is symmetric with a zero diagonal.
+ * <p>
+ * This implementation stores the K x K entries in one flat int array, row by
+ * row. It is built with one breadth-first search per noun, which collects the
+ * ancestor set of the noun, and one merge of two ancestor sets per unordered
+ * pair, so K nouns cost K searches instead of K^2. Both steps are split across
+ * a fork-join pool. Row a holds the K - 1 - a merges of the pairs (a, b) with
+ * b > a, so the merges are split into runs of rows with equal numbers of pairs
+ * rather than equal numbers of rows. The entries can be read one at a time,
+ * streamed as an IntStream, or written to a DataOutput, all without boxing. A
+ * matrix is immutable and can be shared between threads.
+ */
+public final class DistanceMatrix {
+    private static final int SEQUENTIAL_PAIRS = 64; // merges a fork-join task does without splitting
+
+    private final int K; // number of nouns
+    private final int[] distances; // distances[i * K + j] = distance between nouns i and j
+
+    private DistanceMatrix(int K, int[] distances) {
+        this.K = K;
+        this.distances = distances;
+    }
+
+    /**
+     * Computes the matrix of the nouns of a WordNet on the threads of pool.
+     *
+     * @param wordnet the WordNet
+     * @param nouns   the nouns
+     * @param pool    the pool to run on
+     * @return the distance matrix
+     * @throws IllegalArgumentException if a noun is not in the WordNet, or there
+     *                                  are too many nouns for one array
+     */
+    static DistanceMatrix compute(WordNet wordnet, String[] nouns, ForkJoinPool pool) {
+        int K = nouns.length;
+        if ((long) K * K > Integer.MAX_VALUE)
+            throw new IllegalArgumentException(K + " nouns are too many for one matrix");
+        AncestorSet[] ancestors = new AncestorSet[K];
+        pool.invoke(new Closures(wordnet, nouns, ancestors, 0, K));
+        int[] distances = new int[K * K];
+        pool.invoke(new Rows(ancestors, distances, 0, K));
+        return new DistanceMatrix(K, distances);
+    }
+
+    /**
+     * Returns the number of nouns.
+     *
+     * @return the number of rows, and of columns
+     */
+    public int size() {
+        return K;
+    }
+
+    /**
+     * Returns the distance between two of the nouns.
+     *
+     * @param i the index of one noun
+     * @param j the index of the other noun
+     * @return the distance, or -1 if the nouns have no common ancestor
+     * @throws IllegalArgumentException unless 0 <= i, j < size()
+     */
+    public int get(int i, int j) {
+        validateIndex(i);
+        validateIndex(j);
+        return distances[i * K + j];
+    }
+
+    /**
+     * Returns the entries of one row.
+     *
+     * @param i the index of the noun
+     * @return the distances from the i-th noun to every noun, in order
+     * @throws IllegalArgumentException unless 0 <= i < size()
+     */
+    public IntStream row(int i) {
+        validateIndex(i);
+        return Arrays.stream(distances, i * K, (i + 1) * K);
+    }
+
+    /**
+     * Returns all entries, row by row.
+     *
+     * @return the K * K distances
+     */
+    public IntStream stream() {
+        return Arrays.stream(distances);
+    }
+
+    /**
+     * Returns a copy of all entries, row by row.
+     *
+     * @return a new array of the K * K distances
+     */
+    public int[] toArray() {
+        return distances.clone();
+    }
+
+    /**
+     * Writes the number of nouns, then all entries row by row, as ints.
+     *
+     * @param out the destination
+     * @throws IOException if out cannot be written
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeInt(K);
+        for (int d : distances)
+            out.writeInt(d);
+    }
+
+    // throw an IllegalArgumentException unless 0 <= i < K
+    private void validateIndex(int i) {
+        if (i < 0 || i >= K)
+            throw new IllegalArgumentException("index " + i + " is not between 0 and " + (K - 1));
+    }
+
+    // collects the ancestor sets of nouns[lo .. hi), splitting the range in half
+    private static class Closures extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final WordNet wordnet;
+        private final String[] nouns;
+        private final AncestorSet[] ancestors;
+        private final int lo, hi;
+
+        Closures(WordNet wordnet, String[] nouns, AncestorSet[] ancestors, int lo, int hi) {
+            this.wordnet = wordnet;
+            this.nouns = nouns;
+            this.ancestors = ancestors;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected void compute() {
+            if (hi - lo <= 1) {
+                for (int i = lo; i < hi; i++)
+                    ancestors[i] = wordnet.ancestors(nouns[i]);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new Closures(wordnet, nouns, ancestors, lo, mid), new Closures(wordnet, nouns, ancestors, mid, hi));
+        }
+    }
+
+    // fills rows [lo, hi): each pair a < b is merged once and written to both
+    // distances[a * K + b] and distances[b * K + a]; the rows are halved by
+    // number of pairs, which shrinks by one from each row to the next
+    private static class Rows extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final AncestorSet[] ancestors;
+        private final int[] distances;
+        private final int lo, hi;
+
+        Rows(AncestorSet[] ancestors, int[] distances, int lo, int hi) {
+            this.ancestors = ancestors;
+            this.distances = distances;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected void compute() {
+            int K = ancestors.length;
+            long pairs = pairs(K, hi) - pairs(K, lo);
+            if (hi - lo <= 1 || pairs <= SEQUENTIAL_PAIRS) {
+                for (int a = lo; a < hi; a++) {
+                    for (int b = a + 1; b < K; b++) {
+                        int d = ancestors[a].distanceTo(ancestors[b]);
+                        distances[a * K + b] = d;
+                        distances[b * K + a] = d;
+                    }
+                }
+                return;
+            }
+            // the first row mid after which at most half of the pairs are left
+            long half = pairs(K, lo) + pairs / 2;
+            int left = lo + 1, right = hi - 1;
+            while (left < right) {
+                int m = (left + right) >>> 1;
+                if (pairs(K, m) < half)
+                    left = m + 1;
+                else
+                    right = m;
+            }
+            int mid = left;
+            invokeAll(new Rows(ancestors, distances, lo, mid), new Rows(ancestors, distances, mid, hi));
+        }
+
+        // number of pairs in rows [0, a) of a K x K matrix
+        private static long pairs(int K, int a) {
+            return (long) a * (K - 1) - (long) a * (a - 1) / 2;
+        }
+    }
+}
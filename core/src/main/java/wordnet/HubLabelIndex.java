@@ -0,0 +1,272 @@
+/******************************************************************************
+ *  Pruned 2-hop ancestor labels over a rooted DAG: an exact oracle for the
+ *  length and ancestor of a shortest ancestral path.
+ ******************************************************************************/
+
+package wordnet;
+
+import java.nio.MappedByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The HubLabelIndex class stores, for every vertex v of a rooted DAG, a label:
+ * a list of ancestors of v (the hubs) with their distance from v. The label of
+ * v is sorted by hub rank, where hubs closer to the root rank first. A shortest
+ * ancestral path between v and w is then found by merging the two labels and
+ * keeping the common hub with the smallest distance sum.
+ * <p>
+ * A label starts as the full ancestor closure of its vertex and is pruned: an
+ * ancestor x of v is left out when some hypernym y of x is strictly closer to v
+ * than x is. Any vertex that reaches x reaches y with at most one more edge, so
+ * y is at least as good a common ancestor as x for every query. Among the best
+ * common ancestors, the one with no best ancestor above it is never pruned, so
+ * the merge stays exact.
+ * <p>
+ * Building the index takes time proportional to the total size of the ancestor
+ * closures; it is meant to run offline and be written next to the WordNet data
+ * with write(String). The index records the fingerprint of the digraph it was
+ * built for, so that it is never used with another digraph. A query takes time
+ * linear in the two label sizes and allocates nothing. An index is immutable
+ * and can be shared by any number of threads.
+ */
+final class HubLabelIndex {
+    private static final int MAGIC = 0x574E484C; // "WNHL"
+    private static final int VERSION = 2;
+
+    private final int V; // number of vertices of the indexed digraph
+    private final int E; // number of edges of the indexed digraph
+    private final long fingerprint; // CompactDigraph.fingerprint() of the indexed digraph
+    private final int[] offsets; // label of v = entries offsets[v] .. offsets[v+1]-1
+    private final int[] hubs; // hub rank of each entry, increasing within a label
+    private final short[] dists; // distance from the labelled vertex to the hub
+    private final int[] vertexOf; // vertexOf[r] = vertex with hub rank r
+
+    private HubLabelIndex(int V, int E, long fingerprint, int[] offsets, int[] hubs, short[] dists, int[] vertexOf) {
+        this.V = V;
+        this.E = E;
+        this.fingerprint = fingerprint;
+        this.offsets = offsets;
+        this.hubs = hubs;
+        this.dists = dists;
+        this.vertexOf = vertexOf;
+    }
+
+    /**
+     * Builds the labels of every vertex of the rooted DAG G.
+     *
+     * @param G    the digraph, already validated as a rooted DAG
+     * @param root the root of G
+     * @return the index
+     * @throws IllegalArgumentException if an ancestor is more than 32767 edges away
+     */
+    static HubLabelIndex build(CompactDigraph G, int root) {
+        int V = G.V();
+
+        // rank hubs by depth, root first: a breadth-first search down the
+        // hyponym edges visits the vertices in exactly that order
+        int[] vertexOf = new int[V];
+        int[] rank = new int[V];
+        Arrays.fill(rank, -1);
+        int head = 0, tail = 0;
+        vertexOf[tail++] = root;
+        rank[root] = 0;
+        while (head < tail) {
+            int x = vertexOf[head++];
+            int hyponyms = G.indegree(x);
+            for (int i = 0; i < hyponyms; i++) {
+                int y = G.reverseNeighbor(x, i);
+                if (rank[y] < 0) {
+                    rank[y] = tail;
+                    vertexOf[tail++] = y;
+                }
+            }
+        }
+        if (tail != V)
+            throw new IllegalArgumentException("some vertices cannot reach the root");
+
+        int[] offsets = new int[V + 1];
+        int[] hubs = new int[Math.max(16, 2 * V)];
+        short[] dists = new short[hubs.length];
+        long[] entry = new long[16]; // rank in the high bits, distance in the low bits
+        int[] members = new int[16]; // ancestor closure of the current vertex
+        int size = 0;
+
+        for (int v = 0; v < V; v++) {
+            offsets[v] = size;
+
+            // ancestor closure of v
+            TraversalContext c = TraversalContext.forThread(0, V);
+            c.visit(v, 0);
+            c.enqueue(v);
+            int closure = 0;
+            while (c.queueSize() > 0) {
+                int x = c.dequeue();
+                if (closure == members.length)
+                    members = Arrays.copyOf(members, 2 * closure);
+                members[closure++] = x;
+                int degree = G.outdegree(x);
+                for (int i = 0; i < degree; i++) {
+                    int y = G.neighbor(x, i);
+                    if (c.visit(y, c.dist(x) + 1))
+                        c.enqueue(y);
+                }
+            }
+
+            // prune the ancestors that one of their hypernyms dominates
+            int kept = 0;
+            if (entry.length < closure)
+                entry = new long[Math.max(closure, 2 * entry.length)];
+            for (int k = 0; k < closure; k++) {
+                int x = members[k];
+                int d = c.dist(x);
+                if (d > Short.MAX_VALUE)
+                    throw new IllegalArgumentException("ancestor " + x + " of " + v + " is too far away to label");
+                boolean dominated = false;
+                int degree = G.outdegree(x);
+                for (int i = 0; i < degree && !dominated; i++)
+                    dominated = c.dist(G.neighbor(x, i)) < d;
+                if (!dominated)
+                    entry[kept++] = ((long) rank[x] << 16) | d;
+            }
+            Arrays.sort(entry, 0, kept);
+
+            if (size + kept > hubs.length) {
+                int capacity = Math.max(size + kept, 2 * hubs.length);
+                hubs = Arrays.copyOf(hubs, capacity);
+                dists = Arrays.copyOf(dists, capacity);
+            }
+            for (int k = 0; k < kept; k++) {
+                hubs[size] = (int) (entry[k] >>> 16);
+                dists[size] = (short) (entry[k] & 0xFFFF);
+                size++;
+            }
+        }
+        offsets[V] = size;
+
+        return new HubLabelIndex(V, G.E(), G.fingerprint(), offsets, Arrays.copyOf(hubs, size), Arrays.copyOf(dists, size), vertexOf);
+    }
+
+    /**
+     * Finds a shortest ancestral path between v and w by merging their labels.
+     *
+     * @param v one vertex
+     * @param w the other vertex
+     * @return the length in the high 32 bits and the ancestor in the low 32 bits,
+     *         or -1 if v and w have no common ancestor
+     */
+    long query(int v, int w) {
+        int i = offsets[v], iEnd = offsets[v + 1];
+        int j = offsets[w], jEnd = offsets[w + 1];
+        int best = Integer.MAX_VALUE;
+        int hub = -1;
+        while (i < iEnd && j < jEnd) {
+            int a = hubs[i], b = hubs[j];
+            if (a < b)
+                i++;
+            else if (a > b)
+                j++;
+            else {
+                int d = dists[i] + dists[j];
+                if (d < best) {
+                    best = d;
+                    hub = a;
+                }
+                i++;
+                j++;
+            }
+        }
+        if (hub < 0)
+            return -1;
+        return ((long) best << 32) | vertexOf[hub];
+    }
+
+    /**
+     * Was this index built for the digraph G? Besides the vertex and edge
+     * counts, this compares the fingerprint of G, so it takes θ(E + V) time.
+     *
+     * @param G the digraph
+     * @return true if G has the same adjacency lists as the indexed digraph
+     */
+    boolean matches(CompactDigraph G) {
+        return G.V() == V && G.E() == E && G.fingerprint() == fingerprint;
+    }
+
+    /**
+     * Returns the number of bytes held by the label arrays.
+     *
+     * @return the memory used by this index, in bytes
+     */
+    long memoryBytes() {
+        return 4L * offsets.length + 4L * hubs.length + 2L * dists.length + 4L * vertexOf.length;
+    }
+
+    /**
+     * Returns a summary of the label sizes and the memory they use.
+     *
+     * @return a one-line memory report
+     */
+    String memoryReport() {
+        int largest = 0;
+        for (int v = 0; v < V; v++)
+            largest = Math.max(largest, offsets[v + 1] - offsets[v]);
+        return String.format("%d vertices, %d label entries (%.1f average, %d largest), %.1f MB",
+                V, hubs.length, V == 0 ? 0.0 : (double) hubs.length / V, largest, memoryBytes() / (1024.0 * 1024.0));
+    }
+
+    /**
+     * Writes this index to the named file, replacing it if it exists. The file
+     * is a BinaryFile, with a header like that of a WordNet snapshot.
+     *
+     * @param file the name of the index file
+     * @throws IllegalArgumentException if the file cannot be written
+     */
+    void write(String file) {
+        BinaryFile.write(file, "label index", MAGIC, VERSION, out -> {
+            out.writeInt(V);
+            out.writeInt(E);
+            out.writeLong(fingerprint);
+            out.writeInt(hubs.length);
+            for (int x : offsets)
+                out.writeInt(x);
+            for (int x : vertexOf)
+                out.writeInt(x);
+            for (int x : hubs)
+                out.writeInt(x);
+            for (short x : dists)
+                out.writeShort(x);
+        });
+    }
+
+    /**
+     * Reads an index written by write(String).
+     *
+     * @param file the name of the index file
+     * @return the index
+     * @throws IllegalArgumentException if the file cannot be read, or is not a
+     *                                  label index of the current version, or
+     *                                  fails its checksum
+     */
+    static HubLabelIndex read(String file) {
+        MappedByteBuffer buf = BinaryFile.read(file, "label index", MAGIC, VERSION, true);
+
+        int V = buf.getInt();
+        int E = buf.getInt();
+        long fingerprint = buf.getLong();
+        int entries = buf.getInt();
+        if (V < 0 || entries < 0 || (8L * V + 6L * entries + 4) > buf.remaining())
+            throw new IllegalArgumentException(file + " has an invalid label index header");
+        int[] offsets = new int[V + 1];
+        int[] vertexOf = new int[V];
+        int[] hubs = new int[entries];
+        short[] dists = new short[entries];
+        buf.asIntBuffer().get(offsets);
+        buf.position(buf.position() + 4 * offsets.length);
+        buf.asIntBuffer().get(vertexOf);
+        buf.position(buf.position() + 4 * vertexOf.length);
+        buf.asIntBuffer().get(hubs);
+        buf.position(buf.position() + 4 * hubs.length);
+        buf.asShortBuffer().get(dists);
+
+        return new HubLabelIndex(V, E, fingerprint, offsets, hubs, dists, vertexOf);
+    }
+}
@@ -0,0 +1,188 @@
+/******************************************************************************
+ *  MetricsRegistry that keeps its measurements in memory and publishes them
+ *  as the attributes of one MBean.
+ ******************************************************************************/
+
+package wordnet;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+/**
+ * The JmxMetricsRegistry class is the default MetricsRegistry. Counters are
+ * LongAdders and histograms are LatencyHistograms, so recording never takes a
+ * lock. Once registered, the registry is the MBean wordnet:type=Metrics: each
+ * counter is one attribute, and each histogram is six, named after the metric
+ * with the suffixes .count, .mean, .p50, .p99, .p999 and .max.
+ */
+public final class JmxMetricsRegistry implements MetricsRegistry, DynamicMBean {
+    static final String NAME = "wordnet:type=Metrics";
+    private static final String[] STATISTICS = { "count", "mean", "p50", "p99", "p999", "max" };
+
+    private final EnumMap<Metric, LongAdder> counters = new EnumMap<Metric, LongAdder>(Metric.class);
+    private final EnumMap<Metric, LatencyHistogram> histograms = new EnumMap<Metric, LatencyHistogram>(Metric.class);
+
+    /**
+     * Initializes a registry with every metric at zero.
+     */
+    public JmxMetricsRegistry() {
+        for (Metric m : Metric.values()) {
+            if (m.kind() == Metric.Kind.COUNTER)
+                counters.put(m, new LongAdder());
+            else
+                histograms.put(m, new LatencyHistogram());
+        }
+    }
+
+    @Override
+    public void add(Metric metric, long amount) {
+        counters.get(metric).add(amount);
+    }
+
+    @Override
+    public void record(Metric metric, long value) {
+        histograms.get(metric).record(value);
+    }
+
+    /**
+     * Returns the current value of a counter.
+     *
+     * @param metric a metric of kind COUNTER
+     * @return the sum of everything added to it
+     */
+    public long counter(Metric metric) {
+        return counters.get(metric).sum();
+    }
+
+    /**
+     * Returns the histogram of a metric.
+     *
+     * @param metric a metric of kind HISTOGRAM
+     * @return the live histogram
+     */
+    public LatencyHistogram histogram(Metric metric) {
+        return histograms.get(metric);
+    }
+
+    // registers this registry as wordnet:type=Metrics, replacing an earlier one
+    void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(NAME);
+            try {
+                server.unregisterMBean(name);
+            } catch (InstanceNotFoundException e) {
+                // nothing registered yet
+            }
+            server.registerMBean(this, name);
+        } catch (InstanceAlreadyExistsException e) {
+            throw new IllegalStateException("another registry was registered concurrently", e);
+        } catch (JMException e) {
+            throw new IllegalStateException("could not register " + NAME, e);
+        }
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        int dot = attribute.lastIndexOf('.');
+        try {
+            if (dot < 0) {
+                LongAdder c = counters.get(Metric.valueOf(attribute));
+                if (c != null)
+                    return c.sum();
+            }
+            else {
+                LatencyHistogram h = histograms.get(Metric.valueOf(attribute.substring(0, dot)));
+                if (h != null) {
+                    switch (attribute.substring(dot + 1)) {
+                        case "count": return h.count();
+                        case "mean":  return h.mean();
+                        case "p50":   return h.percentile(50);
+                        case "p99":   return h.percentile(99);
+                        case "p999":  return h.percentile(99.9);
+                        case "max":   return h.max();
+                        default:      break;
+                    }
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // not a metric name
+        }
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String a : attributes) {
+            try {
+                list.add(new Attribute(a, getAttribute(a)));
+            } catch (AttributeNotFoundException e) {
+                // left out, as the DynamicMBean contract allows
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+    }
+
+    /**
+     * Sets none of the attributes, since every attribute is read-only.
+     *
+     * @param attributes the attributes to set
+     * @return an empty list: the DynamicMBean contract returns the attributes
+     *         that were set, and leaves out the ones that could not be
+     */
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    /**
+     * Rejects every operation, since the MBean exposes none.
+     *
+     * @throws ReflectionException always, wrapping a NoSuchMethodException
+     */
+    @Override
+    public Object invoke(String action, Object[] params, String[] signature) throws ReflectionException {
+        throw new ReflectionException(new NoSuchMethodException(action), "no operation " + action);
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<MBeanAttributeInfo>();
+        for (Metric m : Metric.values()) {
+            if (m.kind() == Metric.Kind.COUNTER) {
+                attributes.add(new MBeanAttributeInfo(m.name(), "long",
+                        m.description() + " (" + m.unit() + ")", true, false, false));
+            }
+            else {
+                for (String s : STATISTICS) {
+                    attributes.add(new MBeanAttributeInfo(m.name() + "." + s, s.equals("mean") ? "double" : "long",
+                            s + " of " + m.description() + " (" + m.unit() + ")", true, false, false));
+                }
+            }
+        }
+        return new MBeanInfo(getClass().getName(), "WordNet query and load metrics",
+                attributes.toArray(new MBeanAttributeInfo[0]), null, null, null);
+    }
+}
@@ -0,0 +1,122 @@
+/******************************************************************************
+ *  Lock-free log-linear histogram of non-negative long values.
+ ******************************************************************************/
+
+package wordnet;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LatencyHistogram class counts non-negative values in buckets whose width
+ * grows with the value, in the manner of HdrHistogram: values below 64 are
+ * counted exactly, and every power-of-two range above that is split into 32
+ * equal buckets, so any percentile is reported within about 3% of the true
+ * value while the whole long range fits in fewer than 2,000 buckets.
+ * <p>
+ * Recording a value is one atomic increment of its bucket plus two counter
+ * updates, without locks or allocation, so any number of threads can record
+ * at once. Reads see a consistent-enough snapshot for monitoring.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB = 1 << SUB_BITS; // buckets per power of two
+    private static final int BUCKETS = 2 * SUB + (63 - SUB_BITS - 1) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records one value.
+     *
+     * @param value the value; negative values are recorded as 0
+     */
+    public void record(long value) {
+        if (value < 0)
+            value = 0;
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        long m = max.get();
+        while (value > m && !max.compareAndSet(m, value))
+            m = max.get();
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return the number of values
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return the maximum, or 0 if nothing was recorded
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return the mean, or 0 if nothing was recorded
+     */
+    public double mean() {
+        long n = count.sum();
+        return (n == 0) ? 0.0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Returns a value that at least the given percentage of the recorded values
+     * do not exceed, rounded up to the top of its bucket.
+     *
+     * @param percentile between 0 and 100
+     * @return the value at the percentile, or 0 if nothing was recorded
+     * @throws IllegalArgumentException unless 0 <= percentile <= 100
+     */
+    public long percentile(double percentile) {
+        if (!(percentile >= 0 && percentile <= 100))
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0)
+            return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank)
+                return Math.min(highest(i), max());
+        }
+        return max();
+    }
+
+    // bucket of a non-negative value
+    private static int bucket(long value) {
+        if (value < 2 * SUB)
+            return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS; // at least 1
+        return 2 * SUB + (shift - 1) * SUB + (int) (value >>> shift) - SUB;
+    }
+
+    // largest value that falls in bucket i
+    private static long highest(int i) {
+        if (i < 2 * SUB)
+            return i;
+        int shift = (i - 2 * SUB) / SUB + 1;
+        long low = (long) ((i - 2 * SUB) % SUB + SUB) << shift;
+        return low + (1L << shift) - 1;
+    }
+}
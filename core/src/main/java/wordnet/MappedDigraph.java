@@ -0,0 +1,232 @@
+/******************************************************************************
+ *  A frozen digraph served from the CSR arrays of a mapped snapshot file.
+ ******************************************************************************/
+
+package wordnet;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The MappedDigraph class is a CompactDigraph whose four CSR arrays are views
+ * of a mapped snapshot file rather than heap arrays, so that opening a
+ * snapshot copies and rebuilds nothing, and the arrays are paged in as queries
+ * touch them. The arrays are stored in the native byte order of the machine
+ * that wrote them, which is recorded in the file, so on that machine a read
+ * needs no byte swap.
+ * <p>
+ * Digraphs built in memory keep their plain int arrays, so the query path only
+ * meets this class when the process opened a snapshot. It overrides every
+ * method of CompactDigraph that reads the arrays; the others are written in
+ * terms of those. Only absolute gets are made on the views, so a mapped
+ * digraph can be shared between threads.
+ */
+final class MappedDigraph extends CompactDigraph {
+    static final int BIG_ENDIAN = 0; // byte order marks written after the counts
+    static final int LITTLE_ENDIAN = 1;
+
+    private final IntBuffer offsets; // targets[offsets[v] .. offsets[v+1]) = vertices adjacent from v
+    private final IntBuffer targets;
+    private final IntBuffer revOffsets; // revTargets[revOffsets[v] .. revOffsets[v+1]) = vertices adjacent to v
+    private final IntBuffer revTargets;
+
+    private MappedDigraph(int V, int E, IntBuffer offsets, IntBuffer targets,
+                          IntBuffer revOffsets, IntBuffer revTargets) {
+        super(V, E);
+        this.offsets = offsets;
+        this.targets = targets;
+        this.revOffsets = revOffsets;
+        this.revTargets = revTargets;
+    }
+
+    /**
+     * Reads a digraph written by CompactDigraph.write, advancing the position
+     * of buf past it. The digraph is served from views of buf: nothing is
+     * copied or rebuilt. The header and both offset arrays are checked here,
+     * so that every row lies within its target array; the targets themselves
+     * are trusted, since checking them would read the whole graph, and a
+     * target out of range fails inside a query instead. The contents of buf
+     * must not change while the digraph is in use.
+     *
+     * @param buf the source, positioned at the start of the digraph
+     * @return the digraph
+     * @throws IllegalArgumentException if buf does not hold a valid digraph
+     */
+    static MappedDigraph read(ByteBuffer buf) {
+        int V = buf.getInt();
+        int E = buf.getInt();
+        int mark = buf.getInt();
+        if (V < 0 || E < 0 || (2L * V + 2L * E + 2) * 4 > buf.remaining())
+            throw new IllegalArgumentException("invalid digraph header: " + V + " vertices, " + E + " edges");
+        if (mark != BIG_ENDIAN && mark != LITTLE_ENDIAN)
+            throw new IllegalArgumentException("invalid digraph byte order: " + mark);
+        ByteOrder order = (mark == LITTLE_ENDIAN) ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+
+        IntBuffer offsets = view(buf, V + 1, order);
+        IntBuffer targets = view(buf, E, order);
+        IntBuffer revOffsets = view(buf, V + 1, order);
+        IntBuffer revTargets = view(buf, E, order);
+        if (offsets.get(0) != 0 || offsets.get(V) != E || revOffsets.get(0) != 0 || revOffsets.get(V) != E)
+            throw new IllegalArgumentException("invalid CSR offsets");
+        for (int v = 0; v < V; v++) {
+            if (offsets.get(v) > offsets.get(v + 1) || revOffsets.get(v) > revOffsets.get(v + 1))
+                throw new IllegalArgumentException("invalid CSR offsets at vertex " + v);
+        }
+        return new MappedDigraph(V, E, offsets, targets, revOffsets, revTargets);
+    }
+
+    // a view of the next n ints of buf in the given order; buf is advanced past them
+    private static IntBuffer view(ByteBuffer buf, int n, ByteOrder order) {
+        ByteBuffer slice = buf.slice().order(order);
+        slice.limit(4 * n);
+        buf.position(buf.position() + 4 * n);
+        return slice.asIntBuffer();
+    }
+
+    // throw an IllegalArgumentException unless 0 <= v < V
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V())
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V() - 1));
+    }
+
+    @Override
+    public Iterable<Integer> adj(int v) {
+        validateVertex(v);
+        return new Slice(targets, offsets.get(v), offsets.get(v + 1));
+    }
+
+    @Override
+    public int neighbor(int v, int i) {
+        validateVertex(v);
+        int from = offsets.get(v);
+        int degree = offsets.get(v + 1) - from;
+        if (i < 0 || i >= degree)
+            throw new IllegalArgumentException("index " + i + " is not between 0 and " + (degree - 1));
+        return targets.get(from + i);
+    }
+
+    @Override
+    public int copyNeighbors(int v, int[] buf) {
+        validateVertex(v);
+        int degree = offsets.get(v + 1) - offsets.get(v);
+        if (buf.length < degree)
+            throw new IllegalArgumentException("buffer holds " + buf.length + " vertices, need " + degree);
+        copyRow(v, buf, 0);
+        return degree;
+    }
+
+    @Override
+    public Iterable<Integer> reverseAdj(int v) {
+        validateVertex(v);
+        return new Slice(revTargets, revOffsets.get(v), revOffsets.get(v + 1));
+    }
+
+    @Override
+    public int reverseNeighbor(int v, int i) {
+        validateVertex(v);
+        int from = revOffsets.get(v);
+        int degree = revOffsets.get(v + 1) - from;
+        if (i < 0 || i >= degree)
+            throw new IllegalArgumentException("index " + i + " is not between 0 and " + (degree - 1));
+        return revTargets.get(from + i);
+    }
+
+    @Override
+    public int outdegree(int v) {
+        validateVertex(v);
+        return offsets.get(v + 1) - offsets.get(v);
+    }
+
+    @Override
+    public int indegree(int v) {
+        validateVertex(v);
+        return revOffsets.get(v + 1) - revOffsets.get(v);
+    }
+
+    @Override
+    public CompactDigraph reverse() {
+        return new MappedDigraph(V(), E(), revOffsets, revTargets, offsets, targets);
+    }
+
+    @Override
+    void copyRow(int v, int[] dst, int to) {
+        int from = offsets.get(v);
+        targets.duplicate().position(from).get(dst, to, offsets.get(v + 1) - from);
+    }
+
+    @Override
+    void copyReverseRow(int v, int[] dst, int to) {
+        int from = revOffsets.get(v);
+        revTargets.duplicate().position(from).get(dst, to, revOffsets.get(v + 1) - from);
+    }
+
+    // same traversal as CompactDigraph.getDist, over the mapped arrays
+    @Override
+    int getDist(int a, int b) {
+        int distance = 0;
+        int result = -1;
+        int vertices = 0, edges = 0; // work done, for the metrics
+        TraversalContext c = TraversalContext.forThread(0, V());
+        c.visit(a, 0);
+        c.enqueue(a);
+
+        search:
+        while (c.queueSize() != 0) {
+            a = c.dequeue();
+            vertices++;
+            int from = offsets.get(a), to = offsets.get(a + 1);
+            for (int i = from; i < to; i++) {
+                int n = targets.get(i);
+                edges++;
+                if (n == b) {
+                    result = distance;
+                    break search;
+                }
+                else if (c.visit(n, 0)) {
+                    c.enqueue(n);
+                    distance++;
+                }
+            }
+            distance -= (to - from - 1);
+        }
+
+        MetricsRegistry m = Metrics.registry();
+        if (m != null) {
+            m.record(Metric.GETDIST_VERTICES, vertices);
+            m.record(Metric.GETDIST_EDGES, edges);
+        }
+        return result;
+    }
+
+    // an iterable over a range of one of the mapped target arrays
+    private static class Slice implements Iterable<Integer> {
+        private final IntBuffer items;
+        private final int lo, hi;
+
+        Slice(IntBuffer items, int lo, int hi) {
+            this.items = items;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        public Iterator<Integer> iterator() {
+            return new Iterator<Integer>() {
+                private int i = lo;
+
+                public boolean hasNext() {
+                    return i < hi;
+                }
+
+                public void remove() { throw new UnsupportedOperationException(); }
+
+                public Integer next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    return items.get(i++);
+                }
+            };
+        }
+    }
+}
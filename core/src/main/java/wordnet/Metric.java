@@ -0,0 +1,76 @@
+/******************************************************************************
+ *  The measurements that WordNet reports to a MetricsRegistry.
+ ******************************************************************************/
+
+package wordnet;
+
+/**
+ * The Metric enum names every measurement the library takes. A counter is
+ * reported with MetricsRegistry.add, a histogram with MetricsRegistry.record;
+ * durations are in nanoseconds.
+ */
+public enum Metric {
+    GETDIST_VERTICES(Kind.HISTOGRAM, "vertices", "vertices dequeued by one Digraph or CompactDigraph getDist call"),
+    GETDIST_EDGES(Kind.HISTOGRAM, "edges", "edges scanned by one Digraph or CompactDigraph getDist call"),
+    ANSWERED_BY_LABELS(Kind.COUNTER, "queries", "ancestor queries answered by merging hub labels"),
+    ANSWERED_BY_INDEX(Kind.COUNTER, "queries", "ancestor queries answered by the depth index"),
+    ANSWERED_BY_CLOSURES(Kind.COUNTER, "queries", "ancestor queries answered by meeting two ancestor sets"),
+    ANSWERED_BY_SEARCH(Kind.COUNTER, "queries", "ancestor queries answered by a two-sided search"),
+    SEARCH_VERTICES(Kind.HISTOGRAM, "vertices", "vertices expanded by one ancestor search"),
+    SEARCH_EDGES(Kind.HISTOGRAM, "edges", "edges scanned by one ancestor search"),
+    SEARCH_FRONTIER(Kind.HISTOGRAM, "vertices", "size of each level expanded by an ancestor search"),
+    PAIR_CACHE_HITS(Kind.COUNTER, "lookups", "distance and sca results found in the result cache"),
+    PAIR_CACHE_MISSES(Kind.COUNTER, "lookups", "distance and sca results missing from the result cache"),
+    ANCESTOR_CACHE_HITS(Kind.COUNTER, "lookups", "ancestor sets found in the ancestor cache"),
+    ANCESTOR_CACHE_MISSES(Kind.COUNTER, "lookups", "ancestor sets missing from the ancestor cache"),
+    LOAD_SYNSETS(Kind.HISTOGRAM, "ns", "time to parse synsets.txt"),
+    LOAD_HYPERNYMS(Kind.HISTOGRAM, "ns", "time to parse hypernyms.txt"),
+    LOAD_GRAPH(Kind.HISTOGRAM, "ns", "time to build the frozen hypernym graph"),
+    VALIDATE_DAG(Kind.HISTOGRAM, "ns", "time to check that the graph is a rooted DAG"),
+    UPDATE(Kind.HISTOGRAM, "ns", "time to add a batch of synsets and hypernym edges to a WordNet"),
+    ANCESTOR_LATENCY(Kind.HISTOGRAM, "ns", "latency of ShortestCommonAncestor length and ancestor queries"),
+    DISTANCE_LATENCY(Kind.HISTOGRAM, "ns", "latency of WordNet.distance"),
+    SCA_LATENCY(Kind.HISTOGRAM, "ns", "latency of WordNet.sca");
+
+    /**
+     * How a metric is reported.
+     */
+    public enum Kind { COUNTER, HISTOGRAM }
+
+    private final Kind kind;
+    private final String unit;
+    private final String description;
+
+    Metric(Kind kind, String unit, String description) {
+        this.kind = kind;
+        this.unit = unit;
+        this.description = description;
+    }
+
+    /**
+     * Returns whether this metric is a counter or a histogram.
+     *
+     * @return the kind of this metric
+     */
+    public Kind kind() {
+        return kind;
+    }
+
+    /**
+     * Returns the unit of the values of this metric.
+     *
+     * @return the unit, e.g. "ns" or "vertices"
+     */
+    public String unit() {
+        return unit;
+    }
+
+    /**
+     * Returns what this metric measures.
+     *
+     * @return a one-line description
+     */
+    public String description() {
+        return description;
+    }
+}
@@ -0,0 +1,86 @@
+/******************************************************************************
+ *  Switch for the optional instrumentation of the WordNet library.
+ ******************************************************************************/
+
+package wordnet;
+
+/**
+ * The Metrics class holds the MetricsRegistry that the library reports to, if
+ * any. Instrumentation is off until a registry is installed. While it is off,
+ * an instrumented query costs one or two reads of a volatile field: the
+ * traversals count vertices and edges in local variables and only report them
+ * once, at the end, when a registry is present.
+ * <p>
+ * Typical use is enableJmx(), after which the measurements can be watched in
+ * any JMX console under the name wordnet:type=Metrics.
+ */
+public final class Metrics {
+    private static volatile MetricsRegistry registry; // null while instrumentation is off
+
+    private Metrics() { }
+
+    /**
+     * Sends all further measurements to a registry.
+     *
+     * @param r the registry
+     * @throws IllegalArgumentException if r is null
+     */
+    public static void install(MetricsRegistry r) {
+        if (r == null)
+            throw new IllegalArgumentException("argument is null");
+        registry = r;
+    }
+
+    /**
+     * Sends all further measurements to a new JMX registry, registered with the
+     * platform MBean server under the name wordnet:type=Metrics.
+     *
+     * @return the registry
+     * @throws IllegalStateException if the registry cannot be registered
+     */
+    public static JmxMetricsRegistry enableJmx() {
+        JmxMetricsRegistry r = new JmxMetricsRegistry();
+        r.register();
+        install(r);
+        return r;
+    }
+
+    /**
+     * Stops all measurement. A JMX registry stays registered, so its last values
+     * can still be read.
+     */
+    public static void disable() {
+        registry = null;
+    }
+
+    /**
+     * Returns the installed registry.
+     *
+     * @return the registry, or null if instrumentation is off
+     */
+    static MetricsRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * Starts timing an operation.
+     *
+     * @return the current time in nanoseconds, or 0 if instrumentation is off
+     */
+    static long start() {
+        return (registry == null) ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Records the time since start() in a histogram, if instrumentation was on
+     * when the timing started and still is.
+     *
+     * @param metric the histogram
+     * @param start  the value returned by start()
+     */
+    static void stop(Metric metric, long start) {
+        MetricsRegistry r = registry;
+        if (r != null && start != 0)
+            r.record(metric, System.nanoTime() - start);
+    }
+}
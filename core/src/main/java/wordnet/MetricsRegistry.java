@@ -0,0 +1,30 @@
+/******************************************************************************
+ *  Destination of the measurements taken by the WordNet library.
+ ******************************************************************************/
+
+package wordnet;
+
+/**
+ * The MetricsRegistry interface receives the measurements of the library once
+ * it is installed with Metrics.install. Implementations are called from every
+ * querying thread, so they must be thread-safe, and they are called on the
+ * query path, so they should not block.
+ */
+public interface MetricsRegistry {
+
+    /**
+     * Adds to a counter.
+     *
+     * @param metric a metric of kind COUNTER
+     * @param amount the amount to add
+     */
+    void add(Metric metric, long amount);
+
+    /**
+     * Records one value of a histogram.
+     *
+     * @param metric a metric of kind HISTOGRAM
+     * @param value  the value, at least 0
+     */
+    void record(Metric metric, long value);
+}
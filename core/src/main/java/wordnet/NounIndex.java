@@ -0,0 +1,458 @@
+/******************************************************************************
+ *  Sorted table from each WordNet noun to all of its synsets.
+ ******************************************************************************/
+
+package wordnet;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * The NounIndex class maps every noun to the ids of all the synsets it belongs
+ * to, so a polysemous noun keeps every one of its senses.
+ * <p>
+ * This implementation packs the distinct nouns, in sorted order, into one byte
+ * array as UTF-8: the i-th noun is bytes[starts[i]] through
+ * bytes[starts[i + 1] - 1]. The synset ids of all nouns share one int array:
+ * the synsets of the i-th noun are synsets[offsets[i]] through
+ * synsets[offsets[i + 1] - 1], in increasing order. Nouns are found through an
+ * open-addressing hash table of positions with linear probing, kept at most
+ * half full, whose entries also hold the hash of their noun so that most probes
+ * are rejected without reading any bytes. Looking up a noun encodes it on the
+ * fly, takes constant expected time and allocates nothing. Whatever the number
+ * of nouns, the index is a handful of arrays that the garbage collector
+ * traces at once. Since the nouns are sorted, the nouns that start with a
+ * given prefix are a range of positions, found by binary search. The index is
+ * immutable.
+ */
+final class NounIndex {
+    private final byte[] bytes; // distinct nouns, sorted, as UTF-8
+    private final int[] starts; // nouns[i] = bytes[starts[i] .. starts[i+1])
+    private final int[] offsets; // synsets of nouns[i] = synsets[offsets[i] .. offsets[i+1])
+    private final int[] synsets;
+    private final long[] table; // hash << 32 | (position + 1) of a noun, or 0 if the slot is free
+
+    private NounIndex(byte[] bytes, int[] starts, int[] offsets, int[] synsets) {
+        this(bytes, starts, offsets, synsets, hashTable(bytes, starts));
+    }
+
+    private NounIndex(byte[] bytes, int[] starts, int[] offsets, int[] synsets, long[] table) {
+        this.bytes = bytes;
+        this.starts = starts;
+        this.offsets = offsets;
+        this.synsets = synsets;
+        this.table = table;
+    }
+
+    /**
+     * Builds the index from the synsets, given as the space-separated list of
+     * nouns of every synset id.
+     *
+     * @param table the nouns of each synset
+     * @return the index
+     */
+    static NounIndex build(SynsetTable table) {
+        return new NounIndex(new byte[0], new int[1], new int[1], new int[0]).add(table, 0);
+    }
+
+    /**
+     * Returns this index with the nouns of the synsets numbered first and up
+     * added, leaving this index as it is. Those synsets must have larger ids
+     * than every synset already in the index. Only their nouns are sorted; they
+     * are then merged with the sorted nouns of this index in one linear pass.
+     *
+     * @param table the nouns of each synset
+     * @param first the id of the first added synset
+     * @return the extended index
+     */
+    NounIndex add(SynsetTable table, int first) {
+        // every (noun, synset) pair; a space byte never occurs inside a
+        // multi-byte UTF-8 sequence, so the text can be split as bytes
+        byte[] text = table.bytes();
+        int pairs = 0;
+        String[] words = new String[16];
+        int[] owners = new int[words.length];
+        for (int id = first; id < table.range(); id++) {
+            if (!table.contains(id))
+                continue;
+            int end = table.to(id);
+            for (int from = table.from(id); from <= end; ) {
+                int space = from;
+                while (space < end && text[space] != ' ')
+                    space++;
+                if (space > from) {
+                    if (pairs == words.length) {
+                        words = Arrays.copyOf(words, 2 * pairs);
+                        owners = Arrays.copyOf(owners, 2 * pairs);
+                    }
+                    words[pairs] = Utf8.decode(text, from, space);
+                    owners[pairs] = id;
+                    pairs++;
+                }
+                from = space + 1;
+            }
+        }
+
+        // distinct nouns, sorted
+        String[] sorted = Arrays.copyOf(words, pairs);
+        Arrays.sort(sorted);
+        int n = 0;
+        for (int i = 0; i < pairs; i++) {
+            if (n == 0 || !sorted[i].equals(sorted[n - 1]))
+                sorted[n++] = sorted[i];
+        }
+        String[] nouns = Arrays.copyOf(sorted, n);
+
+        // count the synsets of each noun, then fill them in
+        int[] offsets = new int[n + 1];
+        int[] slot = new int[pairs];
+        for (int i = 0; i < pairs; i++) {
+            slot[i] = Arrays.binarySearch(nouns, words[i]);
+            offsets[slot[i] + 1]++;
+        }
+        for (int i = 0; i < n; i++)
+            offsets[i + 1] += offsets[i];
+        int[] next = Arrays.copyOf(offsets, n);
+        int[] synsets = new int[pairs];
+        for (int i = 0; i < pairs; i++)
+            synsets[next[slot[i]]++] = owners[i];
+
+        // a synset that lists a noun twice is kept once
+        int size = 0;
+        int start = 0;
+        for (int i = 0; i < n; i++) {
+            int end = offsets[i + 1];
+            Arrays.sort(synsets, start, end);
+            offsets[i] = size;
+            for (int k = start; k < end; k++) {
+                if (k == start || synsets[k] != synsets[k - 1])
+                    synsets[size++] = synsets[k];
+            }
+            start = end;
+        }
+        offsets[n] = size;
+
+        // merge the added nouns into the sorted nouns of this index; a noun in
+        // both keeps its old synsets, then gains the added ones, which are larger
+        byte[][] encoded = new byte[n][];
+        int length = this.bytes.length;
+        for (int j = 0; j < n; j++) {
+            encoded[j] = nouns[j].getBytes(StandardCharsets.UTF_8);
+            length += encoded[j].length;
+        }
+        int m = size();
+        byte[] mergedBytes = new byte[length];
+        int[] mergedStarts = new int[m + n + 1];
+        int[] mergedOffsets = new int[m + n + 1];
+        int[] mergedSynsets = new int[this.synsets.length + size];
+        int i = 0, j = 0, k = 0, b = 0, x = 0;
+        while (i < m || j < n) {
+            int c = (i == m) ? 1 : (j == n) ? -1 : Utf8.compare(this.bytes, starts[i], starts[i + 1], nouns[j]);
+            mergedStarts[k] = b;
+            mergedOffsets[k] = x;
+            if (c <= 0) {
+                System.arraycopy(this.bytes, starts[i], mergedBytes, b, starts[i + 1] - starts[i]);
+                b += starts[i + 1] - starts[i];
+                System.arraycopy(this.synsets, this.offsets[i], mergedSynsets, x, to(i) - from(i));
+                x += to(i) - from(i);
+                i++;
+            }
+            else {
+                System.arraycopy(encoded[j], 0, mergedBytes, b, encoded[j].length);
+                b += encoded[j].length;
+            }
+            if (c >= 0) {
+                System.arraycopy(synsets, offsets[j], mergedSynsets, x, offsets[j + 1] - offsets[j]);
+                x += offsets[j + 1] - offsets[j];
+                j++;
+            }
+            k++;
+        }
+        mergedStarts[k] = b;
+        mergedOffsets[k] = x;
+
+        return new NounIndex(Arrays.copyOf(mergedBytes, b), Arrays.copyOf(mergedStarts, k + 1),
+                Arrays.copyOf(mergedOffsets, k + 1), mergedSynsets);
+    }
+
+    // the hash table of the nouns, a power of two at least twice their number
+    private static long[] hashTable(byte[] bytes, int[] starts) {
+        int n = starts.length - 1;
+        int capacity = Integer.highestOneBit(Math.max(1, n)) << 2;
+        long[] table = new long[capacity];
+        for (int i = 0; i < n; i++) {
+            int h = Utf8.hash(bytes, starts[i], starts[i + 1]);
+            int s = mix(h) & (capacity - 1);
+            while (table[s] != 0)
+                s = (s + 1) & (capacity - 1);
+            table[s] = ((long) h << 32) | (i + 1);
+        }
+        return table;
+    }
+
+    // spreads the high bits of a hash into the low bits that pick a slot
+    private static int mix(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the number of distinct nouns.
+     *
+     * @return the number of nouns
+     */
+    int size() {
+        return starts.length - 1;
+    }
+
+    /**
+     * Returns the position of a noun in the sorted table.
+     *
+     * @param noun the noun
+     * @return the position of the noun, or -1 if it is not in the index
+     */
+    int find(CharSequence noun) {
+        int h = Utf8.hash(noun);
+        int mask = table.length - 1;
+        for (int s = mix(h) & mask; table[s] != 0; s = (s + 1) & mask) {
+            if ((int) (table[s] >>> 32) == h) {
+                int i = (int) table[s] - 1;
+                if (Utf8.equals(bytes, starts[i], starts[i + 1], noun))
+                    return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the noun at a position in the sorted table.
+     *
+     * @param i the position
+     * @return the i-th noun in sorted order
+     */
+    String noun(int i) {
+        return Utf8.decode(bytes, starts[i], starts[i + 1]);
+    }
+
+    /**
+     * Returns where the synsets of the i-th noun start in synsets().
+     *
+     * @param i the position of the noun
+     * @return the index of its first synset
+     */
+    int from(int i) {
+        return offsets[i];
+    }
+
+    /**
+     * Returns where the synsets of the i-th noun end in synsets().
+     *
+     * @param i the position of the noun
+     * @return one past the index of its last synset
+     */
+    int to(int i) {
+        return offsets[i + 1];
+    }
+
+    /**
+     * Returns the shared array of synset ids. It must not be modified.
+     *
+     * @return the synset ids of all nouns, grouped by noun
+     */
+    int[] synsets() {
+        return synsets;
+    }
+
+    /**
+     * Returns the sorted nouns as an iterable. Each noun is decoded when the
+     * iteration reaches it.
+     *
+     * @return the nouns, in sorted order
+     */
+    Iterable<String> nouns() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int i) {
+                return noun(i);
+            }
+
+            @Override
+            public int size() {
+                return NounIndex.this.size();
+            }
+        };
+    }
+
+    /**
+     * Returns the position of the first noun that starts with prefix, or would
+     * come after it.
+     *
+     * @param prefix the prefix
+     * @return the first position whose noun is not less than prefix, up to size()
+     */
+    int first(CharSequence prefix) {
+        return search(prefix, 0);
+    }
+
+    /**
+     * Returns one past the position of the last noun that starts with prefix,
+     * or would come before it.
+     *
+     * @param prefix the prefix
+     * @return the first position whose noun neither starts with prefix nor is
+     *         less than it, up to size()
+     */
+    int last(CharSequence prefix) {
+        return search(prefix, 1);
+    }
+
+    // first position whose noun, cut to the length of prefix, compares at
+    // least bias with prefix (0: not less, 1: greater), by binary search
+    private int search(CharSequence prefix, int bias) {
+        int lo = 0, hi = size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (Integer.signum(Utf8.comparePrefix(bytes, starts[mid], starts[mid + 1], prefix)) < bias)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        return lo;
+    }
+
+    /**
+     * Returns a spliterator over the nouns at positions [lo, hi), in sorted
+     * order. Each noun is a view of the packed bytes, not a copy, and a split
+     * halves the range in constant time.
+     *
+     * @param lo the first position
+     * @param hi one past the last position
+     * @return the spliterator
+     */
+    Spliterator<CharSequence> spliterator(int lo, int hi) {
+        return new Nouns(lo, hi);
+    }
+
+    // the nouns at positions [lo, hi): sorted, distinct and of known size
+    private final class Nouns implements Spliterator<CharSequence> {
+        private int lo;
+        private final int hi;
+
+        Nouns(int lo, int hi) {
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super CharSequence> action) {
+            if (lo >= hi)
+                return false;
+            action.accept(new Utf8Sequence(bytes, starts[lo], starts[lo + 1]));
+            lo++;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super CharSequence> action) {
+            for (; lo < hi; lo++)
+                action.accept(new Utf8Sequence(bytes, starts[lo], starts[lo + 1]));
+        }
+
+        @Override
+        public Spliterator<CharSequence> trySplit() {
+            int mid = (lo + hi) >>> 1;
+            if (mid <= lo)
+                return null;
+            Nouns prefix = new Nouns(lo, mid);
+            lo = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return hi - lo;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | DISTINCT | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+
+        @Override
+        public Comparator<? super CharSequence> getComparator() {
+            return CharSequence::compare; // the order of String.compareTo
+        }
+    }
+
+    /**
+     * Writes this index, hash table included, so that read(ByteBuffer) can
+     * restore it without sorting or hashing.
+     *
+     * @param out the destination
+     * @throws IOException if out cannot be written
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(size());
+        out.writeInt(synsets.length);
+        out.writeInt(bytes.length);
+        out.writeInt(table.length);
+        for (int x : starts)
+            out.writeInt(x);
+        for (int x : offsets)
+            out.writeInt(x);
+        for (int x : synsets)
+            out.writeInt(x);
+        for (long x : table)
+            out.writeLong(x);
+        out.write(bytes);
+    }
+
+    /**
+     * Reads an index written by write(DataOutput), advancing the position of buf
+     * past it. The arrays are copied out of buf in bulk; nothing is sorted or
+     * hashed again.
+     *
+     * @param buf the source, positioned at the start of the index
+     * @return the index
+     * @throws IllegalArgumentException if buf does not hold a valid index
+     */
+    static NounIndex read(ByteBuffer buf) {
+        int n = buf.getInt();
+        int size = buf.getInt();
+        int length = buf.getInt();
+        int capacity = buf.getInt();
+        if (n < 0 || size < 0 || length < 0 || capacity <= n || Integer.bitCount(capacity) != 1
+                || length + 8L * (n + 1) + 4L * size + 8L * capacity > buf.remaining())
+            throw new IllegalArgumentException("invalid noun index header");
+
+        // the int and long arrays come first, so they stay aligned in the file
+        int[] starts = new int[n + 1];
+        int[] offsets = new int[n + 1];
+        int[] synsets = new int[size];
+        long[] table = new long[capacity];
+        buf.asIntBuffer().get(starts);
+        buf.position(buf.position() + 4 * starts.length);
+        buf.asIntBuffer().get(offsets);
+        buf.position(buf.position() + 4 * offsets.length);
+        buf.asIntBuffer().get(synsets);
+        buf.position(buf.position() + 4 * synsets.length);
+        buf.asLongBuffer().get(table);
+        buf.position(buf.position() + 8 * table.length);
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+
+        if (starts[0] != 0 || starts[n] != length || offsets[0] != 0 || offsets[n] != size)
+            throw new IllegalArgumentException("invalid noun index offsets");
+        for (int i = 0; i < n; i++) {
+            if (starts[i] > starts[i + 1] || offsets[i] > offsets[i + 1])
+                throw new IllegalArgumentException("invalid noun index offsets");
+        }
+        return new NounIndex(bytes, starts, offsets, synsets, table);
+    }
+}
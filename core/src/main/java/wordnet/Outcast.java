@@ -0,0 +1,90 @@
+package wordnet;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.io.*;
+
+public class Outcast {
+    private WordNet wordNet;
+    private final ForkJoinPool pool; // computes the distance matrix
+
+    //constructor takes a WordNet object
+    public Outcast(WordNet wordnet) {
+        this(wordnet, ForkJoinPool.commonPool());
+    }
+
+    //constructor for callers that want the work on their own fork-join pool
+    public Outcast(WordNet wordnet, ForkJoinPool pool) {
+        if (wordnet == null || pool == null) {
+            throw new IllegalArgumentException("argument is null");
+        }
+        this.wordNet = wordnet;
+        this.pool = pool;
+    }
+
+    //given an array of WordNet nouns, returns an outcast
+    public String outcast(String[] nouns) {
+        if (nouns == null) {
+            throw new IllegalArgumentException("argument is null");
+        }
+        int n = nouns.length;
+
+        // one search per noun, then one merge per unordered pair
+        DistanceMatrix distances = wordNet.distanceMatrix(nouns, pool);
+
+        // a noun with no common ancestor with another is infinitely far from
+        // it: nouns are ranked by how many nouns they are unrelated to, then
+        // by the sum of their finite distances
+        int maxUnrelated = 0;
+        int maxValue = 0;
+        String outcastNoun = "";
+
+        for (int a = 0; a < n; a++) {  //a is checking noun
+            int unrelated = 0;
+            int distance = 0;
+            for (int b = 0; b < n; b++) {   //b is other noun that is being checked
+                if (a != b) {    //since if they are equal, distance is zero
+                    int d = distances.get(a, b);
+                    if (d < 0) {
+                        unrelated++;
+                    } else {
+                        distance += d;
+                    }
+                }
+            }
+            if (unrelated > maxUnrelated || (unrelated == maxUnrelated && distance > maxValue)) {
+                maxUnrelated = unrelated;
+                maxValue = distance;
+                outcastNoun = nouns[a];
+            }
+        }
+        return outcastNoun;
+    }
+
+    //test client, given by professor Wu
+    public static void main(String[] args) throws FileNotFoundException {        //NOT checked yet, need to check!!!
+        WordNet wordnet = new WordNet("synsets.txt", "hypernyms.txt");
+        Outcast outcast = new Outcast(wordnet);
+
+        for (int t = 0; t < 3; t++) {
+            Scanner input = new Scanner(System.in);
+            System.out.print("Enter the file name: ");
+            String fileName = input.nextLine();
+            System.out.print("Enter the file size: ");
+            int fileSize = input.nextInt();
+
+            File inFile = new File(fileName);
+            Scanner input1 = new Scanner(inFile);
+            String[] nouns = new String[fileSize];
+
+            int i=0;
+            while(input1.hasNextLine()){
+                nouns[i] = input1.nextLine();
+                i++;
+            }
+
+            System.out.println(fileName + ": " + outcast.outcast(nouns));
+        }
+
+    }
+}
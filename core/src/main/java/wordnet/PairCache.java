@@ -0,0 +1,336 @@
+/******************************************************************************
+ *  Bounded, lock-striped LRU cache of pairwise query results.
+ ******************************************************************************/
+
+package wordnet;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The PairCache class remembers the result of a query over an unordered pair
+ * of nouns, so that a repeated query does not traverse the graph again. The
+ * key is the pair of noun positions, smaller first, packed into one long, so
+ * (a, b) and (b, a) share an entry. The value is the packed length and
+ * ancestor of one search, so a distance query and an sca query over the same
+ * pair share an entry too.
+ * <p>
+ * This implementation splits the entries over a power-of-two number of
+ * stripes, each behind its own lock, and evicts the least recently used entry
+ * of a stripe once the stripe is full. Threads that look up different pairs
+ * rarely contend. A stripe keeps its keys and values in parallel long arrays,
+ * its recency order in two int arrays linking the entries, and finds a key
+ * through an open-addressing table of entry numbers with linear probing, so
+ * nothing is boxed and a lookup or an insertion allocates nothing. Each entry
+ * costs about 32 bytes of heap, so the capacity bounds memory as well as
+ * entries; the arrays grow by doubling up to the capacity of the stripe. Hit,
+ * miss and eviction counts are kept in LongAdder counters, which stay cheap
+ * under contention.
+ */
+final class PairCache {
+    static final long ABSENT = Long.MIN_VALUE; // returned by get() for a pair that is not cached
+
+    private final Stripe[] stripes;
+    private final int capacity;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Initializes an empty cache that holds at most capacity results.
+     *
+     * @param capacity the maximum number of results
+     * @throws IllegalArgumentException if capacity < 1
+     */
+    PairCache(int capacity) {
+        this(capacity, stripesFor(capacity));
+    }
+
+    // a cache over n stripes, n a power of two, so that tests can watch the
+    // eviction order of a single stripe
+    PairCache(int capacity, int n) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be positive");
+        if (n < 1 || Integer.bitCount(n) != 1)
+            throw new IllegalArgumentException("number of stripes must be a power of two");
+        this.stripes = new Stripe[n];
+        for (int i = 0; i < n; i++)
+            stripes[i] = new Stripe(Math.max(1, capacity / n));
+        this.capacity = capacity;
+    }
+
+    // up to 16 stripes, each holding at least two results
+    private static int stripesFor(int capacity) {
+        int n = 1;
+        while (n < 16 && 2 * n <= capacity)
+            n *= 2;
+        return n;
+    }
+
+    /**
+     * Returns the key of an unordered pair of noun positions.
+     *
+     * @param a one position
+     * @param b the other position
+     * @return the same key for (a, b) and (b, a)
+     */
+    static long key(int a, int b) {
+        int lo = Math.min(a, b), hi = Math.max(a, b);
+        return ((long) lo << 32) | (hi & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the cached result of a pair.
+     *
+     * @param key the key of the pair
+     * @return the result, or ABSENT if the pair is not cached
+     */
+    long get(long key) {
+        long h = mix(key);
+        Stripe s = stripe(h);
+        long value;
+        synchronized (s) {
+            value = s.get(key, h);
+        }
+        MetricsRegistry m = Metrics.registry();
+        if (value == ABSENT) {
+            misses.increment();
+            if (m != null)
+                m.add(Metric.PAIR_CACHE_MISSES, 1);
+            return ABSENT;
+        }
+        hits.increment();
+        if (m != null)
+            m.add(Metric.PAIR_CACHE_HITS, 1);
+        return value;
+    }
+
+    /**
+     * Caches the result of a pair, evicting the least recently used result of
+     * its stripe if the stripe is full.
+     *
+     * @param key   the key of the pair
+     * @param value the result
+     */
+    void put(long key, long value) {
+        long h = mix(key);
+        Stripe s = stripe(h);
+        boolean evicted;
+        synchronized (s) {
+            evicted = s.put(key, h, value);
+        }
+        if (evicted)
+            evictions.increment();
+    }
+
+    /**
+     * Returns the number of lookups that found a result.
+     *
+     * @return the number of hits
+     */
+    long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of lookups that found no result.
+     *
+     * @return the number of misses
+     */
+    long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of results evicted to make room for others.
+     *
+     * @return the number of evictions
+     */
+    long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the number of cached results.
+     *
+     * @return the number of cached results
+     */
+    int size() {
+        int size = 0;
+        for (Stripe s : stripes) {
+            synchronized (s) {
+                size += s.size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the maximum number of results.
+     *
+     * @return the capacity this cache was created with
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns a summary of the counters.
+     *
+     * @return a one-line report of size, hits, misses and evictions
+     */
+    public String toString() {
+        return String.format("%d/%d entries, %d hits, %d misses, %d evictions",
+                size(), capacity, hits(), misses(), evictions());
+    }
+
+    // the bits of a key mixed together: the stripe takes bits 32 and up, the
+    // table of a stripe its top bits
+    private static long mix(long key) {
+        return key * 0x9E3779B97F4A7C15L;
+    }
+
+    // the stripe of a mixed key
+    private Stripe stripe(long h) {
+        return stripes[(int) (h >>> 32) & (stripes.length - 1)];
+    }
+
+    // one bounded, least-recently-used table of long keys and values; guarded
+    // by its own monitor. Entries are numbered 0 to size - 1, and each is
+    // linked to the next more and less recently used one; table holds entry
+    // number + 1 at the first free slot from the home of the key, or 0
+    private static final class Stripe {
+        private static final int NONE = -1;
+
+        private final int limit;
+        private long[] keys = new long[0];
+        private long[] values = new long[0];
+        private int[] newer = new int[0]; // next more recently used entry, or NONE
+        private int[] older = new int[0]; // next less recently used entry, or NONE
+        private int[] table = new int[0];
+        private int shift; // 64 - log2(table.length)
+        private int size;
+        private int newest = NONE, oldest = NONE;
+
+        Stripe(int limit) {
+            this.limit = limit;
+            resize(Math.min(limit, 16));
+        }
+
+        // the value of key, which mixes to h, made most recently used; or ABSENT
+        long get(long key, long h) {
+            int e = find(key, h);
+            if (e == NONE)
+                return ABSENT;
+            touch(e);
+            return values[e];
+        }
+
+        // stores value under key, which mixes to h, as the most recently used
+        // entry; returns whether the least recently used entry was evicted
+        boolean put(long key, long h, long value) {
+            int e = find(key, h);
+            if (e != NONE) {
+                values[e] = value;
+                touch(e);
+                return false;
+            }
+            boolean evicted = false;
+            if (size == keys.length && size < limit)
+                resize(Math.min(limit, 2 * size));
+            if (size < keys.length)
+                e = size++;
+            else {
+                e = oldest; // reuse the entry of the least recently used key
+                unlink(e);
+                remove(e);
+                evicted = true;
+            }
+            keys[e] = key;
+            values[e] = value;
+            insert(e, h);
+            linkNewest(e);
+            return evicted;
+        }
+
+        // the entry of key, or NONE
+        private int find(long key, long h) {
+            int mask = table.length - 1;
+            for (int i = (int) (h >>> shift); table[i] != 0; i = (i + 1) & mask) {
+                int e = table[i] - 1;
+                if (keys[e] == key)
+                    return e;
+            }
+            return NONE;
+        }
+
+        // adds entry e, whose key mixes to h, at the first free slot from its home
+        private void insert(int e, long h) {
+            int mask = table.length - 1;
+            int i = (int) (h >>> shift);
+            while (table[i] != 0)
+                i = (i + 1) & mask;
+            table[i] = e + 1;
+        }
+
+        // removes entry e from the table, moving back the entries after it
+        // that would otherwise no longer be reachable from their home
+        private void remove(int e) {
+            int mask = table.length - 1;
+            int i = (int) (mix(keys[e]) >>> shift);
+            while (table[i] != e + 1)
+                i = (i + 1) & mask;
+            for (int j = (i + 1) & mask; table[j] != 0; j = (j + 1) & mask) {
+                int home = (int) (mix(keys[table[j] - 1]) >>> shift);
+                // move j back to i unless its home lies cyclically in (i, j]
+                if (((j - home) & mask) >= ((j - i) & mask)) {
+                    table[i] = table[j];
+                    i = j;
+                }
+            }
+            table[i] = 0;
+        }
+
+        // makes entry e the most recently used
+        private void touch(int e) {
+            if (e != newest) {
+                unlink(e);
+                linkNewest(e);
+            }
+        }
+
+        private void unlink(int e) {
+            if (newer[e] != NONE)
+                older[newer[e]] = older[e];
+            else
+                newest = older[e];
+            if (older[e] != NONE)
+                newer[older[e]] = newer[e];
+            else
+                oldest = newer[e];
+        }
+
+        private void linkNewest(int e) {
+            newer[e] = NONE;
+            older[e] = newest;
+            if (newest != NONE)
+                newer[newest] = e;
+            newest = e;
+            if (oldest == NONE)
+                oldest = e;
+        }
+
+        // room for n entries, in a table at most half full
+        private void resize(int n) {
+            keys = Arrays.copyOf(keys, n);
+            values = Arrays.copyOf(values, n);
+            newer = Arrays.copyOf(newer, n);
+            older = Arrays.copyOf(older, n);
+            int slots = Integer.highestOneBit(Math.max(2, 2 * n - 1)) << 1;
+            table = new int[slots];
+            shift = 64 - Integer.numberOfTrailingZeros(slots);
+            for (int e = 0; e < size; e++)
+                insert(e, mix(keys[e]));
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/******************************************************************************
+ *  Multi-threaded reader of hypernyms.txt and builder of frozen digraphs.
+ ******************************************************************************/
+
+package wordnet;
+
+import java.nio.MappedByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The ParallelGraphBuilder class builds a CompactDigraph on a fork-join pool,
+ * for taxonomies with millions of synsets. It works in stages, each split
+ * across the pool:
+ * <ol>
+ * <li>the mapped hypernyms file is cut into chunks at line breaks, and each
+ * chunk is parsed into its own edge buffer, counting the outdegree of every
+ * synset on the way;</li>
+ * <li>a parallel prefix sum over the outdegrees gives the CSR row offsets;</li>
+ * <li>each buffer is copied into its rows, every line into a block of its row
+ * reserved with one atomic update;</li>
+ * <li>the indegrees are counted, summed and filled in the same way to build the
+ * reverse index, whose rows are then sorted so that they come out exactly as
+ * the serial transpose writes them.</li>
+ * </ol>
+ * A synset listed on a single line gets the same adjacency order as with
+ * WordNetLoader, most recent edge first. Only a synset whose hypernyms are
+ * spread over several lines may see those lines in a different order, which
+ * changes no distance. Every stage takes time linear in the size of its input,
+ * divided by the parallelism of the pool. On a pool of one thread, the serial
+ * loader is used instead.
+ */
+final class ParallelGraphBuilder {
+    private static final int GRAIN = 1 << 14; // vertices or edges per leaf task
+    private static final int CHUNK = 1 << 12; // fewest bytes of hypernyms.txt per parse task
+
+    private ParallelGraphBuilder() { }
+
+    /**
+     * Reads hypernyms.txt into a frozen digraph, as WordNetLoader.readHypernyms
+     * does, on the threads of pool.
+     *
+     * @param hypernyms the name of the hypernyms file
+     * @param V         the number of synsets
+     * @param pool      the pool to run on
+     * @return the digraph with an edge from each synset to each of its hypernyms
+     * @throws IllegalArgumentException if the file cannot be read or is malformed,
+     *                                  or names a synset that is not between 0
+     *                                  and V - 1
+     */
+    static CompactDigraph readHypernyms(String hypernyms, int V, ForkJoinPool pool) {
+        return readHypernyms(hypernyms, V, pool, CHUNK);
+    }
+
+    // readHypernyms with chunks of at least chunk bytes, so that tests can cut
+    // a small file into many chunks
+    static CompactDigraph readHypernyms(String hypernyms, int V, ForkJoinPool pool, int chunk) {
+        // the atomic updates and the extra copy only pay off on several threads
+        if (pool.getParallelism() == 1)
+            return WordNetLoader.readHypernyms(hypernyms, V);
+
+        long timer = Metrics.start();
+        MappedByteBuffer buf = WordNetLoader.map(hypernyms);
+        int n = buf.limit();
+
+        // chunk boundaries, each at the start of a line
+        int chunks = Math.max(1, Math.min(4 * pool.getParallelism(), n / chunk));
+        int[] bounds = new int[chunks + 1];
+        for (int c = 1; c < chunks; c++) {
+            int p = Math.max(bounds[c - 1], (int) ((long) n * c / chunks));
+            if (p > 0 && p < n && buf.get(p - 1) != '\n')
+                p = WordNetLoader.skipLineBreak(buf, WordNetLoader.lineEnd(buf, p, n), n);
+            bounds[c] = p;
+        }
+        bounds[chunks] = n;
+
+        // parse every chunk into a buffer of lines: v, k, then the k hypernyms
+        AtomicIntegerArray degree = new AtomicIntegerArray(V);
+        int[][] lines = new int[chunks][];
+        pool.invoke(new Split(0, chunks, 1, (lo, hi) -> {
+            for (int c = lo; c < hi; c++)
+                lines[c] = parse(buf, bounds[c], bounds[c + 1], V, hypernyms, degree);
+        }));
+        Metrics.stop(Metric.LOAD_HYPERNYMS, timer);
+
+        timer = Metrics.start();
+        int[] offsets = new int[V + 1];
+        pool.invoke(new Split(0, V, GRAIN, (lo, hi) -> {
+            for (int v = lo; v < hi; v++)
+                offsets[v + 1] = degree.get(v);
+        }));
+        prefixSum(pool, offsets);
+
+        // copy each line into its row, filling the row from its end
+        int[] targets = new int[offsets[V]];
+        AtomicIntegerArray next = new AtomicIntegerArray(Arrays.copyOfRange(offsets, 1, V + 1));
+        pool.invoke(new Split(0, chunks, 1, (lo, hi) -> {
+            for (int c = lo; c < hi; c++) {
+                int[] buffer = lines[c];
+                for (int i = 1; i <= buffer[0]; ) {
+                    int v = buffer[i], k = buffer[i + 1];
+                    int base = next.addAndGet(v, -k);
+                    for (int j = 0; j < k; j++)
+                        targets[base + k - 1 - j] = buffer[i + 2 + j];
+                    i += 2 + k;
+                }
+            }
+        }));
+
+        CompactDigraph G = freeze(V, offsets, targets, pool);
+        Metrics.stop(Metric.LOAD_GRAPH, timer);
+        return G;
+    }
+
+    /**
+     * Builds a digraph from CSR arrays, as CompactDigraph(int, int[], int[])
+     * does, validating the targets and building the reverse index on the
+     * threads of pool. The arrays are taken over, not copied.
+     *
+     * @param V       the number of vertices
+     * @param offsets the V + 1 row offsets into targets
+     * @param targets the heads of the edges, grouped by tail vertex
+     * @param pool    the pool to run on
+     * @return the digraph
+     * @throws IllegalArgumentException if the arrays are not a valid CSR layout
+     */
+    static CompactDigraph freeze(int V, int[] offsets, int[] targets, ForkJoinPool pool) {
+        if (V < 0)
+            throw new IllegalArgumentException("Number of vertices in a Digraph must be non-negative");
+        if (offsets.length != V + 1 || offsets[0] != 0 || offsets[V] > targets.length)
+            throw new IllegalArgumentException("invalid CSR offsets");
+        int E = offsets[V];
+
+        // indegree of every vertex, validating the targets on the way
+        AtomicIntegerArray indegree = new AtomicIntegerArray(V);
+        pool.invoke(new Split(0, E, GRAIN, (lo, hi) -> {
+            for (int i = lo; i < hi; i++) {
+                if (targets[i] < 0 || targets[i] >= V)
+                    throw new IllegalArgumentException("vertex " + targets[i] + " is not between 0 and " + (V - 1));
+                indegree.incrementAndGet(targets[i]);
+            }
+        }));
+        int[] revOffsets = new int[V + 1];
+        pool.invoke(new Split(0, V, GRAIN, (lo, hi) -> {
+            for (int v = lo; v < hi; v++)
+                revOffsets[v + 1] = indegree.get(v);
+        }));
+        prefixSum(pool, revOffsets);
+
+        // fill the reverse rows in any order, then sort them into the order of
+        // the serial transpose: increasing tail vertex
+        int[] revTargets = new int[E];
+        AtomicIntegerArray next = new AtomicIntegerArray(Arrays.copyOf(revOffsets, V));
+        pool.invoke(new Split(0, V, GRAIN, (lo, hi) -> {
+            for (int v = lo; v < hi; v++) {
+                for (int i = offsets[v]; i < offsets[v + 1]; i++)
+                    revTargets[next.getAndIncrement(targets[i])] = v;
+            }
+        }));
+        pool.invoke(new Split(0, V, GRAIN, (lo, hi) -> {
+            for (int v = lo; v < hi; v++) {
+                if (revOffsets[v + 1] - revOffsets[v] > 1)
+                    Arrays.sort(revTargets, revOffsets[v], revOffsets[v + 1]);
+            }
+        }));
+
+        return new CompactDigraph(V, E, offsets, targets, revOffsets, revTargets);
+    }
+
+    /**
+     * Finds the root of G: its only vertex with no outgoing edge.
+     *
+     * @param G    the digraph
+     * @param pool the pool to run on
+     * @return the root, or -1 if G has no vertex or several vertices with no
+     *         outgoing edge
+     */
+    static int root(DigraphView G, ForkJoinPool pool) {
+        AtomicInteger roots = new AtomicInteger();
+        AtomicInteger root = new AtomicInteger(-1);
+        pool.invoke(new Split(0, G.V(), GRAIN, (lo, hi) -> {
+            for (int v = lo; v < hi; v++) {
+                if (G.outdegree(v) == 0) {
+                    roots.incrementAndGet();
+                    root.set(v);
+                }
+            }
+        }));
+        return (roots.get() == 1) ? root.get() : -1;
+    }
+
+    // parses the lines in buf[from .. to) into a buffer whose first entry is its
+    // used length, adding the outdegree of each synset to degree
+    private static int[] parse(MappedByteBuffer buf, int from, int to, int V, String file, AtomicIntegerArray degree) {
+        int[] out = new int[Math.max(16, (to - from) / 4)];
+        int size = 1;
+        int pos = from;
+        while (pos < to) {
+            int end = WordNetLoader.lineEnd(buf, pos, to);
+            if (end > pos) {
+                if (size + 2 > out.length)
+                    out = Arrays.copyOf(out, 2 * out.length);
+                int head = size; // where v and k go
+                size += 2;
+                int v = -1;
+                int number = 0;
+                boolean digits = false;
+                for (int p = pos; p <= end; p++) {
+                    if (p == end || buf.get(p) == ',') {
+                        if (!digits)
+                            throw new IllegalArgumentException("invalid line in " + file + " at byte " + pos);
+                        WordNetLoader.validate(number, V, file);
+                        if (v < 0)
+                            v = number;
+                        else {
+                            if (size == out.length)
+                                out = Arrays.copyOf(out, 2 * size);
+                            out[size++] = number;
+                        }
+                        number = 0;
+                        digits = false;
+                    }
+                    else {
+                        number = WordNetLoader.append(number, buf, p, file);
+                        digits = true;
+                    }
+                }
+                int k = size - head - 2;
+                out[head] = v;
+                out[head + 1] = k;
+                degree.addAndGet(v, k);
+            }
+            pos = WordNetLoader.skipLineBreak(buf, end, to);
+        }
+        out[0] = size - 1;
+        return out;
+    }
+
+    // turns a[1 ..] from counts into running sums in place, in blocks: the sum
+    // of each block in parallel, the block offsets serially, then each block's
+    // running sum in parallel
+    private static void prefixSum(ForkJoinPool pool, int[] a) {
+        int blocks = Math.max(1, (a.length + GRAIN - 1) / GRAIN);
+        long[] sums = new long[blocks + 1];
+        pool.invoke(new Split(0, blocks, 1, (lo, hi) -> {
+            for (int b = lo; b < hi; b++) {
+                long s = 0;
+                for (int i = b * GRAIN, end = Math.min(a.length, i + GRAIN); i < end; i++)
+                    s += a[i];
+                sums[b + 1] = s;
+            }
+        }));
+        for (int b = 0; b < blocks; b++)
+            sums[b + 1] += sums[b];
+        if (sums[blocks] > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("too many edges: " + sums[blocks]);
+        pool.invoke(new Split(0, blocks, 1, (lo, hi) -> {
+            for (int b = lo; b < hi; b++) {
+                int s = (int) sums[b];
+                for (int i = b * GRAIN, end = Math.min(a.length, i + GRAIN); i < end; i++) {
+                    s += a[i];
+                    a[i] = s;
+                }
+            }
+        }));
+    }
+
+    // work over a range of indexes [lo, hi)
+    private interface Range {
+        void run(int lo, int hi);
+    }
+
+    // runs a Range over [lo, hi), halving it until at most grain indexes are left
+    private static final class Split extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int lo, hi, grain;
+        private final Range body;
+
+        Split(int lo, int hi, int grain, Range body) {
+            this.lo = lo;
+            this.hi = hi;
+            this.grain = grain;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= grain) {
+                body.run(lo, hi);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new Split(lo, mid, grain, body), new Split(mid, hi, grain, body));
+        }
+    }
+}
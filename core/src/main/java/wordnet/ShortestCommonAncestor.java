@@ -0,0 +1,340 @@
+package wordnet;
+
+import java.util.*;
+import java.io.*;
+import java.util.concurrent.ForkJoinPool;
+public class ShortestCommonAncestor {
+    private final CompactDigraph graph; // frozen copy of the graph, safe to share
+    private int root; // the single vertex without hypernyms, set before the engine is shared
+    private volatile int[] order; // topological order found by validation, until buildIndex() uses it
+    private volatile AncestorIndex index; // optional depth and LCA index, or null
+    private volatile HubLabelIndex labels; // optional exact label index, or null
+    private volatile AncestorCache closures; // optional cache of per-vertex ancestor sets, or null
+
+    // constructor takes a rooted DAG as argument
+    public ShortestCommonAncestor(DigraphView G) {
+        if (G == null) {
+            throw new IllegalArgumentException("argument is null");
+        }
+        // a CompactDigraph is already immutable, so there is nothing to copy
+        this.graph = (G instanceof CompactDigraph) ? (CompactDigraph) G : new CompactDigraph(G);
+        long start = Metrics.start();
+        boolean dag = isDAG();
+        Metrics.stop(Metric.VALIDATE_DAG, start);
+        if (!dag) {
+            throw new IllegalArgumentException("This isn't a rooted DAG");
+        }
+    }
+
+    // trusts that G was already validated as a rooted DAG with the given root,
+    // e.g. when it is restored from a snapshot
+    ShortestCommonAncestor(CompactDigraph G, int root) {
+        this.graph = G;
+        this.root = root;
+    }
+
+    // is this engine answering queries over exactly the graph G?
+    boolean isOver(CompactDigraph G) {
+        return this.graph == G;
+    }
+
+    // the root of the DAG
+    public int root() {
+        return root;
+    }
+
+    // builds the optional depth and lowest-common-ancestor index; once it is
+    // built, length() and ancestor() only search when both vertices have
+    // several hypernyms somewhere above them. The index visits the vertices in
+    // the topological order that validation found, which is only recomputed
+    // for an engine that was not validated here
+    public void buildIndex() {
+        if (this.index == null) {
+            int[] o = this.order;
+            if (o == null) {
+                o = new DirectedCycle(this.graph).order();
+            }
+            this.index = new AncestorIndex(this.graph, o);
+            this.order = null;
+        }
+    }
+
+    private boolean isDAG() {
+        // the vertices without hypernyms, counted in parallel on large graphs
+        int r = ParallelGraphBuilder.root(this.graph, ForkJoinPool.commonPool());
+        if (r < 0) {
+            return false;
+        }
+        // if there is no root, more than one root or there is a cycle then the graph
+        // isn't a rooted DAG; otherwise the search has found a topological order
+        DirectedCycle finder = new DirectedCycle(this.graph);
+        if (finder.hasCycle()) {
+            return false;
+        } else {
+            this.root = r;
+            this.order = finder.order();
+            return true;
+        }
+    }
+
+    // builds the optional hub label index, after which length() and ancestor()
+    // merge two sorted labels instead of searching
+    public void buildLabels() {
+        if (this.labels == null) {
+            this.labels = HubLabelIndex.build(this.graph, this.root);
+        }
+    }
+
+    // loads a hub label index written by saveLabels() for this graph
+    public void loadLabels(String file) {
+        HubLabelIndex l = HubLabelIndex.read(file);
+        if (!l.matches(this.graph)) {
+            throw new IllegalArgumentException(file + " was built for a different graph");
+        }
+        this.labels = l;
+    }
+
+    // writes the hub label index, building it first if needed
+    public void saveLabels(String file) {
+        buildLabels();
+        this.labels.write(file);
+    }
+
+    // has a hub label index been built or loaded?
+    boolean hasLabels() {
+        return this.labels != null;
+    }
+
+    // label sizes and memory use of the hub label index, or null if there is none
+    public String labelReport() {
+        HubLabelIndex l = this.labels;
+        return (l == null) ? null : l.memoryReport();
+    }
+
+    // keeps the ancestors of recently queried vertices, up to capacity ancestors
+    // in all, so that length() and ancestor() intersect two cached sets instead
+    // of searching; replaces any existing cache
+    public void enableAncestorCache(long capacity) {
+        this.closures = new AncestorCache(capacity);
+    }
+
+    // size, hit, miss and eviction counts of the ancestor cache, or null if there is none
+    public String ancestorCacheReport() {
+        AncestorCache c = this.closures;
+        return (c == null) ? null : c.toString();
+    }
+
+    // a new engine over this graph grown to V vertices, with an edge from each
+    // synsets[k] to hypernyms[k]; this engine is left as it is, so queries in
+    // flight on it are not disturbed. Only the region the edges touch is
+    // revisited: a cycle must run through an added edge v->w, so it is found by
+    // searching the ancestors of w for v; the root can only move to an added
+    // vertex; the depth index and the ancestor cache are recomputed or dropped
+    // only for the tails of the edges, the added vertices and their descendants.
+    // The hub label index ranks vertices over the whole graph, so it is not
+    // carried over; call buildLabels() again to rebuild it.
+    public ShortestCommonAncestor addHypernyms(int V, int[] synsets, int[] hypernyms) {
+        if (synsets == null || hypernyms == null) {
+            throw new IllegalArgumentException("argument is null");
+        }
+        if (synsets.length != hypernyms.length) {
+            throw new IllegalArgumentException("synsets and hypernyms differ in length");
+        }
+        int n = synsets.length;
+        CompactDigraph G = this.graph.withEdges(V, synsets, hypernyms, n);
+
+        // an added edge closes a cycle iff its tail is already above its head
+        for (int k = 0; k < n; k++) {
+            if (isAncestor(G, synsets[k], hypernyms[k])) {
+                throw new IllegalArgumentException("hypernym edge " + synsets[k] + "->" + hypernyms[k]
+                        + " closes a cycle");
+            }
+        }
+
+        // the old root stays a root unless it gained a hypernym, and any added
+        // vertex without hypernyms is one as well
+        int r = -1;
+        int roots = 0;
+        if (G.outdegree(this.root) == 0) {
+            r = this.root;
+            roots++;
+        }
+        for (int v = this.graph.V(); v < V; v++) {
+            if (G.outdegree(v) == 0) {
+                r = v;
+                roots++;
+            }
+        }
+        if (roots != 1) {
+            throw new IllegalArgumentException("This isn't a rooted DAG");
+        }
+
+        // the vertices whose ancestors may have changed: the tails, the added
+        // vertices and everything below them
+        boolean[] changed = new boolean[V];
+        int[] below = new int[V];
+        int count = 0;
+        for (int k = 0; k < n; k++) {
+            if (!changed[synsets[k]]) {
+                changed[synsets[k]] = true;
+                below[count++] = synsets[k];
+            }
+        }
+        for (int v = this.graph.V(); v < V; v++) {
+            if (!changed[v]) {
+                changed[v] = true;
+                below[count++] = v;
+            }
+        }
+        for (int head = 0; head < count; head++) {
+            int v = below[head];
+            for (int i = 0, degree = G.indegree(v); i < degree; i++) {
+                int hyponym = G.reverseNeighbor(v, i);
+                if (!changed[hyponym]) {
+                    changed[hyponym] = true;
+                    below[count++] = hyponym;
+                }
+            }
+        }
+
+        ShortestCommonAncestor s = new ShortestCommonAncestor(G, r);
+        AncestorIndex i = this.index;
+        if (i != null) {
+            s.index = i.update(G, below, count);
+        }
+        AncestorCache c = this.closures;
+        if (c != null) {
+            s.closures = c.without(changed);
+        }
+        return s;
+    }
+
+    // is target an ancestor of v in G, or v itself? searches only above v
+    private static boolean isAncestor(CompactDigraph G, int target, int v) {
+        TraversalContext c = TraversalContext.forThread(0, G.V());
+        c.visit(v, 0);
+        c.enqueue(v);
+        while (c.queueSize() > 0) {
+            int x = c.dequeue();
+            if (x == target) {
+                return true;
+            }
+            for (int i = 0, degree = G.outdegree(x); i < degree; i++) {
+                int y = G.neighbor(x, i);
+                if (c.visit(y, 0)) {
+                    c.enqueue(y);
+                }
+            }
+        }
+        return false;
+    }
+
+    // the graph the engine answers queries over
+    CompactDigraph graph() {
+        return this.graph;
+    }
+
+    // throw an IllegalArgumentException unless 0 <= v < V
+    private void validateVertex(int v) {
+        if (v < 0 || v >= graph.V()) {
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (graph.V() - 1));
+        }
+    }
+
+    // runs one search from v and w, which yields both the length and the ancestor
+    private AncestorSearch search(int v, int w) {
+        validateVertex(v);
+        validateVertex(w);
+        AncestorSearch s = new AncestorSearch(this.graph, this.index, this.labels, this.closures);
+        s.search(v, w);
+        return s;
+    }
+
+    // throw an IllegalArgumentException unless the subset is non-empty and
+    // holds only vertices between 0 and V - 1
+    private void validateSubset(Iterable<Integer> subset) {
+        if (subset == null) {
+            throw new IllegalArgumentException("argument is null");
+        }
+        boolean empty = true;
+        for (Integer v : subset) {
+            if (v == null) {
+                throw new IllegalArgumentException("subset contains null");
+            }
+            validateVertex(v);
+            empty = false;
+        }
+        if (empty) {
+            throw new IllegalArgumentException("subset is empty");
+        }
+    }
+
+    // runs one multi-source search from all of A and all of B, which yields both
+    // the length and the ancestor
+    private AncestorSearch search(Iterable<Integer> subsetA, Iterable<Integer> subsetB) {
+        validateSubset(subsetA);
+        validateSubset(subsetB);
+        AncestorSearch s = new AncestorSearch(this.graph, this.index, this.labels, this.closures);
+        s.search(subsetA, subsetB);
+        return s;
+    }
+
+    // a search engine that shares this graph and its indexes; the caller is
+    // trusted to pass valid vertices
+    AncestorSearch searcher() {
+        return new AncestorSearch(this.graph, this.index, this.labels, this.closures);
+    }
+
+    // length of shortest ancestral path between v and w
+    public int length(int v, int w) {
+        long start = Metrics.start();
+        int length = search(v, w).length();
+        Metrics.stop(Metric.ANCESTOR_LATENCY, start);
+        return length;
+    }
+
+    // a shortest common ancestor of vertices v and w
+    public int ancestor(int v, int w) {
+        long start = Metrics.start();
+        int ancestor = search(v, w).ancestor();
+        Metrics.stop(Metric.ANCESTOR_LATENCY, start);
+        return ancestor;
+    }
+
+    // length of shortest ancestral path of vertex subsets A and B
+    public int lengthSubset(Iterable<Integer> subsetA, Iterable<Integer> subsetB) {
+        long start = Metrics.start();
+        int length = search(subsetA, subsetB).length();
+        Metrics.stop(Metric.ANCESTOR_LATENCY, start);
+        return length;
+    }
+
+    // a shortest common ancestor of vertex subsets A and B
+    public int ancestorSubset(Iterable<Integer> subsetA, Iterable<Integer> subsetB) {
+        long start = Metrics.start();
+        int ancestor = search(subsetA, subsetB).ancestor();
+        Metrics.stop(Metric.ANCESTOR_LATENCY, start);
+        return ancestor;
+    }
+
+    // unit testing (required), given by Professor WU
+    //copied testing for now, NEED to CHECK, not checked yet !!!
+    public static void main(String[] args) throws FileNotFoundException {
+        File inFile = new File("digraph1.txt");
+        Scanner input = new Scanner(inFile);
+        Digraph G = new Digraph(input);
+
+        ShortestCommonAncestor sca = new ShortestCommonAncestor(G);
+        Scanner input1 = new Scanner(System.in);
+        while (input1.hasNext()) {
+            int v = input1.nextInt();
+            int w = input1.nextInt();
+            AncestorSearch s = sca.search(v, w);
+            int length   = s.length();
+            int ancestor = s.ancestor();
+            System.out.printf("length = %d, ancestor = %d\n", length, ancestor);
+        }
+
+    }
+
+}
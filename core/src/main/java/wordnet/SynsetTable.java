@@ -0,0 +1,244 @@
+/******************************************************************************
+ *  Table from each synset id to the text of the synset, packed as UTF-8.
+ ******************************************************************************/
+
+package wordnet;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * The SynsetTable class maps every synset id to its text, the space-separated
+ * list of its nouns (the second field of synsets.txt).
+ * <p>
+ * This implementation packs the text of all synsets into one byte array as
+ * UTF-8, and keeps the start and length of the slice of each id in one long
+ * array, indexed by id. It replaces a HashMap from Integer to String: the whole
+ * table is three objects, whatever the number of synsets, so the garbage
+ * collector has next to nothing to trace. Looking up an id takes constant time;
+ * only get() allocates, for the String it returns. The table is immutable once
+ * built.
+ */
+final class SynsetTable {
+    private final byte[] bytes; // the text of every synset, as UTF-8
+    private final long[] slices; // start << 32 | length of the text of each id, or -1
+    private final int size; // number of ids with a text
+
+    private SynsetTable(byte[] bytes, long[] slices, int size) {
+        this.bytes = bytes;
+        this.slices = slices;
+        this.size = size;
+    }
+
+    /**
+     * Returns the number of synsets.
+     *
+     * @return the number of ids that have a text
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Is there a synset with this id?
+     *
+     * @param id the id
+     * @return true if the id has a text
+     */
+    boolean contains(int id) {
+        return id >= 0 && id < slices.length && slices[id] >= 0;
+    }
+
+    /**
+     * Returns the text of a synset.
+     *
+     * @param id the id
+     * @return the nouns of the synset, separated by spaces, or null if there is
+     *         no synset with this id
+     */
+    String get(int id) {
+        if (!contains(id))
+            return null;
+        int start = (int) (slices[id] >>> 32);
+        return Utf8.decode(bytes, start, start + (int) slices[id]);
+    }
+
+    /**
+     * Returns the packed text of all synsets. It must not be modified.
+     *
+     * @return the bytes that from() and to() index into
+     */
+    byte[] bytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns where the text of a synset starts in bytes().
+     *
+     * @param id the id of a synset that contains() accepts
+     * @return the index of its first byte
+     */
+    int from(int id) {
+        return (int) (slices[id] >>> 32);
+    }
+
+    /**
+     * Returns where the text of a synset ends in bytes().
+     *
+     * @param id the id of a synset that contains() accepts
+     * @return one past the index of its last byte
+     */
+    int to(int id) {
+        return from(id) + (int) slices[id];
+    }
+
+    /**
+     * Returns one more than the largest id.
+     *
+     * @return the length of the range of ids
+     */
+    int range() {
+        return slices.length;
+    }
+
+    /**
+     * Writes this table, so that read(ByteBuffer) can restore it.
+     *
+     * @param out the destination
+     * @throws IOException if out cannot be written
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+        out.writeInt(slices.length);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+        for (long slice : slices)
+            out.writeLong(slice);
+    }
+
+    /**
+     * Reads a table written by write(DataOutput), advancing the position of buf
+     * past it.
+     *
+     * @param buf the source, positioned at the start of the table
+     * @return the table
+     * @throws IllegalArgumentException if buf does not hold a valid table
+     */
+    static SynsetTable read(ByteBuffer buf) {
+        int size = buf.getInt();
+        int range = buf.getInt();
+        int length = buf.getInt();
+        if (size < 0 || range < size || length < 0 || (long) length + 8L * range > buf.remaining())
+            throw new IllegalArgumentException("invalid synset table header");
+
+        byte[] bytes = new byte[length];
+        buf.get(bytes);
+        long[] slices = new long[range];
+        buf.asLongBuffer().get(slices);
+        buf.position(buf.position() + 8 * range);
+
+        int present = 0;
+        for (long slice : slices) {
+            if (slice < 0)
+                continue;
+            long start = slice >>> 32;
+            if (start + (int) slice > length || (int) slice < 0)
+                throw new IllegalArgumentException("invalid synset table slice");
+            present++;
+        }
+        if (present != size)
+            throw new IllegalArgumentException("invalid synset table size");
+        return new SynsetTable(bytes, slices, size);
+    }
+
+    /**
+     * The Builder class collects the text of the synsets in any order of ids;
+     * a later text for the same id replaces the earlier one.
+     */
+    static final class Builder {
+        private byte[] bytes = new byte[1 << 12];
+        private int length; // bytes used
+        private long[] slices = new long[16];
+        private int range; // one more than the largest id added
+        private int size;
+
+        /**
+         * Initializes an empty builder.
+         */
+        Builder() { }
+
+        /**
+         * Initializes a builder that starts with a copy of the synsets of base,
+         * leaving base as it is.
+         *
+         * @param base the synsets to start with
+         */
+        Builder(SynsetTable base) {
+            this.bytes = Arrays.copyOf(base.bytes, Math.max(16, base.bytes.length + base.bytes.length / 8));
+            this.length = base.bytes.length;
+            this.slices = Arrays.copyOf(base.slices, Math.max(16, base.slices.length + base.slices.length / 8));
+            this.range = base.slices.length;
+            this.size = base.size;
+        }
+
+        /**
+         * Adds the text of a synset.
+         *
+         * @param id   the id
+         * @param text the nouns of the synset, separated by spaces
+         */
+        void add(int id, String text) {
+            byte[] b = text.getBytes(StandardCharsets.UTF_8);
+            int start = reserve(id, b.length);
+            System.arraycopy(b, 0, bytes, start, b.length);
+        }
+
+        /**
+         * Adds the text of a synset, given as UTF-8 bytes in a mapped file.
+         *
+         * @param id   the id
+         * @param buf  the file
+         * @param from the index of the first byte of the text
+         * @param to   one past the index of the last byte
+         */
+        void add(int id, MappedByteBuffer buf, int from, int to) {
+            int start = reserve(id, to - from);
+            for (int p = from; p < to; p++)
+                bytes[start++] = buf.get(p);
+        }
+
+        // makes room for n bytes of text for id, and returns where they go
+        private int reserve(int id, int n) {
+            if (id < 0)
+                throw new IllegalArgumentException("synset id " + id + " is negative");
+            if (id >= slices.length)
+                slices = Arrays.copyOf(slices, Math.max(id + 1, 2 * slices.length));
+            if (id >= range) {
+                Arrays.fill(slices, range, id, -1);
+                range = id + 1;
+            }
+            else if (slices[id] >= 0)
+                size--; // replaced
+            if (bytes.length - length < n)
+                bytes = Arrays.copyOf(bytes, Math.max(length + n, 2 * bytes.length));
+            int start = length;
+            length += n;
+            slices[id] = ((long) start << 32) | n;
+            size++;
+            return start;
+        }
+
+        /**
+         * Returns the table of the synsets added so far.
+         *
+         * @return the table
+         */
+        SynsetTable build() {
+            return new SynsetTable(Arrays.copyOf(bytes, length), Arrays.copyOf(slices, range), size);
+        }
+    }
+}
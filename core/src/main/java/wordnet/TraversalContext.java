@@ -0,0 +1,166 @@
+/******************************************************************************
+ *  Reusable scratch state for breadth-first searches.
+ ******************************************************************************/
+
+package wordnet;
+
+import java.util.Arrays;
+
+/**
+ * The TraversalContext class holds the scratch state of one breadth-first
+ * search: which vertices have been marked, their distance from the sources,
+ * and the queue of vertices still to expand. It is meant to be reused across
+ * searches by one thread, so that a search only pays for the vertices it
+ * touches instead of clearing θ(V) arrays first.
+ * <p>
+ * Marks are stamped with a generation number. Starting a search increments
+ * the generation, which unmarks every vertex in θ(1) time; the mark array is
+ * only cleared when the counter wraps around. Distances are only meaningful
+ * for vertices marked in the current generation. The queue is a ring buffer of
+ * primitive ints that doubles when it fills up.
+ * <p>
+ * A context is not thread-safe. Use forThread(int, int) to get the calling
+ * thread's own contexts.
+ */
+final class TraversalContext {
+    // two slots, so one thread can run both sides of an AncestorSearch
+    private static final int SLOTS = 2;
+    private static final ThreadLocal<TraversalContext[]> CONTEXTS =
+            ThreadLocal.withInitial(() -> new TraversalContext[SLOTS]);
+
+    private int[] mark; // mark[v] == generation iff v is marked in this search
+    private int[] dist; // dist[v] = distance of v from the sources, if marked
+    private int generation;
+
+    private int[] queue; // ring buffer of vertices to expand
+    private int head; // index of the first vertex in the queue
+    private int size; // number of vertices in the queue
+
+    /**
+     * Initializes a context for digraphs with up to V vertices.
+     *
+     * @param V the number of vertices
+     */
+    TraversalContext(int V) {
+        this.mark = new int[V];
+        this.dist = new int[V];
+        this.generation = 0;
+        this.queue = new int[16];
+    }
+
+    /**
+     * Returns one of the calling thread's contexts, ready for a new search over a
+     * digraph with V vertices.
+     *
+     * @param slot which of the thread's contexts to use, 0 or 1
+     * @param V    the number of vertices
+     * @return the context, with no vertex marked and an empty queue
+     */
+    static TraversalContext forThread(int slot, int V) {
+        TraversalContext[] contexts = CONTEXTS.get();
+        TraversalContext c = contexts[slot];
+        if (c == null || c.mark.length < V) {
+            c = new TraversalContext(V);
+            contexts[slot] = c;
+        }
+        c.reset();
+        return c;
+    }
+
+    /**
+     * Unmarks every vertex and empties the queue.
+     */
+    void reset() {
+        generation++;
+        if (generation == 0) {
+            // the counter wrapped, so old stamps could be mistaken for new ones
+            Arrays.fill(mark, 0);
+            generation = 1;
+        }
+        head = 0;
+        size = 0;
+    }
+
+    // moves the generation counter, so that tests can reach the wrap-around
+    // without 2^32 searches; the next reset() starts from generation + 1
+    void setGeneration(int generation) {
+        this.generation = generation;
+    }
+
+    /**
+     * Marks v at distance d unless it is already marked.
+     *
+     * @param v the vertex
+     * @param d the distance of v from the sources
+     * @return true if v was not marked before
+     */
+    boolean visit(int v, int d) {
+        if (mark[v] == generation)
+            return false;
+        mark[v] = generation;
+        dist[v] = d;
+        return true;
+    }
+
+    /**
+     * Is v marked in the current search?
+     *
+     * @param v the vertex
+     * @return true if v is marked
+     */
+    boolean isMarked(int v) {
+        return mark[v] == generation;
+    }
+
+    /**
+     * Returns the distance of v from the sources.
+     *
+     * @param v the vertex
+     * @return the distance of v, or -1 if v is not marked
+     */
+    int dist(int v) {
+        return mark[v] == generation ? dist[v] : -1;
+    }
+
+    /**
+     * Adds v to the end of the queue.
+     *
+     * @param v the vertex
+     */
+    void enqueue(int v) {
+        if (size == queue.length) {
+            // unroll the ring into a buffer twice as large
+            int[] larger = new int[2 * queue.length];
+            for (int i = 0; i < size; i++)
+                larger[i] = queue[(head + i) & (queue.length - 1)];
+            queue = larger;
+            head = 0;
+        }
+        queue[(head + size) & (queue.length - 1)] = v;
+        size++;
+    }
+
+    /**
+     * Removes and returns the vertex at the front of the queue.
+     *
+     * @return the vertex at the front of the queue
+     * @throws IllegalStateException if the queue is empty
+     */
+    int dequeue() {
+        if (size == 0)
+            throw new IllegalStateException("queue underflow");
+        int v = queue[head];
+        head = (head + 1) & (queue.length - 1);
+        size--;
+        return v;
+    }
+
+    /**
+     * Returns the number of vertices in the queue.
+     *
+     * @return the number of vertices in the queue
+     */
+    int queueSize() {
+        return size;
+    }
+}
@@ -0,0 +1,186 @@
+/******************************************************************************
+ *  Hashing and comparison of UTF-8 byte slices against char sequences.
+ ******************************************************************************/
+
+package wordnet;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The Utf8 class works on strings stored as slices of UTF-8 bytes, so that a
+ * String or other CharSequence can be looked up among them without encoding it
+ * into a new array. Each char sequence is encoded on the fly, exactly as
+ * String.getBytes(UTF_8) would encode it: a surrogate pair becomes one 4-byte
+ * code point and an unpaired surrogate becomes '?'. No method allocates, except
+ * decode().
+ */
+final class Utf8 {
+    private static final int FNV_OFFSET = 0x811C9DC5; // 32-bit FNV-1a parameters
+    private static final int FNV_PRIME = 0x01000193;
+
+    private Utf8() { }
+
+    /**
+     * Returns the FNV-1a hash of the bytes b[from .. to).
+     *
+     * @param b    the bytes
+     * @param from the first byte
+     * @param to   one past the last byte
+     * @return the hash
+     */
+    static int hash(byte[] b, int from, int to) {
+        int h = FNV_OFFSET;
+        for (int p = from; p < to; p++)
+            h = (h ^ (b[p] & 0xFF)) * FNV_PRIME;
+        return h;
+    }
+
+    /**
+     * Returns the FNV-1a hash of the UTF-8 encoding of s, equal to
+     * hash(bytes, 0, bytes.length) for the encoded bytes.
+     *
+     * @param s the char sequence
+     * @return the hash
+     */
+    static int hash(CharSequence s) {
+        int h = FNV_OFFSET;
+        int n = s.length();
+        for (int i = 0; i < n; ) {
+            int cp = codePointAt(s, i, n);
+            i += (cp >= 0x10000) ? 2 : 1;
+            for (int k = 0, length = length(cp); k < length; k++)
+                h = (h ^ byteAt(cp, length, k)) * FNV_PRIME;
+        }
+        return h;
+    }
+
+    /**
+     * Is the UTF-8 encoding of s exactly the bytes b[from .. to)?
+     *
+     * @param b    the bytes
+     * @param from the first byte
+     * @param to   one past the last byte
+     * @param s    the char sequence
+     * @return true if the encoding of s equals the slice
+     */
+    static boolean equals(byte[] b, int from, int to, CharSequence s) {
+        int n = s.length();
+        int p = from;
+        for (int i = 0; i < n; ) {
+            int cp = codePointAt(s, i, n);
+            i += (cp >= 0x10000) ? 2 : 1;
+            int length = length(cp);
+            if (to - p < length)
+                return false;
+            for (int k = 0; k < length; k++) {
+                if ((b[p++] & 0xFF) != byteAt(cp, length, k))
+                    return false;
+            }
+        }
+        return p == to;
+    }
+
+    /**
+     * Compares the string in b[from .. to), cut to the length of prefix, with
+     * prefix, char by char as String.compareTo does. The slice must be valid
+     * UTF-8. Over slices in sorted order the result never decreases, so the
+     * slices that start with prefix, which compare equal to it, are adjacent.
+     *
+     * @param b      the bytes
+     * @param from   the first byte
+     * @param to     one past the last byte
+     * @param prefix the prefix
+     * @return a negative number, zero or a positive number as the cut string
+     *         is less than, equal to or greater than prefix
+     */
+    static int comparePrefix(byte[] b, int from, int to, CharSequence prefix) {
+        int n = prefix.length();
+        int p = from;
+        int low = 0; // low surrogate still to compare, or 0
+        for (int i = 0; i < n; i++) {
+            char c;
+            if (low != 0) {
+                c = (char) low;
+                low = 0;
+            }
+            else if (p == to)
+                return -1; // the string is a proper prefix of prefix
+            else {
+                int lead = b[p] & 0xFF;
+                int length = (lead < 0x80) ? 1 : (lead < 0xE0) ? 2 : (lead < 0xF0) ? 3 : 4;
+                int cp = (length == 1) ? lead : lead & (0x7F >>> length);
+                for (int k = 1; k < length; k++)
+                    cp = (cp << 6) | (b[p + k] & 0x3F);
+                p += length;
+                if (cp >= 0x10000) {
+                    c = Character.highSurrogate(cp);
+                    low = Character.lowSurrogate(cp);
+                }
+                else
+                    c = (char) cp;
+            }
+            if (c != prefix.charAt(i))
+                return c - prefix.charAt(i);
+        }
+        return 0;
+    }
+
+    /**
+     * Compares the string in b[from .. to) with s, char by char as
+     * String.compareTo does. The slice must be valid UTF-8.
+     *
+     * @param b    the bytes
+     * @param from the first byte
+     * @param to   one past the last byte
+     * @param s    the char sequence
+     * @return a negative number, zero or a positive number as the string is
+     *         less than, equal to or greater than s
+     */
+    static int compare(byte[] b, int from, int to, CharSequence s) {
+        int c = comparePrefix(b, from, to, s);
+        if (c != 0)
+            return c;
+        return equals(b, from, to, s) ? 0 : 1; // s is a proper prefix of the string
+    }
+
+    /**
+     * Decodes the bytes b[from .. to) into a String.
+     *
+     * @param b    the bytes
+     * @param from the first byte
+     * @param to   one past the last byte
+     * @return the decoded string
+     */
+    static String decode(byte[] b, int from, int to) {
+        return new String(b, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    // the code point at s[i], with an unpaired surrogate read as '?'
+    private static int codePointAt(CharSequence s, int i, int n) {
+        char c = s.charAt(i);
+        if (!Character.isSurrogate(c))
+            return c;
+        if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1)))
+            return Character.toCodePoint(c, s.charAt(i + 1));
+        return '?';
+    }
+
+    // number of bytes in the UTF-8 encoding of cp
+    private static int length(int cp) {
+        if (cp < 0x80)
+            return 1;
+        if (cp < 0x800)
+            return 2;
+        return (cp < 0x10000) ? 3 : 4;
+    }
+
+    // the k-th of the length bytes that encode cp, as an unsigned value
+    private static int byteAt(int cp, int length, int k) {
+        if (length == 1)
+            return cp;
+        int shift = 6 * (length - 1 - k);
+        if (k > 0)
+            return 0x80 | ((cp >>> shift) & 0x3F);
+        return ((0xF00 >>> length) & 0xFF) | (cp >>> shift);
+    }
+}
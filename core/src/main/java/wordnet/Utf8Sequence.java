@@ -0,0 +1,72 @@
+/******************************************************************************
+ *  Read-only CharSequence view of a slice of UTF-8 bytes.
+ ******************************************************************************/
+
+package wordnet;
+
+/**
+ * The Utf8Sequence class presents a string stored as a slice of UTF-8 bytes as
+ * a CharSequence, without copying the bytes.
+ * <p>
+ * A slice of ASCII bytes, which holds every noun of the English WordNet, is
+ * read in place: length() and charAt() take constant time, and a subsequence
+ * is another view of the same bytes. Any other slice is decoded into a String
+ * the first time it is read as chars, and that String answers from then on.
+ * The bytes must not change while the view is in use. Like CharSequence, the
+ * class does not define equals() or hashCode() by content; call toString() for
+ * a value to compare or keep.
+ */
+final class Utf8Sequence implements CharSequence {
+    private final byte[] bytes;
+    private final int from, to; // the slice, bytes[from .. to)
+    private final boolean ascii; // one char per byte?
+    private String decoded; // the decoded slice, once it is needed
+
+    Utf8Sequence(byte[] bytes, int from, int to) {
+        this.bytes = bytes;
+        this.from = from;
+        this.to = to;
+        boolean ascii = true;
+        for (int p = from; p < to && ascii; p++)
+            ascii = bytes[p] >= 0;
+        this.ascii = ascii;
+    }
+
+    @Override
+    public int length() {
+        return ascii ? to - from : decoded().length();
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (!ascii)
+            return decoded().charAt(index);
+        if (index < 0 || index >= to - from)
+            throw new IndexOutOfBoundsException("index " + index + " is not between 0 and " + (to - from - 1));
+        return (char) bytes[from + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (!ascii)
+            return decoded().subSequence(start, end);
+        if (start < 0 || start > end || end > to - from)
+            throw new IndexOutOfBoundsException("range [" + start + ", " + end + ") is not within [0, " + (to - from) + ")");
+        return new Utf8Sequence(bytes, from + start, from + end);
+    }
+
+    @Override
+    public String toString() {
+        return decoded();
+    }
+
+    // the slice as a String, decoded on first use
+    private String decoded() {
+        String s = decoded;
+        if (s == null) {
+            s = Utf8.decode(bytes, from, to);
+            decoded = s;
+        }
+        return s;
+    }
+}
@@ -0,0 +1,474 @@
+package wordnet;
+
+import java.util.*;
+import java.io.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// A WordNet is safe to share between threads. The synsets, the nouns and the
+// graph are final and never change. The engine, the ancestors of the last
+// distances() source and the result cache are held in volatile fields: each is
+// built in full and then published with a single write, the engine under a
+// lock so it is built only once. enableCache() and disableCache() only swap
+// the cache field, so a query in flight finishes with the cache it read.
+// Queries keep their scratch state per thread, and the result cache is
+// striped across its own locks.
+//
+// The synsets and nouns are packed into a few byte and int arrays rather than
+// maps of Strings, so the heap holds a handful of objects for them and looking
+// up a noun allocates nothing.
+public class WordNet {
+    private final SynsetTable idtonoun; // the text of every synset, by id
+    private final NounIndex nountoids; // sorted nouns with all of their synset ids
+    private final CompactDigraph network; // frozen digraph acting to store word network
+    private volatile ShortestCommonAncestor sca; // validated engine over network, built lazily
+    private volatile SourceAncestors lastSource; // ancestors of the last distances() source, or null
+    private volatile PairCache cache; // results of distance() and sca() by noun pair, or null
+
+    // constructor takes the name of the two input files, read as UTF-8 like load()
+    public WordNet(String synsets, String hypernyms) {
+        SynsetTable.Builder table = new SynsetTable.Builder();
+
+        long start = Metrics.start();
+        try {
+            File f = new File(synsets);
+            Scanner sc = new Scanner(f, "UTF-8");
+            while (sc.hasNextLine()) {
+                String[] elements = sc.nextLine().split(",");
+                int id = Integer.parseInt(elements[0]);
+                table.add(id, elements[1]);
+            }
+            sc.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        Metrics.stop(Metric.LOAD_SYNSETS, start);
+        this.idtonoun = table.build();
+
+        // every noun with all of its senses
+        this.nountoids = NounIndex.build(idtonoun);
+
+        Digraph builder = new Digraph(idtonoun.size());
+
+        start = Metrics.start();
+        try {
+            File f = new File(hypernyms);
+            Scanner sc = new Scanner(f, "UTF-8");
+            while (sc.hasNextLine()) {
+                String[] elements = sc.nextLine().split(",");
+                int id = Integer.parseInt(elements[0]);
+                int w;
+                for (int i = 1; i < elements.length; i++) {
+                    w = Integer.parseInt(elements[i]);
+                    builder.addEdge(id, w);
+                }
+            }
+            sc.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        Metrics.stop(Metric.LOAD_HYPERNYMS, start);
+
+        // freeze the hypernym graph once it is fully built
+        start = Metrics.start();
+        this.network = new CompactDigraph(builder);
+        Metrics.stop(Metric.LOAD_GRAPH, start);
+    }
+
+    // builds a WordNet from data that has already been read
+    private WordNet(SynsetTable idtonoun, NounIndex nountoids, CompactDigraph network) {
+        this.idtonoun = idtonoun;
+        this.nountoids = nountoids;
+        this.network = network;
+    }
+
+    // fast loader: memory-maps the two input files and parses them from bytes,
+    // building the hypernym graph in two passes instead of through a Digraph
+    public static WordNet load(String synsets, String hypernyms) {
+        if (synsets == null || hypernyms == null) {
+            throw new IllegalArgumentException("argument is null");
+        }
+        SynsetTable idtonoun = WordNetLoader.readSynsets(synsets);
+        CompactDigraph network = WordNetLoader.readHypernyms(hypernyms, idtonoun.size());
+        return new WordNet(idtonoun, NounIndex.build(idtonoun), network);
+    }
+
+    // like load(), but parses hypernyms.txt and builds the graph on the threads
+    // of pool, for taxonomies far larger than WordNet
+    public static WordNet load(String synsets, String hypernyms, ForkJoinPool pool) {
+        if (synsets == null || hypernyms == null || pool == null) {
+            throw new IllegalArgumentException("argument is null");
+        }
+        SynsetTable idtonoun = WordNetLoader.readSynsets(synsets);
+        CompactDigraph network = ParallelGraphBuilder.readHypernyms(hypernyms, idtonoun.size(), pool);
+        return new WordNet(idtonoun, NounIndex.build(idtonoun), network);
+    }
+
+    // writes the fully built state, including the root found by validating the
+    // graph, to a binary snapshot that open() can map back in; if the engine
+    // has hub labels, they are written next to it, to labels(snapshot)
+    public void save(String snapshot) {
+        if (snapshot == null) {
+            throw new IllegalArgumentException("argument is null");
+        }
+        int root;
+        try {
+            root = engine().root();
+        } catch (IllegalArgumentException e) {
+            root = -1; // not a rooted DAG; sca() will report it
+        }
+        new WordNetSnapshot(this.idtonoun, this.nountoids, this.network, root).write(snapshot);
+        ShortestCommonAncestor engine = this.sca;
+        if (engine != null && engine.isOver(this.network) && engine.hasLabels()) {
+            engine.saveLabels(labels(snapshot));
+        }
+    }
+
+    // the name of the hub label file that save() writes next to a snapshot
+    public static String labels(String snapshot) {
+        if (snapshot == null) {
+            throw new IllegalArgumentException("argument is null");
+        }
+        return snapshot + ".labels";
+    }
+
+    // a new WordNet with the synsets and hypernym edges of update added; this
+    // WordNet is left as it is (copy-on-write), so readers that hold it are
+    // neither blocked nor disturbed. The graph and the noun index are copied
+    // with the additions spliced in, and the validated engine is carried over:
+    // cycles are looked for only above the added edges, and the root, depths
+    // and cached ancestors are recomputed only below them. The result cache,
+    // if any, starts empty, since noun positions shift when nouns are added.
+    public WordNet update(WordNetUpdate update) {
+        if (update == null) {
+            throw new IllegalArgumentException("argument is null");
+        }
+        ShortestCommonAncestor engine = engine(); // updates require a rooted DAG
+        long start = Metrics.start();
+
+        // the added synsets take the ids that follow on from this WordNet
+        int V = this.network.V();
+        int k = update.synsets();
+        SynsetTable.Builder table = new SynsetTable.Builder(this.idtonoun);
+        for (int i = 0; i < k; i++) {
+            int id = update.id(i);
+            if (id < V || id >= V + k) {
+                throw new IllegalArgumentException("synset " + id + " is not between " + V + " and " + (V + k - 1));
+            }
+            table.add(id, update.nouns(i));
+        }
+        SynsetTable synsets = table.build();
+        if (synsets.size() != V + k) {
+            throw new IllegalArgumentException("a synset id is added twice");
+        }
+
+        ShortestCommonAncestor next = engine.addHypernyms(V + k, update.tails(), update.heads());
+        WordNet w = new WordNet(synsets, this.nountoids.add(synsets, V), next.graph());
+        w.sca = next;
+        PairCache c = this.cache;
+        if (c != null) {
+            w.cache = new PairCache(c.capacity());
+        }
+        Metrics.stop(Metric.UPDATE, start);
+        return w;
+    }
+
+    // reopens a snapshot written by save(), without parsing or revalidating;
+    // the graph is served from the mapped file, and the checksum is verified.
+    // Hub labels found next to the snapshot are used if they were built for
+    // its graph, and ignored otherwise
+    public static WordNet open(String snapshot) {
+        return open(snapshot, true);
+    }
+
+    // like open(snapshot), but skips the checksum when verify is false, so only
+    // the pages that queries touch are read from the graph part of the file.
+    // The root, the graph offsets and the noun synsets are still checked, but
+    // the hypernym targets are trusted: a damaged file may then fail inside a
+    // query rather than here. Hub labels next to the snapshot are still
+    // checked against the whole graph
+    public static WordNet open(String snapshot, boolean verify) {
+        WordNet w = open(snapshot, verify, null);
+        ShortestCommonAncestor engine = w.sca;
+        if (engine != null && new File(labels(snapshot)).isFile()) {
+            try {
+                engine.loadLabels(labels(snapshot));
+            } catch (IllegalArgumentException e) {
+                // stale or damaged; queries search instead
+            }
+        }
+        return w;
+    }
+
+    // like open(snapshot, verify), with the hub labels of the named file, which
+    // must have been built for the graph of the snapshot; labels may be null
+    public static WordNet open(String snapshot, boolean verify, String labels) {
+        if (snapshot == null) {
+            throw new IllegalArgumentException("argument is null");
+        }
+        WordNetSnapshot s = WordNetSnapshot.read(snapshot, verify);
+        WordNet w = new WordNet(s.idtonoun, s.nountoids, s.network);
+        if (s.root >= 0) {
+            w.sca = new ShortestCommonAncestor(s.network, s.root);
+        }
+        if (labels != null) {
+            w.loadLabels(labels); // requires a rooted DAG, like buildLabels()
+        }
+        return w;
+    }
+
+    // the validated engine over the current graph, built on first use and
+    // shared by all threads; it is rebuilt only if the graph has been replaced
+    private ShortestCommonAncestor engine() {
+        ShortestCommonAncestor s = this.sca;
+        if (s == null || !s.isOver(this.network)) {
+            synchronized (this) {
+                s = this.sca;
+                if (s == null || !s.isOver(this.network)) {
+                    s = new ShortestCommonAncestor(this.network);
+                    this.sca = s;
+                }
+            }
+        }
+        return s;
+    }
+
+    // the set of all WordNet nouns
+    public Iterable<String> nouns() {
+        return this.nountoids.nouns();
+    }
+
+    // every WordNet noun in sorted order, as views of the packed nouns rather
+    // than copies; the stream is sized and splits evenly when run in parallel
+    public Stream<CharSequence> nounStream() {
+        return StreamSupport.stream(this.nountoids.spliterator(0, this.nountoids.size()), false);
+    }
+
+    // the WordNet nouns that start with prefix, in sorted order; the range is
+    // found by binary search, so nothing before or after it is visited
+    public Stream<CharSequence> nounsWithPrefix(CharSequence prefix) {
+        if (prefix == null) {
+            throw new IllegalArgumentException("argument is null");
+        }
+        int lo = this.nountoids.first(prefix);
+        int hi = this.nountoids.last(prefix);
+        return StreamSupport.stream(this.nountoids.spliterator(lo, hi), false);
+    }
+
+    // is the word a WordNet noun?
+    public boolean isNoun(String word) {
+        if (word == null) {
+            throw new IllegalArgumentException("argument is null");
+        }
+        return this.nountoids.find(word) >= 0;
+    }
+
+    // position of the noun in the noun index
+    private int lookup(String noun) {
+        if (noun == null) {
+            throw new IllegalArgumentException("argument is null");
+        }
+        int i = this.nountoids.find(noun);
+        if (i < 0) {
+            throw new IllegalArgumentException("Both nouns must be in the network");
+        }
+        return i;
+    }
+
+    // packed length and ancestor of a shortest ancestral path between any sense
+    // of noun1 and any sense of noun2; a cached result is returned without a search.
+    // The search runs from the noun with the smaller position, so that the
+    // ancestor chosen among ties is the same both ways, cached or not
+    private long query(String noun1, String noun2) {
+        int i = lookup(noun1);
+        int j = lookup(noun2);
+        if (i > j) {
+            int t = i;
+            i = j;
+            j = t;
+        }
+        PairCache c = this.cache;
+        long key = PairCache.key(i, j);
+        if (c != null) {
+            long cached = c.get(key);
+            if (cached != PairCache.ABSENT) {
+                return cached;
+            }
+        }
+
+        // answers from the labels, index or ancestor cache of the engine if it
+        // has them, otherwise searches from every sense of both nouns at once
+        AncestorSearch s = searcher();
+        int[] ids = this.nountoids.synsets();
+        s.search(ids, this.nountoids.from(i), this.nountoids.to(i), ids, this.nountoids.from(j), this.nountoids.to(j));
+        long result = (s.length() < 0) ? -1 : ((long) s.length() << 32) | s.ancestor();
+        if (c != null) {
+            c.put(key, result);
+        }
+        return result;
+    }
+
+    // the searcher of the engine if it exists; distances need no rooted DAG, so
+    // one is not built just for them
+    private AncestorSearch searcher() {
+        ShortestCommonAncestor engine = this.sca;
+        return (engine != null && engine.isOver(this.network))
+                ? engine.searcher() : new AncestorSearch(this.network);
+    }
+
+    // builds the depth and lowest-common-ancestor index of the engine, so that
+    // distance() and sca() look up nouns whose senses all have a single chain
+    // of hypernyms instead of searching; it is carried over by update()
+    public void buildIndex() {
+        engine().buildIndex();
+    }
+
+    // builds the hub label index of the engine, after which distance() and
+    // sca() merge the labels of every pair of senses instead of searching;
+    // update() does not carry it over
+    public void buildLabels() {
+        engine().buildLabels();
+    }
+
+    // loads a hub label index written by saveLabels() for this graph
+    public void loadLabels(String file) {
+        if (file == null) {
+            throw new IllegalArgumentException("argument is null");
+        }
+        engine().loadLabels(file);
+    }
+
+    // writes the hub label index of the engine, building it first if needed
+    public void saveLabels(String file) {
+        if (file == null) {
+            throw new IllegalArgumentException("argument is null");
+        }
+        engine().saveLabels(file);
+    }
+
+    // keeps the ancestors of recently queried synsets, up to capacity ancestors
+    // in all, so that distance() and sca() meet the cached sets of every pair
+    // of senses instead of searching; it is carried over by update()
+    public void enableAncestorCache(long capacity) {
+        engine().enableAncestorCache(capacity);
+    }
+
+    // keeps the results of up to capacity noun pairs, so that repeated distance()
+    // and sca() queries do not search again; replaces any existing cache
+    public void enableCache(int capacity) {
+        this.cache = new PairCache(capacity);
+    }
+
+    // drops the result cache and its counters
+    public void disableCache() {
+        this.cache = null;
+    }
+
+    // size, hit, miss and eviction counts of the result cache
+    public String cacheStats() {
+        PairCache c = this.cache;
+        return (c == null) ? "cache disabled" : c.toString();
+    }
+
+    // every ancestor of every sense of the noun, with its distance; one search
+    // that can then be met with the ancestors of any number of other nouns
+    AncestorSet ancestors(String noun) {
+        int i = lookup(noun);
+        return AncestorSet.of(this.network, this.nountoids.synsets(), this.nountoids.from(i), this.nountoids.to(i));
+    }
+
+    // distances from one source noun to a batch of target nouns: the ancestors
+    // of the source are collected once (and kept for the next call with the same
+    // source), then each target only walks up its own ancestors against them
+    public int[] distances(String source, String[] targets) {
+        if (targets == null) {
+            throw new IllegalArgumentException("argument is null");
+        }
+        SourceAncestors cached = this.lastSource;
+        AncestorSet from;
+        if (cached != null && cached.noun.equals(source)) {
+            from = cached.ancestors;
+        } else {
+            from = ancestors(source);
+            this.lastSource = new SourceAncestors(source, from);
+        }
+
+        int[] ids = this.nountoids.synsets();
+        int[] distances = new int[targets.length];
+        for (int k = 0; k < targets.length; k++) {
+            int j = lookup(targets[k]);
+            long m = from.meet(this.network, ids, this.nountoids.from(j), this.nountoids.to(j));
+            distances[k] = (m < 0) ? -1 : (int) (m >>> 32);
+        }
+        return distances;
+    }
+
+    // distances between every pair of the nouns, from one search per noun; the
+    // searches and the pairwise merges run on the common fork-join pool
+    public DistanceMatrix distanceMatrix(String[] nouns) {
+        return distanceMatrix(nouns, ForkJoinPool.commonPool());
+    }
+
+    // distances between every pair of the nouns, computed on the threads of pool
+    public DistanceMatrix distanceMatrix(String[] nouns, ForkJoinPool pool) {
+        if (nouns == null || pool == null) {
+            throw new IllegalArgumentException("argument is null");
+        }
+        return DistanceMatrix.compute(this, nouns, pool);
+    }
+
+    // the ancestors of one source noun, kept together so both are published at once
+    private static class SourceAncestors {
+        private final String noun;
+        private final AncestorSet ancestors;
+
+        SourceAncestors(String noun, AncestorSet ancestors) {
+            this.noun = noun;
+            this.ancestors = ancestors;
+        }
+    }
+
+    // a synset (second field of synsets.txt) that is a shortest common ancestor
+    // of noun1 and noun2 (defined below)
+    public String sca(String noun1, String noun2) {
+        engine(); // sca() requires a rooted DAG, even when the result is cached
+        long start = Metrics.start();
+        long m = query(noun1, noun2);
+        Metrics.stop(Metric.SCA_LATENCY, start);
+        int id = (m < 0) ? -1 : (int) m;
+
+        return this.idtonoun.get(id);
+    }
+
+    // distance between noun1 and noun2 (defined below): the length of a shortest
+    // ancestral path between any sense of noun1 and any sense of noun2
+    public int distance(String noun1, String noun2) {
+        long start = Metrics.start();
+        long m = query(noun1, noun2);
+        Metrics.stop(Metric.DISTANCE_LATENCY, start);
+        return (m < 0) ? -1 : (int) (m >>> 32);
+    }
+
+    // length of a shortest ancestral path between two synsets, found with one
+    // search rather than a search per vertex
+    public int distance(int id1, int id2) {
+        if (id1 < 0 || id1 >= network.V() || id2 < 0 || id2 >= network.V()) {
+            throw new IllegalArgumentException("Both ids must be in the network");
+        }
+        AncestorSearch s = searcher();
+        s.search(id1, id2);
+        return s.length();
+    }
+
+    // unit testing (required)
+    public static void main(String[] args) {
+        WordNet w = WordNet.load("./Input/synsets.txt", "./Input/hypernyms.txt");
+        // System.out.println(w.nouns());
+        // System.out.println(w.distance("okonkwo", "country"));
+        System.out.println(w.distance(0, 100));
+        System.out.println(w.sca("'hood", "Abyssinian_banana"));
+
+    }
+
+}
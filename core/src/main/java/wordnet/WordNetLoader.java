@@ -0,0 +1,203 @@
+/******************************************************************************
+ *  Bulk reader for synsets.txt and hypernyms.txt.
+ ******************************************************************************/
+
+package wordnet;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The WordNetLoader class reads the WordNet input files without Scanner,
+ * String.split or Integer.parseInt. Each file is memory-mapped and parsed
+ * directly from its bytes; the noun field of a synset is copied into a
+ * SynsetTable without being decoded, and the glosses are skipped.
+ * <p>
+ * The hypernym graph is built in two passes over the mapped file: the first
+ * counts the outdegree of every synset, the second writes the edges straight
+ * into the arrays of a CompactDigraph. Its adjacency lists come out in the same
+ * order as a Digraph built with addEdge, most recent edge first. Both passes
+ * take time linear in the size of the file.
+ */
+final class WordNetLoader {
+
+    private WordNetLoader() { }
+
+    /**
+     * Reads synsets.txt into the synset table used by WordNet. Each line is an
+     * id, a space-separated list of nouns and a gloss, separated by commas.
+     *
+     * @param synsets the name of the synsets file
+     * @return the nouns of every synset
+     * @throws IllegalArgumentException if the file cannot be read or is malformed
+     */
+    static SynsetTable readSynsets(String synsets) {
+        long timer = Metrics.start();
+        MappedByteBuffer buf = map(synsets);
+        int n = buf.limit();
+        SynsetTable.Builder table = new SynsetTable.Builder();
+
+        int pos = 0;
+        while (pos < n) {
+            int end = lineEnd(buf, pos, n);
+            if (end > pos) {
+                // id, up to the first comma
+                int id = 0;
+                int p = pos;
+                while (p < end && buf.get(p) != ',') {
+                    id = append(id, buf, p, synsets);
+                    p++;
+                }
+                if (p == pos || p == end)
+                    throw new IllegalArgumentException("invalid line in " + synsets + " at byte " + pos);
+
+                // nouns, up to the next comma or the end of the line
+                int start = ++p;
+                while (p < end && buf.get(p) != ',')
+                    p++;
+                table.add(id, buf, start, p);
+            }
+            pos = skipLineBreak(buf, end, n);
+        }
+        Metrics.stop(Metric.LOAD_SYNSETS, timer);
+        return table.build();
+    }
+
+    /**
+     * Reads hypernyms.txt into a frozen digraph. Each line is a synset id followed
+     * by the ids of its hypernyms, separated by commas.
+     *
+     * @param hypernyms the name of the hypernyms file
+     * @param V         the number of synsets
+     * @return the digraph with an edge from each synset to each of its hypernyms
+     * @throws IllegalArgumentException if the file cannot be read or is malformed,
+     *                                  or names a synset that is not between 0
+     *                                  and V - 1
+     */
+    static CompactDigraph readHypernyms(String hypernyms, int V) {
+        long timer = Metrics.start();
+        MappedByteBuffer buf = map(hypernyms);
+        int n = buf.limit();
+
+        // first pass: outdegree of every synset
+        int[] offsets = new int[V + 1];
+        int pos = 0;
+        while (pos < n) {
+            int end = lineEnd(buf, pos, n);
+            if (end > pos) {
+                int v = -1;
+                int number = 0;
+                boolean digits = false;
+                for (int p = pos; p <= end; p++) {
+                    if (p == end || buf.get(p) == ',') {
+                        if (!digits)
+                            throw new IllegalArgumentException("invalid line in " + hypernyms + " at byte " + pos);
+                        validate(number, V, hypernyms);
+                        if (v < 0)
+                            v = number;
+                        else
+                            offsets[v + 1]++;
+                        number = 0;
+                        digits = false;
+                    }
+                    else {
+                        number = append(number, buf, p, hypernyms);
+                        digits = true;
+                    }
+                }
+            }
+            pos = skipLineBreak(buf, end, n);
+        }
+        for (int v = 0; v < V; v++)
+            offsets[v + 1] += offsets[v];
+        Metrics.stop(Metric.LOAD_HYPERNYMS, timer);
+
+        // second pass: fill each row from its end, so the latest edge comes first
+        timer = Metrics.start();
+        int[] targets = new int[offsets[V]];
+        int[] next = new int[V];
+        System.arraycopy(offsets, 1, next, 0, V);
+        pos = 0;
+        while (pos < n) {
+            int end = lineEnd(buf, pos, n);
+            if (end > pos) {
+                int v = -1;
+                int number = 0;
+                for (int p = pos; p <= end; p++) {
+                    if (p == end || buf.get(p) == ',') {
+                        if (v < 0)
+                            v = number;
+                        else
+                            targets[--next[v]] = number;
+                        number = 0;
+                    }
+                    else {
+                        number = 10 * number + (buf.get(p) - '0');
+                    }
+                }
+            }
+            pos = skipLineBreak(buf, end, n);
+        }
+
+        CompactDigraph G = new CompactDigraph(V, offsets, targets);
+        Metrics.stop(Metric.LOAD_GRAPH, timer);
+        return G;
+    }
+
+    // maps the whole file into memory, read-only
+    static MappedByteBuffer map(String file) {
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IllegalArgumentException(file + " is too large to map");
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (IOException e) {
+            throw new IllegalArgumentException("could not read " + file, e);
+        }
+    }
+
+    // index of the '\n' or '\r' that ends the line starting at pos, or n
+    static int lineEnd(MappedByteBuffer buf, int pos, int n) {
+        while (pos < n) {
+            byte b = buf.get(pos);
+            if (b == '\n' || b == '\r')
+                return pos;
+            pos++;
+        }
+        return n;
+    }
+
+    // index of the first byte after the line break at end
+    static int skipLineBreak(MappedByteBuffer buf, int end, int n) {
+        if (end < n && buf.get(end) == '\r')
+            end++;
+        if (end < n && buf.get(end) == '\n')
+            end++;
+        return end;
+    }
+
+    // value of the decimal digit at p
+    static int digit(MappedByteBuffer buf, int p, String file) {
+        int d = buf.get(p) - '0';
+        if (d < 0 || d > 9)
+            throw new IllegalArgumentException("invalid number in " + file + " at byte " + p);
+        return d;
+    }
+
+    // number followed by the decimal digit at p; throws an
+    // IllegalArgumentException rather than let the number overflow an int
+    static int append(int number, MappedByteBuffer buf, int p, String file) {
+        int d = digit(buf, p, file);
+        if (number > (Integer.MAX_VALUE - d) / 10)
+            throw new IllegalArgumentException("number too large in " + file + " at byte " + p);
+        return 10 * number + d;
+    }
+
+    // throw an IllegalArgumentException unless 0 <= v < V
+    static void validate(int v, int V, String file) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("synset " + v + " in " + file + " is not between 0 and " + (V - 1));
+    }
+}
@@ -0,0 +1,206 @@
+/******************************************************************************
+ *  Thread-safe query facade over a shared WordNet.
+ ******************************************************************************/
+
+package wordnet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The WordNetService class answers distance and shortest-common-ancestor
+ * queries from any number of threads over one shared, read-only WordNet. It
+ * also answers batches of queries by splitting them across an executor.
+ * <p>
+ * A WordNet is never modified once built. The service holds the current one in
+ * a volatile field, so all of its state is safely published to every query
+ * thread. update() applies a batch of additions copy-on-write: it builds a new
+ * WordNet from the current one and then swaps it in with a single write, so
+ * queries already running finish on the WordNet they started with, and no
+ * reader ever waits for a writer. Updates are serialized among themselves.
+ * A batch of queries reads the field once and runs entirely on that WordNet.
+ * <p>
+ * Every query keeps its breadth-first search state in the TraversalContext
+ * objects of the thread that runs it, so queries never contend on shared
+ * scratch arrays, and throughput grows with the number of threads.
+ * <p>
+ * The executor can be a fixed pool owned by the service, or any executor
+ * supplied by the caller. A pool of long-lived threads suits the queries best:
+ * each thread allocates its scratch arrays, a few of them as long as the number
+ * of synsets, on its first query and reuses them afterwards. An executor that
+ * starts a new thread per task, such as a virtual thread per task, pays that
+ * allocation on every task. A service that owns its pool shuts it down on
+ * close().
+ */
+public class WordNetService implements AutoCloseable {
+    private static final int TASKS_PER_THREAD = 4; // smooths out uneven query costs
+
+    private volatile WordNet wordnet; // the current snapshot, replaced by update()
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final int parallelism;
+
+    /**
+     * Initializes a service with its own fixed pool of worker threads.
+     *
+     * @param wordnet the WordNet to query
+     * @param threads the number of worker threads
+     * @throws IllegalArgumentException if wordnet is null or threads < 1
+     */
+    public WordNetService(WordNet wordnet, int threads) {
+        if (wordnet == null)
+            throw new IllegalArgumentException("argument is null");
+        if (threads < 1)
+            throw new IllegalArgumentException("number of threads must be positive");
+
+        this.wordnet = wordnet;
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "wordnet-query");
+            t.setDaemon(true);
+            return t;
+        });
+        this.ownsExecutor = true;
+        this.parallelism = threads;
+    }
+
+    /**
+     * Initializes a service that runs batches on the caller's executor. The
+     * executor is not shut down by close().
+     *
+     * @param wordnet     the WordNet to query
+     * @param executor    the executor for batch queries
+     * @param parallelism the number of tasks the executor can usefully run at once
+     * @throws IllegalArgumentException if an argument is null or parallelism < 1
+     */
+    public WordNetService(WordNet wordnet, ExecutorService executor, int parallelism) {
+        if (wordnet == null || executor == null)
+            throw new IllegalArgumentException("argument is null");
+        if (parallelism < 1)
+            throw new IllegalArgumentException("parallelism must be positive");
+
+        this.wordnet = wordnet;
+        this.executor = executor;
+        this.ownsExecutor = false;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns the distance between two nouns, on the calling thread.
+     *
+     * @param noun1 one noun
+     * @param noun2 the other noun
+     * @return the length of a shortest ancestral path between their senses
+     * @throws IllegalArgumentException unless both nouns are WordNet nouns
+     */
+    public int distance(String noun1, String noun2) {
+        return this.wordnet.distance(noun1, noun2);
+    }
+
+    /**
+     * Returns a shortest common ancestor of two nouns, on the calling thread.
+     *
+     * @param noun1 one noun
+     * @param noun2 the other noun
+     * @return the synset of a shortest common ancestor
+     * @throws IllegalArgumentException unless both nouns are WordNet nouns
+     */
+    public String sca(String noun1, String noun2) {
+        return this.wordnet.sca(noun1, noun2);
+    }
+
+    /**
+     * Returns the distance of every pair of nouns, computed in parallel.
+     *
+     * @param pairs the pairs of nouns; pairs[i] holds exactly two nouns
+     * @return distances[i] = the distance between pairs[i][0] and pairs[i][1]
+     * @throws IllegalArgumentException if pairs or a pair is null, if a pair does
+     *                                  not hold two nouns, or if a noun is not a
+     *                                  WordNet noun
+     */
+    public int[] distances(String[][] pairs) {
+        if (pairs == null)
+            throw new IllegalArgumentException("argument is null");
+        for (int i = 0; i < pairs.length; i++) {
+            if (pairs[i] == null || pairs[i].length != 2)
+                throw new IllegalArgumentException("pair " + i + " does not hold two nouns");
+        }
+
+        WordNet wordnet = this.wordnet; // one snapshot for the whole batch
+        int[] distances = new int[pairs.length];
+        int tasks = Math.min(pairs.length, parallelism * TASKS_PER_THREAD);
+        List<Future<?>> futures = new ArrayList<Future<?>>(tasks);
+        for (int t = 0; t < tasks; t++) {
+            int lo = (int) ((long) pairs.length * t / tasks);
+            int hi = (int) ((long) pairs.length * (t + 1) / tasks);
+            futures.add(executor.submit(() -> {
+                for (int i = lo; i < hi; i++)
+                    distances[i] = wordnet.distance(pairs[i][0], pairs[i][1]);
+            }));
+        }
+        await(futures);
+        return distances;
+    }
+
+    /**
+     * Returns the WordNet that queries currently run on.
+     *
+     * @return the current WordNet
+     */
+    public WordNet wordnet() {
+        return this.wordnet;
+    }
+
+    /**
+     * Adds a batch of synsets and hypernym edges, and makes the result the
+     * WordNet that later queries run on. Queries already running are not
+     * blocked and keep the WordNet they started with. If the batch is rejected,
+     * the current WordNet stays in place.
+     *
+     * @param update the synsets and edges to add
+     * @return the new current WordNet
+     * @throws IllegalArgumentException if update is null, or an added synset
+     *                                  id does not follow on from the current
+     *                                  ones, or an edge names an unknown
+     *                                  synset, or the result is not a rooted DAG
+     */
+    public synchronized WordNet update(WordNetUpdate update) {
+        WordNet next = this.wordnet.update(update);
+        this.wordnet = next;
+        return next;
+    }
+
+    // waits for every task, rethrowing the first failure on the calling thread
+    private static void await(List<Future<?>> futures) {
+        RuntimeException failure = null;
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    Throwable cause = e.getCause();
+                    failure = (cause instanceof RuntimeException)
+                            ? (RuntimeException) cause : new IllegalStateException(cause);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                for (Future<?> g : futures)
+                    g.cancel(true);
+                throw new IllegalStateException("interrupted while waiting for a batch", e);
+            }
+        }
+        if (failure != null)
+            throw failure;
+    }
+
+    /**
+     * Shuts down the worker pool, if this service created it.
+     */
+    public void close() {
+        if (ownsExecutor)
+            executor.shutdown();
+    }
+}
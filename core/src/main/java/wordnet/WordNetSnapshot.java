@@ -0,0 +1,100 @@
+/******************************************************************************
+ *  Binary snapshot of a fully built WordNet.
+ ******************************************************************************/
+
+package wordnet;
+
+import java.nio.MappedByteBuffer;
+
+/**
+ * The WordNetSnapshot class stores the built state of a WordNet in one binary
+ * file: the synset table, the noun index, the hypernym graph with its reverse
+ * index, and the root found when the graph was validated as a rooted DAG.
+ * <p>
+ * The file is a BinaryFile: a header with a magic number, the format version,
+ * the length of the payload and a CRC-32 of the payload, then the payload. A
+ * file with the wrong magic number or version, a truncated payload or a
+ * checksum mismatch is rejected. All numbers are big-endian, except the arrays
+ * of the hypernym graph, which are in the native byte order of the machine
+ * that wrote the file, as recorded before them.
+ * <p>
+ * Reading maps the file into memory. The hypernym graph and its reverse index,
+ * which make up most of the file, are served from views of the mapping, as a
+ * MappedDigraph, and are paged in as queries touch them. The synset table and
+ * the noun index, hash table included, are copied out of the mapping in bulk.
+ * Nothing is parsed, sorted or hashed. Verifying the checksum reads the whole
+ * payload once; a caller that trusts the file can skip it, and then opening
+ * the snapshot reads only the header, the graph offsets, the synset table and
+ * the noun index.
+ */
+final class WordNetSnapshot {
+    private static final int MAGIC = 0x574E5350; // "WNSP"
+    private static final int VERSION = 5;
+
+    final SynsetTable idtonoun;
+    final NounIndex nountoids;
+    final CompactDigraph network;
+    final int root; // root of the validated graph, or -1 if it is not a rooted DAG
+
+    WordNetSnapshot(SynsetTable idtonoun, NounIndex nountoids,
+                    CompactDigraph network, int root) {
+        this.idtonoun = idtonoun;
+        this.nountoids = nountoids;
+        this.network = network;
+        this.root = root;
+    }
+
+    /**
+     * Writes this snapshot to the named file, replacing it if it exists.
+     *
+     * @param file the name of the snapshot file
+     * @throws IllegalArgumentException if the file cannot be written
+     */
+    void write(String file) {
+        BinaryFile.write(file, "WordNet snapshot", MAGIC, VERSION, out -> {
+            out.writeInt(root);
+            network.write(out);
+            idtonoun.write(out);
+            nountoids.write(out);
+        });
+    }
+
+    /**
+     * Reads the snapshot stored in the named file. The graph stays mapped for
+     * as long as it is in use, so the file must not be modified in place
+     * meanwhile; write() replaces it with a new file instead.
+     * <p>
+     * Whether or not the checksum is verified, the root, the graph offsets,
+     * the number of synsets and the synset ids of the noun index are checked
+     * against each other. Without the checksum, the hypernym targets are
+     * trusted: a damaged target is not detected here and fails inside a
+     * query.
+     *
+     * @param file   the name of the snapshot file
+     * @param verify whether to check the checksum of the payload
+     * @return the snapshot
+     * @throws IllegalArgumentException if the file cannot be read, or is not a
+     *                                  snapshot of the current version, or fails
+     *                                  its checksum, or is inconsistent
+     */
+    static WordNetSnapshot read(String file, boolean verify) {
+        MappedByteBuffer buf = BinaryFile.read(file, "WordNet snapshot", MAGIC, VERSION, verify);
+        int root = buf.getInt();
+        CompactDigraph network = MappedDigraph.read(buf);
+
+        int V = network.V();
+        if (root < -1 || root >= V || (root >= 0 && network.outdegree(root) != 0))
+            throw new IllegalArgumentException(file + " has an invalid root " + root);
+
+        SynsetTable idtonoun = SynsetTable.read(buf);
+        NounIndex nountoids = NounIndex.read(buf);
+        if (idtonoun.size() != V)
+            throw new IllegalArgumentException(file + " has " + idtonoun.size() + " synsets for " + V + " vertices");
+        for (int id : nountoids.synsets()) {
+            if (id < 0 || id >= V)
+                throw new IllegalArgumentException(file + " has a noun of synset " + id + ", not between 0 and " + (V - 1));
+        }
+
+        return new WordNetSnapshot(idtonoun, nountoids, network, root);
+    }
+}
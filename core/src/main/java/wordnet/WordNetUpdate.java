@@ -0,0 +1,96 @@
+/******************************************************************************
+ *  A batch of synsets and hypernym edges to add to a WordNet.
+ ******************************************************************************/
+
+package wordnet;
+
+import java.util.Arrays;
+
+/**
+ * The WordNetUpdate class collects synsets and hypernym edges to add to a
+ * WordNet in one step, with WordNet.update(WordNetUpdate). A synset is given
+ * as in synsets.txt, by its id and its space-separated nouns; the ids of the
+ * added synsets must follow on from the ids of the WordNet. A hypernym edge
+ * may join any two synsets, old or added.
+ * <p>
+ * An update is only a list of additions: it is checked when it is applied, and
+ * it can be applied to several WordNets. It is not thread-safe.
+ */
+public final class WordNetUpdate {
+    private int[] ids = new int[4];
+    private String[] nouns = new String[4];
+    private int synsets; // number of synsets added
+
+    private int[] tails = new int[4];
+    private int[] heads = new int[4];
+    private int edges; // number of hypernym edges added
+
+    /**
+     * Adds a synset.
+     *
+     * @param id    the id of the synset
+     * @param nouns its nouns, separated by spaces
+     * @return this update
+     * @throws IllegalArgumentException if nouns is null or id is negative
+     */
+    public WordNetUpdate addSynset(int id, String nouns) {
+        if (nouns == null)
+            throw new IllegalArgumentException("argument is null");
+        if (id < 0)
+            throw new IllegalArgumentException("synset id " + id + " is negative");
+        if (synsets == ids.length) {
+            ids = Arrays.copyOf(ids, 2 * synsets);
+            this.nouns = Arrays.copyOf(this.nouns, 2 * synsets);
+        }
+        ids[synsets] = id;
+        this.nouns[synsets] = nouns;
+        synsets++;
+        return this;
+    }
+
+    /**
+     * Adds a hypernym edge.
+     *
+     * @param synset   the id of the synset
+     * @param hypernym the id of one of its hypernyms
+     * @return this update
+     * @throws IllegalArgumentException if an id is negative
+     */
+    public WordNetUpdate addHypernym(int synset, int hypernym) {
+        if (synset < 0 || hypernym < 0)
+            throw new IllegalArgumentException("synset ids must be non-negative");
+        if (edges == tails.length) {
+            tails = Arrays.copyOf(tails, 2 * edges);
+            heads = Arrays.copyOf(heads, 2 * edges);
+        }
+        tails[edges] = synset;
+        heads[edges] = hypernym;
+        edges++;
+        return this;
+    }
+
+    // number of added synsets
+    int synsets() {
+        return synsets;
+    }
+
+    // id of the k-th added synset
+    int id(int k) {
+        return ids[k];
+    }
+
+    // nouns of the k-th added synset
+    String nouns(int k) {
+        return nouns[k];
+    }
+
+    // the tails of the added edges, in order
+    int[] tails() {
+        return Arrays.copyOf(tails, edges);
+    }
+
+    // the heads of the added edges, in order
+    int[] heads() {
+        return Arrays.copyOf(heads, edges);
+    }
+}
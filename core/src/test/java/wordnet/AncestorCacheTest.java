@@ -0,0 +1,232 @@
+package wordnet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// ancestor sets and their meets against the Taxonomy oracle, and the budget,
+// eviction and invalidation of the cache that holds them
+class AncestorCacheTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = { 1, 2, 3 })
+    void meetMatchesOracle(long seed) {
+        Taxonomy t = Taxonomy.random(1500, seed);
+        CompactDigraph G = new CompactDigraph(t.digraph());
+        Map<Integer, int[]> memo = Taxonomy.memo();
+        Map<String, List<Integer>> ids = t.ids();
+        List<String> nouns = t.nouns();
+        SplittableRandom random = new SplittableRandom(seed);
+        int ties = 0;
+        for (int q = 0; q < 400; q++) {
+            List<Integer> a = ids.get(nouns.get(random.nextInt(nouns.size())));
+            List<Integer> b = ids.get(nouns.get(random.nextInt(nouns.size())));
+            Taxonomy.Answer expected = t.answer(a, b, memo);
+            AncestorSet x = AncestorSet.of(G, array(a), 0, a.size());
+            AncestorSet y = AncestorSet.of(G, array(b), 0, b.size());
+
+            long m = x.meet(y);
+            assertEquals(expected.length, (int) (m >>> 32), a + " " + b);
+            // the merge walks the vertices in increasing order and keeps the first tie
+            assertEquals(min(expected.ancestors), (int) m, a + " " + b);
+            assertEquals(m, y.meet(x));
+            assertEquals(expected.length, x.distanceTo(y));
+
+            long n = x.meet(G, array(b), 0, b.size());
+            assertEquals(expected.length, (int) (n >>> 32), a + " " + b);
+            assertTrue(expected.ancestors.contains((int) n), a + " " + b + ": " + (int) n);
+            if (expected.ancestors.size() > 1)
+                ties++;
+        }
+        assertTrue(ties > 0, "no ties drawn");
+    }
+
+    // 3 and 4 both reach 1 and 2 in two steps
+    @Test
+    void meetBreaksTiesByVertex() {
+        CompactDigraph G = digraph(5, 1, 0, 2, 0, 3, 2, 3, 1, 4, 2, 4, 1);
+        AncestorSet x = AncestorSet.of(G, new int[] { 3 }, 0, 1);
+        AncestorSet y = AncestorSet.of(G, new int[] { 4 }, 0, 1);
+        assertEquals((2L << 32) | 1, x.meet(y));
+        long m = x.meet(G, new int[] { 4 }, 0, 1);
+        assertEquals(2, (int) (m >>> 32));
+        assertTrue((int) m == 1 || (int) m == 2);
+    }
+
+    @Test
+    void meetWithoutCommonAncestor() {
+        CompactDigraph G = digraph(4, 1, 0, 3, 2);
+        AncestorSet x = AncestorSet.of(G, new int[] { 1 }, 0, 1);
+        AncestorSet y = AncestorSet.of(G, new int[] { 3 }, 0, 1);
+        assertEquals(-1, x.meet(y));
+        assertEquals(-1, x.distanceTo(y));
+        assertEquals(-1, x.meet(G, new int[] { 3, 2 }, 0, 2));
+        assertEquals(1L << 32, x.meet(G, new int[] { 0 }, 0, 1));
+    }
+
+    // on a chain, vertex v has v + 1 ancestors, so the sizes of the sets are known
+    @Test
+    void evictsLeastRecentlyUsedSetsToFitTheBudget() {
+        CompactDigraph G = chain(20);
+        AncestorCache cache = new AncestorCache(10);
+        cache.get(G, 3); // 4 ancestors
+        cache.get(G, 4); // 5, so 9 in all
+        cache.get(G, 1); // 2 more; evicts 3
+        assertEquals(7, cache.size());
+        assertEquals(1, cache.evictions());
+        cache.get(G, 4); // a hit, so 1 is now the least recently used
+        cache.get(G, 3); // evicts 1
+        assertEquals(9, cache.size());
+        assertEquals(2, cache.evictions());
+        assertEquals(1, cache.hits());
+        assertEquals(4, cache.misses());
+
+        // larger than the whole budget: returned, but not cached
+        AncestorSet big = cache.get(G, 10);
+        assertEquals(11, big.size());
+        assertEquals(9, cache.size());
+        assertEquals(2, cache.evictions());
+        cache.get(G, 10);
+        assertEquals(6, cache.misses());
+
+        cache.get(G, 4);
+        cache.get(G, 3);
+        assertEquals(3, cache.hits());
+        assertEquals("9/10 ancestors, 3 hits, 6 misses, 2 evictions", cache.toString());
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = { 50, 700, 5000, 100000 })
+    void neverHoldsMoreThanItsBudget(long capacity) {
+        Taxonomy t = Taxonomy.random(3000, 9);
+        CompactDigraph G = new CompactDigraph(t.digraph());
+        AncestorCache cache = new AncestorCache(capacity);
+        SplittableRandom random = new SplittableRandom(capacity);
+        int gets = 0;
+        for (int q = 0; q < 3000; q++) {
+            int v = random.nextInt(G.V());
+            AncestorSet set = cache.get(G, v);
+            gets++;
+            assertTrue(cache.size() <= capacity, cache.toString());
+
+            int[] up = t.up(v);
+            int n = 0;
+            for (int x = 0; x < G.V(); x++) {
+                if (up[x] >= 0)
+                    n++;
+                assertEquals(up[x], set.dist(x));
+            }
+            assertEquals(n, set.size());
+        }
+        assertEquals(gets, cache.hits() + cache.misses());
+        if (capacity < 5000)
+            assertTrue(cache.evictions() > 0, cache.toString());
+    }
+
+    @Test
+    void withoutDropsExactlyTheChangedVertices() {
+        Taxonomy t = Taxonomy.random(600, 12);
+        CompactDigraph G = new CompactDigraph(t.digraph());
+        AncestorCache cache = new AncestorCache(1L << 30); // nothing is evicted
+        SplittableRandom random = new SplittableRandom(12);
+        List<Integer> cached = new ArrayList<Integer>();
+        for (int v = 0; v < G.V(); v += 3) {
+            cache.get(G, v);
+            cached.add(v);
+        }
+
+        // a few tails and every descendant of them, as WordNet.update marks them;
+        // vertices past the end of the array count as unchanged
+        boolean[] changed = new boolean[500];
+        for (int k = 0; k < 4; k++) {
+            int tail = 100 + random.nextInt(300);
+            for (int v = 0; v < changed.length; v++) {
+                if (t.up(v)[tail] >= 0)
+                    changed[v] = true;
+            }
+        }
+
+        AncestorCache copy = cache.without(changed);
+        assertEquals(0, copy.hits() + copy.misses() + copy.evictions());
+        long kept = 0;
+        int dropped = 0;
+        for (int v : cached) {
+            boolean gone = v < changed.length && changed[v];
+            long misses = copy.misses();
+            AncestorSet before = cache.get(G, v);
+            AncestorSet after = copy.get(G, v);
+            assertEquals(gone, copy.misses() > misses, "vertex " + v);
+            if (!gone) {
+                assertSame(before, after);
+                kept += after.size();
+            }
+            else
+                dropped++;
+        }
+        assertTrue(dropped > 0 && dropped < cached.size(), dropped + " of " + cached.size());
+        assertEquals(cached.size(), cache.hits());
+        long fresh = 0;
+        for (int v : cached) {
+            if (v < changed.length && changed[v])
+                fresh += cache.get(G, v).size();
+        }
+        assertEquals(kept + fresh, copy.size());
+    }
+
+    @Test
+    void withoutKeepsTheEvictionOrder() {
+        CompactDigraph G = chain(20);
+        AncestorCache cache = new AncestorCache(10);
+        cache.get(G, 2);
+        cache.get(G, 1);
+        cache.get(G, 3);
+        cache.get(G, 2); // order from least recent: 1, 3, 2; 9 ancestors
+        boolean[] changed = new boolean[G.V()];
+        AncestorCache copy = cache.without(changed);
+        assertEquals(9, copy.size());
+        copy.get(G, 4); // 5 more: evicts 1, then 3
+        assertEquals(8, copy.size());
+        assertEquals(2, copy.evictions());
+        copy.get(G, 2);
+        assertEquals(1, copy.hits());
+    }
+
+    // 0 <- 1 <- 2 <- ... <- V - 1
+    private static CompactDigraph chain(int V) {
+        Digraph G = new Digraph(V);
+        for (int v = 1; v < V; v++)
+            G.addEdge(v, v - 1);
+        return new CompactDigraph(G);
+    }
+
+    // the digraph with the edges v -> w given as pairs
+    private static CompactDigraph digraph(int V, int... edges) {
+        Digraph G = new Digraph(V);
+        for (int i = 0; i < edges.length; i += 2)
+            G.addEdge(edges[i], edges[i + 1]);
+        return new CompactDigraph(G);
+    }
+
+    private static int[] array(List<Integer> list) {
+        int[] a = new int[list.size()];
+        for (int i = 0; i < a.length; i++)
+            a[i] = list.get(i);
+        return a;
+    }
+
+    private static int min(Iterable<Integer> items) {
+        int min = Integer.MAX_VALUE;
+        for (int x : items)
+            min = Math.min(min, x);
+        return min;
+    }
+}
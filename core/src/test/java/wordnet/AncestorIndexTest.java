@@ -0,0 +1,86 @@
+package wordnet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// the depth and binary-lifting index against brute force and the plain search
+class AncestorIndexTest {
+    private static final int V = 300;
+
+    @Test
+    void depthsAndChainsMatchBruteForce() {
+        Taxonomy t = Taxonomy.random(V, 7);
+        CompactDigraph G = new CompactDigraph(t.digraph());
+        AncestorIndex index = new AncestorIndex(G, new DirectedCycle(G).order());
+        for (int v = 0; v < V; v++) {
+            int[] up = t.up(v);
+            assertEquals(up[0], index.depth(v), "depth of " + v);
+
+            boolean chain = true;
+            for (int x = 0; x < V; x++) {
+                if (up[x] >= 0 && t.hypernyms[x].length > 1)
+                    chain = false;
+            }
+            assertEquals(chain, index.isChain(v), "chain flag of " + v);
+        }
+    }
+
+    @Test
+    void lcaOfTreeMatchesBruteForce() {
+        // with only first hypernyms every vertex is a chain vertex
+        Taxonomy t = Taxonomy.random(V, 7).base(V);
+        CompactDigraph G = new CompactDigraph(t.digraph());
+        AncestorIndex index = new AncestorIndex(G, new DirectedCycle(G).order());
+        Map<Integer, int[]> ups = Taxonomy.memo();
+        for (int v = 0; v < V; v++) {
+            for (int w = v; w < V; w++) {
+                Taxonomy.Answer expected = t.answer(v, w, ups);
+                assertEquals(1, expected.ancestors.size());
+                assertEquals(expected.ancestors.iterator().next(), index.lca(v, w), v + " " + w);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = { 1, 2, 3 })
+    void indexMatchesSearch(long seed) {
+        Taxonomy t = Taxonomy.random(V, seed);
+        ShortestCommonAncestor search = new ShortestCommonAncestor(t.digraph());
+        ShortestCommonAncestor indexed = new ShortestCommonAncestor(t.digraph());
+        indexed.buildIndex();
+
+        Map<Integer, int[]> ups = Taxonomy.memo();
+        for (int v = 0; v < V; v++) {
+            for (int w = v; w < V; w++) {
+                Taxonomy.Answer expected = t.answer(v, w, ups);
+                assertEquals(search.length(v, w), indexed.length(v, w), v + " " + w);
+                assertEquals(expected.length, indexed.length(v, w), v + " " + w);
+                assertTrue(expected.ancestors.contains(indexed.ancestor(v, w)), v + " " + w);
+            }
+        }
+    }
+
+    @Test
+    void subsetsWithIndexMatchBruteForce() {
+        Taxonomy t = Taxonomy.random(V, 4);
+        ShortestCommonAncestor indexed = new ShortestCommonAncestor(t.digraph());
+        indexed.buildIndex();
+
+        Map<Integer, int[]> ups = Taxonomy.memo();
+        for (int v = 1; v + 2 < V; v += 5) {
+            List<Integer> a = Arrays.asList(v, V - v, (7 * v) % V);
+            List<Integer> b = Arrays.asList(v + 1, v + 2);
+            Taxonomy.Answer expected = t.answer(a, b, ups);
+            assertEquals(expected.length, indexed.lengthSubset(a, b), a + " " + b);
+            assertTrue(expected.ancestors.contains(indexed.ancestorSubset(a, b)), a + " " + b);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package wordnet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// the bidirectional search, on single vertices and on subsets, against the
+// Taxonomy oracle, with no index, labels or cache in front of it
+class AncestorSearchTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = { 1, 2, 3 })
+    void pairsMatchOracle(long seed) {
+        Taxonomy t = Taxonomy.random(2000, seed);
+        AncestorSearch search = new AncestorSearch(new CompactDigraph(t.digraph()));
+        Map<Integer, int[]> memo = Taxonomy.memo();
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int q = 0; q < 500; q++) {
+            int v = random.nextInt(t.V), w = random.nextInt(t.V);
+            assertAnswer(t.answer(v, w, memo), search, v, w);
+        }
+    }
+
+    @Test
+    void sameVertex() {
+        Taxonomy t = Taxonomy.random(300, 5);
+        AncestorSearch search = new AncestorSearch(new CompactDigraph(t.digraph()));
+        for (int v = 0; v < t.V; v += 7) {
+            search.search(v, v);
+            assertEquals(0, search.length());
+            assertEquals(v, search.ancestor());
+        }
+    }
+
+    // v itself is a common ancestor at the distance between the two, but in
+    // a DAG another ancestor can tie with it or even beat it
+    @Test
+    void ancestorOfTheOther() {
+        Taxonomy t = Taxonomy.random(1000, 6);
+        AncestorSearch search = new AncestorSearch(new CompactDigraph(t.digraph()));
+        Map<Integer, int[]> memo = Taxonomy.memo();
+        SplittableRandom random = new SplittableRandom(6);
+        for (int q = 0; q < 300; q++) {
+            int w = random.nextInt(t.V);
+            int[] up = t.up(w);
+            int v;
+            do {
+                v = random.nextInt(t.V);
+            } while (up[v] < 0);
+            Taxonomy.Answer expected = t.answer(v, w, memo);
+            assertTrue(expected.length <= up[v]);
+            assertAnswer(expected, search, v, w);
+        }
+        // on a chain nothing can: the ancestor is the answer
+        Digraph chain = new Digraph(6);
+        for (int x = 1; x < 6; x++)
+            chain.addEdge(x, x - 1);
+        AncestorSearch onChain = new AncestorSearch(new CompactDigraph(chain));
+        onChain.search(2, 5);
+        assertEquals(3, onChain.length());
+        assertEquals(2, onChain.ancestor());
+        onChain.search(5, 2);
+        assertEquals(2, onChain.ancestor());
+    }
+
+    @Test
+    void noCommonAncestor() {
+        Digraph G = new Digraph(5);
+        G.addEdge(1, 0);
+        G.addEdge(3, 2);
+        G.addEdge(4, 2);
+        AncestorSearch search = new AncestorSearch(new CompactDigraph(G));
+        search.search(1, 4);
+        assertEquals(-1, search.length());
+        assertEquals(-1, search.ancestor());
+        search.search(Arrays.asList(0, 1), Arrays.asList(3, 4));
+        assertEquals(-1, search.length());
+        search.search(new int[] { 1, 3 }, 0, 1, new int[] { 4, 3 }, 0, 2);
+        assertEquals(-1, search.length());
+    }
+
+    // subsets drawn close together, so that they often overlap or have one
+    // member above another, through both the boxed and the primitive entry
+    @ParameterizedTest
+    @ValueSource(longs = { 1, 2, 3 })
+    void subsetsMatchOracle(long seed) {
+        Taxonomy t = Taxonomy.random(1500, seed);
+        AncestorSearch search = new AncestorSearch(new CompactDigraph(t.digraph()));
+        Map<Integer, int[]> memo = Taxonomy.memo();
+        SplittableRandom random = new SplittableRandom(seed);
+        int overlapping = 0;
+        for (int q = 0; q < 400; q++) {
+            int centre = random.nextInt(t.V);
+            List<Integer> a = subset(random, centre, t.V);
+            List<Integer> b = subset(random, centre, t.V);
+            Taxonomy.Answer expected = t.answer(a, b, memo);
+            if (expected.length == 0)
+                overlapping++;
+
+            search.search(a, b);
+            assertEquals(expected.length, search.length(), a + " " + b);
+            assertTrue(expected.ancestors.contains(search.ancestor()), a + " " + b + ": " + search.ancestor());
+
+            // the primitive form reads a window of a larger array
+            int[] both = new int[a.size() + b.size() + 2];
+            for (int i = 0; i < a.size(); i++)
+                both[1 + i] = a.get(i);
+            for (int i = 0; i < b.size(); i++)
+                both[2 + a.size() + i] = b.get(i);
+            search.search(both, 1, 1 + a.size(), both, 2 + a.size(), both.length);
+            assertEquals(expected.length, search.length(), a + " " + b);
+            assertTrue(expected.ancestors.contains(search.ancestor()), a + " " + b + ": " + search.ancestor());
+        }
+        assertTrue(overlapping > 0, "no overlapping subsets drawn");
+    }
+
+    @Test
+    void subsetWithRepeatsAndTheSameSubsetTwice() {
+        Taxonomy t = Taxonomy.random(500, 9);
+        AncestorSearch search = new AncestorSearch(new CompactDigraph(t.digraph()));
+        List<Integer> a = Arrays.asList(40, 41, 40, 300);
+        search.search(a, a);
+        assertEquals(0, search.length());
+        assertTrue(a.contains(search.ancestor()));
+        search.search(Arrays.asList(7), Arrays.asList(300, 7));
+        assertEquals(0, search.length());
+        assertEquals(7, search.ancestor());
+    }
+
+    // one to four vertices near centre, with repeats allowed
+    private static List<Integer> subset(SplittableRandom random, int centre, int V) {
+        List<Integer> s = new ArrayList<Integer>();
+        int n = 1 + random.nextInt(4);
+        for (int i = 0; i < n; i++)
+            s.add(Math.max(0, Math.min(V - 1, centre - 6 + random.nextInt(13))));
+        return s;
+    }
+
+    private static void assertAnswer(Taxonomy.Answer expected, AncestorSearch search, int v, int w) {
+        search.search(v, w);
+        assertEquals(expected.length, search.length(), v + " " + w);
+        assertTrue(expected.ancestors.contains(search.ancestor()), v + " " + w + ": " + search.ancestor());
+        search.search(w, v);
+        assertEquals(expected.length, search.length(), w + " " + v);
+        assertTrue(expected.ancestors.contains(search.ancestor()), w + " " + v + ": " + search.ancestor());
+    }
+}
@@ -0,0 +1,22 @@
+package wordnet;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// counts what the library reports, by metric, for tests that check which
+// structure answered a query
+final class CountingRegistry implements MetricsRegistry {
+    private final AtomicLongArray counts = new AtomicLongArray(Metric.values().length);
+
+    @Override
+    public void add(Metric metric, long amount) {
+        counts.addAndGet(metric.ordinal(), amount);
+    }
+
+    @Override
+    public void record(Metric metric, long value) {
+    }
+
+    long get(Metric metric) {
+        return counts.get(metric.ordinal());
+    }
+}
@@ -0,0 +1,155 @@
+package wordnet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// cycles that are real closed walks along the edges, and orders that put every
+// vertex before the vertices it has an edge to, on graphs too deep to recurse on
+class DirectedCycleTest {
+    private static final int DEEP = 1_000_000;
+
+    // 0 <- 1 <- ... <- DEEP - 1, the shape of a long chain of hypernyms
+    @Test
+    void deepChainHasAnOrder() {
+        Digraph G = chain(DEEP);
+        DirectedCycle finder = new DirectedCycle(G);
+        assertFalse(finder.hasCycle());
+        assertNull(finder.cycle());
+        assertOrder(G, finder.order());
+
+        DirectedCycle compact = new DirectedCycle(new CompactDigraph(G));
+        assertFalse(compact.hasCycle());
+        assertOrder(G, compact.order());
+    }
+
+    // the same chain closed by the edge 0 -> DEEP - 1: the only cycle is all of it
+    @Test
+    void deepCycleIsFound() {
+        Digraph G = chain(DEEP);
+        G.addEdge(0, DEEP - 1);
+        DirectedCycle finder = new DirectedCycle(G);
+        assertTrue(finder.hasCycle());
+        assertNull(finder.order());
+        List<Integer> cycle = assertCycle(G, finder.cycle());
+        assertEquals(DEEP + 1, cycle.size());
+    }
+
+    @Test
+    void selfLoopIsACycle() {
+        Digraph G = new Digraph(3);
+        G.addEdge(2, 1);
+        G.addEdge(1, 1);
+        DirectedCycle finder = new DirectedCycle(G);
+        assertTrue(finder.hasCycle());
+        assertEquals(Arrays.asList(1, 1), assertCycle(G, finder.cycle()));
+    }
+
+    @Test
+    void twoCycleRunsAlongTheEdges() {
+        Digraph G = new Digraph(4);
+        G.addEdge(0, 1);
+        G.addEdge(1, 2);
+        G.addEdge(2, 3);
+        G.addEdge(3, 1);
+        List<Integer> cycle = assertCycle(G, new DirectedCycle(G).cycle());
+        assertEquals(4, cycle.size());
+        assertEquals(new HashSet<Integer>(Arrays.asList(1, 2, 3)), new HashSet<Integer>(cycle));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = { 1, 2, 3, 4, 5 })
+    void taxonomyHasAnOrder(long seed) {
+        Digraph G = Taxonomy.random(4000, seed).digraph();
+        DirectedCycle finder = new DirectedCycle(G);
+        assertFalse(finder.hasCycle());
+        int[] order = finder.order();
+        assertOrder(G, order);
+        order[0] = -1;
+        assertNotSame(order, finder.order());
+        assertOrder(G, finder.order());
+    }
+
+    // a taxonomy with one edge pointing down from an ancestor to a descendant
+    @ParameterizedTest
+    @ValueSource(longs = { 1, 2, 3, 4, 5 })
+    void backEdgeMakesACycle(long seed) {
+        Taxonomy t = Taxonomy.random(4000, seed);
+        Digraph G = t.digraph();
+        SplittableRandom random = new SplittableRandom(seed);
+        int v = 1 + random.nextInt(t.V - 1);
+        int[] up = t.up(v);
+        int a;
+        do {
+            a = random.nextInt(t.V);
+        } while (up[a] <= 0);
+        G.addEdge(a, v);
+        DirectedCycle finder = new DirectedCycle(G);
+        assertTrue(finder.hasCycle());
+        assertNull(finder.order());
+        assertCycle(G, finder.cycle());
+    }
+
+    @Test
+    void emptyGraph() {
+        DirectedCycle finder = new DirectedCycle(new Digraph(0));
+        assertFalse(finder.hasCycle());
+        assertEquals(0, finder.order().length);
+    }
+
+    // 0 <- 1 <- ... <- V - 1
+    private static Digraph chain(int V) {
+        Digraph G = new Digraph(V);
+        for (int v = 1; v < V; v++)
+            G.addEdge(v, v - 1);
+        return G;
+    }
+
+    // every vertex once, and for every edge v -> w, v before w: read backwards,
+    // every hypernym comes before the synsets below it
+    private static void assertOrder(DigraphView G, int[] order) {
+        assertEquals(G.V(), order.length);
+        int[] position = new int[G.V()];
+        Arrays.fill(position, -1);
+        for (int i = 0; i < order.length; i++) {
+            assertEquals(-1, position[order[i]], "vertex " + order[i] + " twice");
+            position[order[i]] = i;
+        }
+        for (int v = 0; v < G.V(); v++) {
+            for (int i = 0; i < G.outdegree(v); i++) {
+                int w = G.neighbor(v, i);
+                assertTrue(position[v] < position[w], v + "->" + w);
+            }
+        }
+    }
+
+    // a closed walk along edges of G that repeats only its first vertex, last
+    private static List<Integer> assertCycle(DigraphView G, Iterable<Integer> vertices) {
+        List<Integer> cycle = new ArrayList<Integer>();
+        for (int v : vertices)
+            cycle.add(v);
+        assertTrue(cycle.size() >= 2, cycle.toString());
+        assertEquals(cycle.get(0), cycle.get(cycle.size() - 1));
+        assertEquals(cycle.size() - 1, new HashSet<Integer>(cycle.subList(0, cycle.size() - 1)).size());
+        for (int i = 0; i + 1 < cycle.size(); i++) {
+            int v = cycle.get(i), w = cycle.get(i + 1);
+            boolean edge = false;
+            for (int k = 0; k < G.outdegree(v) && !edge; k++)
+                edge = G.neighbor(v, k) == w;
+            assertTrue(edge, "no edge " + v + "->" + w + " in " + (cycle.size() < 50 ? cycle : "the cycle"));
+        }
+        return cycle;
+    }
+}
@@ -0,0 +1,162 @@
+package wordnet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// the matrix of a set of nouns against pairwise WordNet.distance, on pools of
+// one and several threads and on both sides of the split threshold
+class DistanceMatrixTest {
+    @TempDir
+    Path dir;
+
+    // 12 nouns make 66 pairs, just over the pairs a task merges without
+    // splitting; the larger sizes split many times
+    @ParameterizedTest
+    @ValueSource(ints = { 0, 1, 2, 11, 12, 13, 40, 150 })
+    void matchesPairwiseDistance(int K) throws IOException {
+        WordNet wordnet = forest();
+        String[] nouns = draw(wordnet, K, K);
+        int[][] expected = pairwise(wordnet, nouns);
+        for (int threads : new int[] { 1, 8 }) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                assertMatrix(expected, wordnet.distanceMatrix(nouns, pool));
+            } finally {
+                pool.shutdown();
+            }
+        }
+        assertMatrix(expected, wordnet.distanceMatrix(nouns));
+    }
+
+    @Test
+    void duplicateNounsAreAtDistanceZero() throws IOException {
+        WordNet wordnet = forest();
+        String w = null; // a noun of several synsets
+        for (String noun : wordnet.nouns()) {
+            if (noun.startsWith("w"))
+                w = noun;
+        }
+        String[] nouns = { "s7", w, "s7", "x2", w, "s7" };
+        DistanceMatrix m = wordnet.distanceMatrix(nouns);
+        assertMatrix(pairwise(wordnet, nouns), m);
+        assertEquals(0, m.get(0, 2));
+        assertEquals(0, m.get(5, 0));
+        assertEquals(0, m.get(1, 4));
+    }
+
+    @Test
+    void unrelatedNounsAreAtMinusOne() throws IOException {
+        WordNet wordnet = forest();
+        String[] nouns = { "s0", "x0", "s12", "x5", "x5" };
+        DistanceMatrix m = wordnet.distanceMatrix(nouns);
+        assertMatrix(pairwise(wordnet, nouns), m);
+        assertEquals(-1, m.get(0, 1));
+        assertEquals(-1, m.get(3, 2));
+        assertEquals(0, m.get(3, 4));
+    }
+
+    @Test
+    void singleNoun() throws IOException {
+        DistanceMatrix m = forest().distanceMatrix(new String[] { "s3" });
+        assertEquals(1, m.size());
+        assertEquals(0, m.get(0, 0));
+        assertArrayEquals(new int[] { 0 }, m.toArray());
+        assertArrayEquals(new int[] { 0 }, m.row(0).toArray());
+        assertThrows(IllegalArgumentException.class, () -> m.get(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> m.row(-1));
+    }
+
+    @Test
+    void rejectsUnknownNouns() throws IOException {
+        WordNet wordnet = forest();
+        assertThrows(IllegalArgumentException.class, () -> wordnet.distanceMatrix(new String[] { "s1", "nothing" }));
+        assertThrows(IllegalArgumentException.class, () -> wordnet.distanceMatrix(null));
+    }
+
+    // a Taxonomy of 600 synsets, and next to it a tree of 20 synsets x0 .. x19
+    // with a root of its own, so that some pairs have no common ancestor
+    private WordNet forest() throws IOException {
+        Taxonomy t = Taxonomy.random(600, 31);
+        String[] files = t.write(dir);
+        StringBuilder synsets = new StringBuilder();
+        StringBuilder hypernyms = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            int v = t.V + i;
+            synsets.append(v).append(",x").append(i).append(",gloss\n");
+            hypernyms.append(v);
+            if (i > 0)
+                hypernyms.append(',').append(t.V + (i - 1) / 2);
+            hypernyms.append('\n');
+        }
+        Files.write(Path.of(files[0]), synsets.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        Files.write(Path.of(files[1]), hypernyms.toString().getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        return WordNet.load(files[0], files[1]);
+    }
+
+    // K nouns drawn with repeats, some of them from the second tree
+    private static String[] draw(WordNet wordnet, int K, long seed) {
+        List<String> all = new ArrayList<String>();
+        for (String noun : wordnet.nouns())
+            all.add(noun);
+        SplittableRandom random = new SplittableRandom(seed);
+        String[] nouns = new String[K];
+        for (int i = 0; i < K; i++)
+            nouns[i] = all.get(random.nextInt(all.size()));
+        return nouns;
+    }
+
+    private static int[][] pairwise(WordNet wordnet, String[] nouns) {
+        int[][] d = new int[nouns.length][nouns.length];
+        for (int i = 0; i < nouns.length; i++) {
+            for (int j = 0; j < nouns.length; j++)
+                d[i][j] = wordnet.distance(nouns[i], nouns[j]);
+        }
+        return d;
+    }
+
+    // every entry through get, row, stream, toArray and writeTo, and symmetry
+    private static void assertMatrix(int[][] expected, DistanceMatrix m) throws IOException {
+        int K = expected.length;
+        assertEquals(K, m.size());
+        int[] flat = new int[K * K];
+        for (int i = 0; i < K; i++) {
+            for (int j = 0; j < K; j++) {
+                assertEquals(expected[i][j], m.get(i, j), i + ", " + j);
+                assertEquals(m.get(i, j), m.get(j, i));
+                flat[i * K + j] = expected[i][j];
+            }
+            assertEquals(0, m.get(i, i));
+            assertArrayEquals(expected[i], m.row(i).toArray());
+        }
+        assertArrayEquals(flat, m.stream().toArray());
+        assertArrayEquals(flat, m.toArray());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        m.writeTo(new DataOutputStream(bytes));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(K, in.readInt());
+        for (int i = 0; i < K * K; i++)
+            assertEquals(flat[i], in.readInt());
+        assertEquals(-1, in.read());
+    }
+}
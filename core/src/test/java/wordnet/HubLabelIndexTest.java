@@ -0,0 +1,107 @@
+package wordnet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// the hub label index against brute force, and its file format
+class HubLabelIndexTest {
+    private static final int V = 300;
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @ValueSource(longs = { 1, 2, 3 })
+    void labelsMatchBruteForce(long seed) {
+        Taxonomy t = Taxonomy.random(V, seed);
+        ShortestCommonAncestor labelled = new ShortestCommonAncestor(t.digraph());
+        labelled.buildLabels();
+        assertAnswers(t, labelled);
+    }
+
+    @Test
+    void savedLabelsLoadBack() {
+        Taxonomy t = Taxonomy.random(V, 8);
+        String file = dir.resolve("labels.bin").toString();
+        ShortestCommonAncestor saved = new ShortestCommonAncestor(t.digraph());
+        saved.saveLabels(file);
+
+        ShortestCommonAncestor loaded = new ShortestCommonAncestor(t.digraph());
+        loaded.loadLabels(file);
+        assertEquals(saved.labelReport(), loaded.labelReport());
+        assertAnswers(t, loaded);
+    }
+
+    @Test
+    void rejectsLabelsOfAnotherGraph() {
+        Taxonomy t = Taxonomy.random(V, 8);
+        String file = dir.resolve("labels.bin").toString();
+        new ShortestCommonAncestor(t.digraph()).saveLabels(file);
+
+        // the same number of vertices and edges, with one edge moved
+        int v = V - 1;
+        while (t.hypernyms[v].length != 1 || t.hypernyms[v][0] == 0)
+            v--;
+        Digraph G = new Digraph(V);
+        for (int x = 0; x < V; x++) {
+            for (int y : t.hypernyms[x])
+                G.addEdge(x, (x == v) ? 0 : y);
+        }
+        ShortestCommonAncestor other = new ShortestCommonAncestor(G);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> other.loadLabels(file));
+        assertTrue(e.getMessage().contains("different graph"), e.getMessage());
+    }
+
+    @Test
+    void rejectsDamagedFile() throws IOException {
+        Taxonomy t = Taxonomy.random(V, 8);
+        Path file = dir.resolve("labels.bin");
+        ShortestCommonAncestor sca = new ShortestCommonAncestor(t.digraph());
+        sca.saveLabels(file.toString());
+        byte[] bytes = Files.readAllBytes(file);
+
+        byte[] flipped = bytes.clone();
+        flipped[flipped.length - 1] ^= 1;
+        Files.write(file, flipped);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> sca.loadLabels(file.toString()));
+        assertTrue(e.getMessage().contains("checksum"), e.getMessage());
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 2));
+        e = assertThrows(IllegalArgumentException.class, () -> sca.loadLabels(file.toString()));
+        assertTrue(e.getMessage().contains("truncated"), e.getMessage());
+    }
+
+    @Test
+    void reportsMemory() {
+        ShortestCommonAncestor sca = new ShortestCommonAncestor(Taxonomy.random(V, 8).digraph());
+        assertNull(sca.labelReport());
+        sca.buildLabels();
+        assertNotNull(sca.labelReport());
+        assertTrue(sca.labelReport().startsWith(V + " vertices"), sca.labelReport());
+    }
+
+    private static void assertAnswers(Taxonomy t, ShortestCommonAncestor sca) {
+        Map<Integer, int[]> ups = Taxonomy.memo();
+        for (int v = 0; v < t.V; v++) {
+            for (int w = v; w < t.V; w++) {
+                Taxonomy.Answer expected = t.answer(v, w, ups);
+                assertEquals(expected.length, sca.length(v, w), v + " " + w);
+                assertTrue(expected.ancestors.contains(sca.ancestor(v, w)), v + " " + w);
+            }
+        }
+    }
+}
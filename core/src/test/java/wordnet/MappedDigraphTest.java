@@ -0,0 +1,112 @@
+package wordnet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+// a digraph served from its written bytes against the heap digraph it came from
+class MappedDigraphTest {
+    private static final int HEADER = 12; // V, E and the byte order mark
+
+    @Test
+    void readsWhatWasWritten() throws IOException {
+        CompactDigraph heap = new CompactDigraph(Taxonomy.random(3000, 17).digraph());
+        byte[] bytes = bytes(heap);
+        MappedDigraph mapped = MappedDigraph.read(ByteBuffer.wrap(bytes));
+        assertSame(heap, mapped);
+        assertSame(heap.reverse(), mapped.reverse());
+        assertEquals(heap.fingerprint(), mapped.fingerprint());
+        assertArrayEquals(bytes, bytes(mapped));
+        assertEquals(heap.toString(), mapped.toString());
+        for (int v = 0; v < heap.V(); v += 97)
+            assertEquals(heap.getDist(v, 0), mapped.getDist(v, 0));
+    }
+
+    @Test
+    void writesInNativeOrder() throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(bytes(new CompactDigraph(Taxonomy.random(10, 1).digraph())));
+        boolean little = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+        assertEquals(little ? MappedDigraph.LITTLE_ENDIAN : MappedDigraph.BIG_ENDIAN, buf.getInt(8));
+        int E = buf.getInt(4);
+        assertEquals(E, buf.order(ByteOrder.nativeOrder()).getInt(HEADER + 4 * 10)); // offsets[V]
+    }
+
+    @Test
+    void readsTheOtherByteOrder() throws IOException {
+        CompactDigraph heap = new CompactDigraph(Taxonomy.random(500, 4).digraph());
+        ByteBuffer buf = ByteBuffer.wrap(bytes(heap));
+        int mark = buf.getInt(8);
+        buf.putInt(8, (mark == MappedDigraph.LITTLE_ENDIAN) ? MappedDigraph.BIG_ENDIAN : MappedDigraph.LITTLE_ENDIAN);
+        for (int p = HEADER; p < buf.limit(); p += 4)
+            buf.putInt(p, Integer.reverseBytes(buf.getInt(p)));
+        assertSame(heap, MappedDigraph.read(buf));
+    }
+
+    @Test
+    void withEdgesMatchesHeapDigraph() throws IOException {
+        CompactDigraph heap = new CompactDigraph(Taxonomy.random(800, 6).digraph());
+        MappedDigraph mapped = MappedDigraph.read(ByteBuffer.wrap(bytes(heap)));
+        int[] tails = { 800, 801, 5, 801 };
+        int[] heads = { 3, 800, 2, 0 };
+        CompactDigraph grown = mapped.withEdges(802, tails, heads, tails.length);
+        assertSame(heap.withEdges(802, tails, heads, tails.length), grown);
+        assertTrue(!(grown instanceof MappedDigraph), "an updated graph lives on the heap");
+    }
+
+    @Test
+    void rejectsUnknownByteOrder() throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(bytes(new CompactDigraph(Taxonomy.random(10, 1).digraph())));
+        buf.putInt(8, 7);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> MappedDigraph.read(buf));
+        assertTrue(e.getMessage().contains("byte order"), e.getMessage());
+    }
+
+    private static byte[] bytes(CompactDigraph G) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        G.write(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    // same rows both ways, through every accessor
+    private static void assertSame(CompactDigraph expected, CompactDigraph G) {
+        assertEquals(expected.V(), G.V());
+        assertEquals(expected.E(), G.E());
+        int[] a = new int[expected.V()], b = new int[expected.V()];
+        for (int v = 0; v < expected.V(); v++) {
+            assertEquals(expected.outdegree(v), G.outdegree(v));
+            assertEquals(expected.indegree(v), G.indegree(v));
+            assertEquals(list(expected.adj(v)), list(G.adj(v)));
+            assertEquals(list(expected.reverseAdj(v)), list(G.reverseAdj(v)));
+            for (int i = 0; i < expected.outdegree(v); i++)
+                assertEquals(expected.neighbor(v, i), G.neighbor(v, i));
+            for (int i = 0; i < expected.indegree(v); i++)
+                assertEquals(expected.reverseNeighbor(v, i), G.reverseNeighbor(v, i));
+            int n = expected.copyNeighbors(v, a);
+            assertEquals(n, G.copyNeighbors(v, b));
+            for (int i = 0; i < n; i++)
+                assertEquals(a[i], b[i]);
+        }
+        assertThrows(IllegalArgumentException.class, () -> G.neighbor(expected.V(), 0));
+        assertThrows(IllegalArgumentException.class, () -> G.outdegree(-1));
+    }
+
+    private static List<Integer> list(Iterable<Integer> items) {
+        List<Integer> list = new ArrayList<Integer>();
+        for (int x : items)
+            list.add(x);
+        return list;
+    }
+}
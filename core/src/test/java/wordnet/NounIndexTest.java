@@ -0,0 +1,150 @@
+package wordnet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+// the packed synset text and noun index, with nouns outside ASCII
+class NounIndexTest {
+    // ids 0 .. 7; a noun may appear in several synsets, and 4 is left out
+    private static final String[] SYNSETS = {
+        "entity",
+        "café coffee_house",
+        "naïve_art café",
+        "Zürich zurich",
+        null,
+        "日本 Japan",
+        "𝄞_clef clef café",
+        "a ab abc",
+    };
+
+    private static SynsetTable table() {
+        SynsetTable.Builder builder = new SynsetTable.Builder();
+        for (int id = SYNSETS.length - 1; id >= 0; id--) {
+            if (SYNSETS[id] != null)
+                builder.add(id, SYNSETS[id]);
+        }
+        return builder.build();
+    }
+
+    // every noun with its synsets, in String order
+    private static Map<String, List<Integer>> expected() {
+        Map<String, List<Integer>> ids = new TreeMap<String, List<Integer>>();
+        for (int id = 0; id < SYNSETS.length; id++) {
+            if (SYNSETS[id] == null)
+                continue;
+            for (String noun : SYNSETS[id].split(" "))
+                ids.computeIfAbsent(noun, k -> new ArrayList<Integer>()).add(id);
+        }
+        return ids;
+    }
+
+    @Test
+    void synsetTableKeepsText() {
+        SynsetTable table = table();
+        assertEquals(SYNSETS.length - 1, table.size());
+        assertEquals(SYNSETS.length, table.range());
+        for (int id = 0; id < SYNSETS.length; id++) {
+            assertEquals(SYNSETS[id] != null, table.contains(id));
+            assertEquals(SYNSETS[id], table.get(id));
+            if (SYNSETS[id] != null) {
+                byte[] text = Arrays.copyOfRange(table.bytes(), table.from(id), table.to(id));
+                assertArrayEquals(SYNSETS[id].getBytes(StandardCharsets.UTF_8), text);
+            }
+        }
+        assertNull(table.get(-1));
+        assertNull(table.get(SYNSETS.length));
+    }
+
+    @Test
+    void findsEveryNounWithAllSynsets() {
+        NounIndex index = NounIndex.build(table());
+        Map<String, List<Integer>> expected = expected();
+        assertEquals(expected.size(), index.size());
+
+        List<String> nouns = new ArrayList<String>();
+        for (String noun : index.nouns())
+            nouns.add(noun);
+        assertEquals(new ArrayList<String>(expected.keySet()), nouns);
+
+        for (Map.Entry<String, List<Integer>> e : expected.entrySet()) {
+            int i = index.find(e.getKey());
+            assertTrue(i >= 0, e.getKey());
+            assertEquals(e.getKey(), index.noun(i));
+            assertEquals(i, index.find(new StringBuilder(e.getKey())), "lookup by CharSequence");
+
+            List<Integer> ids = new ArrayList<Integer>();
+            for (int k = index.from(i); k < index.to(i); k++)
+                ids.add(index.synsets()[k]);
+            assertEquals(e.getValue(), ids, e.getKey());
+        }
+    }
+
+    @Test
+    void missesNounsThatAreNotThere() {
+        NounIndex index = NounIndex.build(table());
+        for (String noun : new String[] { "", "cafe", "caf", "café ", "Zurich", "日", "\uD834", "𝄞", "abcd" })
+            assertEquals(-1, index.find(noun), noun);
+    }
+
+    @Test
+    void addMatchesBuild() {
+        SynsetTable.Builder builder = new SynsetTable.Builder();
+        for (int id = 0; id < 4; id++)
+            builder.add(id, SYNSETS[id]);
+        SynsetTable first = builder.build();
+        NounIndex before = NounIndex.build(first);
+
+        SynsetTable.Builder more = new SynsetTable.Builder(first);
+        for (int id = 5; id < SYNSETS.length; id++)
+            more.add(id, SYNSETS[id]);
+        SynsetTable all = more.build();
+        NounIndex after = before.add(all, 4);
+        NounIndex built = NounIndex.build(all);
+
+        assertEquals(built.size(), after.size());
+        for (int i = 0; i < built.size(); i++) {
+            assertEquals(built.noun(i), after.noun(i));
+            assertEquals(i, after.find(built.noun(i)));
+            assertArrayEquals(Arrays.copyOfRange(built.synsets(), built.from(i), built.to(i)),
+                    Arrays.copyOfRange(after.synsets(), after.from(i), after.to(i)));
+        }
+        assertEquals(-1, before.find("Japan"));
+        assertEquals(4, first.range());
+    }
+
+    @Test
+    void hashesCharsAsTheirUtf8Bytes() {
+        for (String s : new String[] { "", "a", "café", "日本", "𝄞_clef" }) {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            assertEquals(Utf8.hash(b, 0, b.length), Utf8.hash(s), s);
+            assertTrue(Utf8.equals(b, 0, b.length, s), s);
+            assertEquals(s, Utf8.decode(b, 0, b.length));
+        }
+        // an unpaired surrogate encodes as '?', as String.getBytes does
+        assertEquals(Utf8.hash("a?"), Utf8.hash("a\uD834"));
+    }
+
+    @Test
+    void comparesAsStrings() {
+        String[] words = { "a", "ab", "café", "cafe", "Zürich", "zurich", "日本", "𝄞", "�" };
+        for (String x : words) {
+            byte[] b = x.getBytes(StandardCharsets.UTF_8);
+            for (String y : words) {
+                assertEquals(Integer.signum(x.compareTo(y)), Integer.signum(Utf8.compare(b, 0, b.length, y)), x + " " + y);
+                int cut = Integer.signum(x.substring(0, Math.min(x.length(), y.length())).compareTo(y));
+                assertEquals(cut, Integer.signum(Utf8.comparePrefix(b, 0, b.length, y)), x + " " + y);
+            }
+        }
+    }
+}
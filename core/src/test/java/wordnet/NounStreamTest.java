@@ -0,0 +1,99 @@
+package wordnet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// nounStream() and nounsWithPrefix() against sorting and filtering nouns()
+class NounStreamTest {
+    @TempDir
+    Path dir;
+
+    private WordNet wordnet;
+    private List<String> nouns; // every noun, sorted as Strings
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Taxonomy t = Taxonomy.random(2000, 24);
+        String[] files = t.write(dir);
+        // a few nouns outside ASCII, in synsets of their own below the root
+        int V = t.V;
+        String extra = "café Zürich zurich 日本 日本語 𝄞_clef 𝄞";
+        String[] words = extra.split(" ");
+        StringBuilder synsets = new StringBuilder();
+        StringBuilder hypernyms = new StringBuilder();
+        for (int k = 0; k < words.length; k++) {
+            synsets.append(V + k).append(',').append(words[k]).append(",gloss\n");
+            hypernyms.append(V + k).append(",0\n");
+        }
+        Files.write(Path.of(files[0]), synsets.toString().getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+        Files.write(Path.of(files[1]), hypernyms.toString().getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+        wordnet = WordNet.load(files[0], files[1]);
+
+        Stream<String> all = Stream.concat(t.nouns().stream(), Stream.of(words));
+        nouns = all.sorted().collect(Collectors.toList());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { false, true })
+    void streamsEveryNounInOrder(boolean parallel) {
+        Stream<CharSequence> stream = wordnet.nounStream();
+        if (parallel)
+            stream = stream.parallel();
+        assertEquals(nouns, stream.map(CharSequence::toString).collect(Collectors.toList()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "s", "s1", "s12", "s199", "s1999", "s2000", "w", "w2", "x", "r", "ca", "café",
+            "Z", "z", "日", "日本", "日本語", "\uD834", "𝄞", "￿" })
+    void prefixMatchesFilter(String prefix) {
+        List<String> expected = nouns.stream().filter(n -> n.startsWith(prefix)).collect(Collectors.toList());
+        assertEquals(expected, wordnet.nounsWithPrefix(prefix).map(CharSequence::toString)
+                .collect(Collectors.toList()), "sequential");
+        assertEquals(expected, wordnet.nounsWithPrefix(new StringBuilder(prefix)).parallel()
+                .map(CharSequence::toString).collect(Collectors.toList()), "parallel");
+        assertEquals(expected.size(), wordnet.nounsWithPrefix(prefix).count());
+    }
+
+    @Test
+    void spliteratorIsSizedAndSorted() {
+        Spliterator<CharSequence> s = wordnet.nounStream().spliterator();
+        assertTrue(s.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.SORTED
+                | Spliterator.DISTINCT | Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE));
+        assertEquals(nouns.size(), s.getExactSizeIfKnown());
+        Comparator<? super CharSequence> order = s.getComparator();
+        assertNotNull(order);
+        for (int i = 1; i < nouns.size(); i++)
+            assertTrue(order.compare(nouns.get(i - 1), nouns.get(i)) < 0, nouns.get(i));
+
+        // halves split exactly and together cover every noun once
+        Spliterator<CharSequence> front = s.trySplit();
+        assertEquals(nouns.size(), front.estimateSize() + s.estimateSize());
+        assertTrue(Math.abs(front.estimateSize() - s.estimateSize()) <= 1);
+    }
+
+    @Test
+    void rejectsNullPrefix() {
+        assertThrows(IllegalArgumentException.class, () -> wordnet.nounsWithPrefix(null));
+    }
+}
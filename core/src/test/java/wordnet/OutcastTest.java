@@ -0,0 +1,90 @@
+package wordnet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// the outcast of random noun sets against one picked from the Taxonomy oracle
+class OutcastTest {
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 8 })
+    void matchesOracle(int threads) throws IOException {
+        Taxonomy t = Taxonomy.random(1200, 44);
+        String[] files = t.write(dir);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            Outcast outcast = new Outcast(WordNet.load(files[0], files[1]), pool);
+            Map<String, List<Integer>> ids = t.ids();
+            List<String> nouns = t.nouns();
+            Map<Integer, int[]> memo = Taxonomy.memo();
+            SplittableRandom random = new SplittableRandom(threads);
+            for (int q = 0; q < 100; q++) {
+                String[] set = new String[2 + random.nextInt(12)];
+                for (int i = 0; i < set.length; i++)
+                    set[i] = nouns.get(random.nextInt(nouns.size()));
+
+                // the first noun with the largest sum of distances to the others
+                String expected = null;
+                int max = -1;
+                for (String a : set) {
+                    int sum = 0;
+                    for (String b : set)
+                        sum += t.answer(ids.get(a), ids.get(b), memo).length;
+                    if (sum > max) {
+                        max = sum;
+                        expected = a;
+                    }
+                }
+                assertEquals(expected, outcast.outcast(set), String.join(" ", set));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // a deep chain 0 <- 1 <- ... <- 40, synset 41 right under the root, and
+    // synset 42 with no hypernym: the leaf is far from the bottom of the chain,
+    // and the island is unrelated to everything, which outranks any distance
+    @Test
+    void knownOutcasts() throws IOException {
+        WordNet wordnet = chainWithLeaf();
+        Outcast outcast = new Outcast(wordnet);
+        assertEquals("leaf", outcast.outcast(new String[] { "c38", "c39", "leaf", "c40", "c37" }));
+        assertEquals("island", outcast.outcast(new String[] { "c38", "leaf", "island", "c0" }));
+        assertEquals("c0", outcast.outcast(new String[] { "c30", "c0", "c31", "c29" }));
+        assertEquals("", outcast.outcast(new String[0]));
+        assertThrows(IllegalArgumentException.class, () -> outcast.outcast(null));
+    }
+
+    private WordNet chainWithLeaf() throws IOException {
+        StringBuilder synsets = new StringBuilder();
+        StringBuilder hypernyms = new StringBuilder();
+        for (int v = 0; v <= 40; v++) {
+            synsets.append(v).append(",c").append(v).append(",gloss\n");
+            hypernyms.append(v).append(v > 0 ? "," + (v - 1) : "").append('\n');
+        }
+        synsets.append("41,leaf,gloss\n");
+        hypernyms.append("41,0\n");
+        synsets.append("42,island,gloss\n");
+        hypernyms.append("42\n");
+        Path s = dir.resolve("synsets.txt"), h = dir.resolve("hypernyms.txt");
+        Files.writeString(s, synsets);
+        Files.writeString(h, hypernyms);
+        return WordNet.load(s.toString(), h.toString());
+    }
+}
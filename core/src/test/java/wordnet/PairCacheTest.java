@@ -0,0 +1,190 @@
+package wordnet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// the result cache against an access-ordered LinkedHashMap, and cached WordNet
+// answers against uncached ones
+class PairCacheTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void keyIsTheSameBothWays() {
+        assertEquals(PairCache.key(3, 17), PairCache.key(17, 3));
+        assertEquals(PairCache.key(0, Integer.MAX_VALUE), PairCache.key(Integer.MAX_VALUE, 0));
+        assertNotEquals(PairCache.key(3, 17), PairCache.key(3, 18));
+        assertNotEquals(PairCache.key(1, 2), PairCache.key(2, 2));
+
+        PairCache cache = new PairCache(8);
+        cache.put(PairCache.key(5, 9), 42);
+        assertEquals(42, cache.get(PairCache.key(9, 5)));
+        assertEquals(1, cache.size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 2, 3, 31, 100, 4096 })
+    void neverHoldsMoreThanItsCapacity(int capacity) {
+        PairCache cache = new PairCache(capacity);
+        int n = 20 * capacity + 100;
+        for (int i = 0; i < n; i++) {
+            cache.put(PairCache.key(i, i + 1), i);
+            assertTrue(cache.size() <= capacity);
+        }
+        assertTrue(cache.size() >= capacity / 2, cache.toString());
+        assertEquals(n - cache.size(), cache.evictions());
+    }
+
+    @Test
+    void evictsTheLeastRecentlyUsed() {
+        PairCache cache = new PairCache(4, 1);
+        for (int i = 1; i <= 4; i++)
+            cache.put(i, 10 * i);
+        assertEquals(10, cache.get(1)); // 2 is now the least recently used
+        cache.put(5, 50);
+        assertEquals(PairCache.ABSENT, cache.get(2));
+        cache.put(3, 31); // an update is a use too, so 4 goes next
+        cache.put(6, 60);
+        assertEquals(PairCache.ABSENT, cache.get(4));
+        assertEquals(10, cache.get(1));
+        assertEquals(31, cache.get(3));
+        assertEquals(50, cache.get(5));
+        assertEquals(60, cache.get(6));
+        assertEquals(2, cache.evictions());
+    }
+
+    // random gets and puts on one stripe match the same on a LinkedHashMap in
+    // access order, evictions and counters included; the keys collide in the
+    // table often enough to exercise removal from a probe run
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 7, 64, 1000 })
+    void matchesLinkedHashMap(int limit) {
+        PairCache cache = new PairCache(limit, 1);
+        Map<Long, Long> model = new LinkedHashMap<Long, Long>(16, 0.75f, true);
+        SplittableRandom random = new SplittableRandom(limit);
+        long hits = 0, misses = 0, evictions = 0;
+        for (int op = 0; op < 200000; op++) {
+            long key = PairCache.key(random.nextInt(3 * limit), random.nextInt(3));
+            if (random.nextBoolean()) {
+                Long expected = model.get(key);
+                assertEquals(expected == null ? PairCache.ABSENT : expected, cache.get(key), "op " + op);
+                if (expected == null)
+                    misses++;
+                else
+                    hits++;
+            }
+            else {
+                long value = random.nextLong(1L << 40);
+                cache.put(key, value);
+                model.put(key, value);
+                if (model.size() > limit) {
+                    model.remove(model.keySet().iterator().next());
+                    evictions++;
+                }
+            }
+        }
+        assertEquals(model.size(), cache.size());
+        assertEquals(hits, cache.hits());
+        assertEquals(misses, cache.misses());
+        assertEquals(evictions, cache.evictions());
+    }
+
+    @Test
+    void countsHitsMissesAndEvictions() {
+        PairCache cache = new PairCache(2, 1);
+        assertEquals(PairCache.ABSENT, cache.get(7));
+        cache.put(7, 1);
+        cache.put(8, 2);
+        assertEquals(1, cache.get(7));
+        cache.put(9, 3); // evicts 8
+        assertEquals(PairCache.ABSENT, cache.get(8));
+        assertEquals(1, cache.hits());
+        assertEquals(2, cache.misses());
+        assertEquals(1, cache.evictions());
+        assertEquals("2/2 entries, 1 hits, 2 misses, 1 evictions", cache.toString());
+    }
+
+    @Test
+    void rejectsInvalidSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new PairCache(0));
+        assertThrows(IllegalArgumentException.class, () -> new PairCache(8, 3));
+    }
+
+    @Test
+    void wordnetHitsTheSameEntryBothWays() throws IOException {
+        Taxonomy t = Taxonomy.random(200, 13);
+        String[] files = t.write(dir);
+        WordNet wordnet = WordNet.load(files[0], files[1]);
+        wordnet.enableCache(16);
+        int d = wordnet.distance("s150", "s42");
+        assertEquals(d, wordnet.distance("s42", "s150"));
+        wordnet.sca("s150", "s42");
+        assertEquals("1/16 entries, 2 hits, 1 misses, 0 evictions", wordnet.cacheStats());
+    }
+
+    // a small cache under many threads, so that entries are evicted while other
+    // threads read them, answers exactly as an uncached WordNet does
+    @Test
+    void cachedAnswersEqualUncachedUnderConcurrency() throws Exception {
+        Taxonomy t = Taxonomy.random(2000, 21);
+        String[] files = t.write(dir);
+        WordNet plain = WordNet.load(files[0], files[1]);
+        WordNet cached = WordNet.load(files[0], files[1]);
+        cached.enableCache(64);
+
+        List<String> nouns = t.nouns();
+        SplittableRandom random = new SplittableRandom(5);
+        String[][] pairs = new String[4000][];
+        for (int i = 0; i < pairs.length; i++) {
+            // few enough distinct nouns that pairs repeat
+            pairs[i] = new String[] { nouns.get(random.nextInt(60)), nouns.get(random.nextInt(60)) };
+        }
+        int[] distances = new int[pairs.length];
+        String[] ancestors = new String[pairs.length];
+        for (int i = 0; i < pairs.length; i++) {
+            distances[i] = plain.distance(pairs[i][0], pairs[i][1]);
+            ancestors[i] = plain.sca(pairs[i][0], pairs[i][1]);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int thread = 0; thread < 8; thread++) {
+                int start = thread;
+                futures.add(pool.submit(() -> {
+                    for (int round = 0; round < 3; round++) {
+                        for (int k = 0; k < pairs.length; k++) {
+                            int i = (start * 499 + k) % pairs.length;
+                            assertEquals(distances[i], cached.distance(pairs[i][1], pairs[i][0]));
+                            assertEquals(ancestors[i], cached.sca(pairs[i][0], pairs[i][1]));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> f : futures)
+                f.get();
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(cached.cacheStats().matches("\\d+/64 entries, [1-9]\\d* hits, \\d+ misses, [1-9]\\d* evictions"),
+                cached.cacheStats());
+    }
+}
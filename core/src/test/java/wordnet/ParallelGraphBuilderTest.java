@@ -0,0 +1,129 @@
+package wordnet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// the parallel loader against the serial one, on pools of several sizes and
+// with chunks small enough to cut lines in the middle
+class ParallelGraphBuilderTest {
+    private static final int[] CHUNKS = { 1, 7, 64, 1 << 12 }; // fewest bytes per parse task
+
+    @TempDir
+    Path dir;
+
+    // 0 stands for a pool as wide as the machine
+    @ParameterizedTest
+    @ValueSource(ints = { 1, 2, 3, 0 })
+    void matchesSerialLoader(int parallelism) throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        try {
+            // the large taxonomy has more vertices and edges than one leaf task takes
+            for (int V : new int[] { 300, 40000 }) {
+                String[] files = Taxonomy.random(V, V).write(Files.createDirectories(dir.resolve("t" + V)));
+                CompactDigraph expected = WordNetLoader.readHypernyms(files[1], V);
+                int root = ParallelGraphBuilder.root(expected, ForkJoinPool.commonPool());
+                assertEquals(0, root);
+                for (int chunk : CHUNKS) {
+                    CompactDigraph G = ParallelGraphBuilder.readHypernyms(files[1], V, pool, chunk);
+                    assertSameGraph(expected, G, V + " vertices, chunks of " + chunk);
+                    assertEquals(root, ParallelGraphBuilder.root(G, pool));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void matchesSerialLoaderOnWindowsLineBreaks() throws IOException {
+        Path unix = Path.of(Taxonomy.random(500, 9).write(dir)[1]);
+        String text = new String(Files.readAllBytes(unix), StandardCharsets.UTF_8).replace("\n", "\r\n");
+        String file = Files.write(dir.resolve("crlf.txt"), text.getBytes(StandardCharsets.UTF_8)).toString();
+        CompactDigraph expected = WordNetLoader.readHypernyms(file, 500);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int chunk : CHUNKS)
+                assertSameGraph(expected, ParallelGraphBuilder.readHypernyms(file, 500, pool, chunk), "chunks of " + chunk);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void freezeMatchesCompactDigraph() {
+        Taxonomy t = Taxonomy.random(40000, 3);
+        CompactDigraph expected = new CompactDigraph(t.digraph());
+        int V = expected.V();
+        int[] offsets = new int[V + 1];
+        int[] targets = new int[expected.E()];
+        for (int v = 0, i = 0; v < V; v++) {
+            for (int k = 0; k < expected.outdegree(v); k++)
+                targets[i++] = expected.neighbor(v, k);
+            offsets[v + 1] = i;
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertSameGraph(expected, ParallelGraphBuilder.freeze(V, offsets, targets, pool), "freeze");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsGraphWithoutRoot() throws IOException {
+        // every synset has a hypernym, so there is a cycle and no root
+        String file = Files.write(dir.resolve("h.txt"), "0,2\n1,0\n2,1\n".getBytes(StandardCharsets.UTF_8)).toString();
+        assertRejected(file, 3);
+    }
+
+    @Test
+    void rejectsGraphWithTwoRoots() throws IOException {
+        String file = Files.write(dir.resolve("h.txt"), "0\n1\n2,0,1\n3,2\n".getBytes(StandardCharsets.UTF_8)).toString();
+        assertRejected(file, 4);
+    }
+
+    @Test
+    void emptyGraphHasNoRoot() {
+        assertEquals(-1, ParallelGraphBuilder.root(new Digraph(0), ForkJoinPool.commonPool()));
+    }
+
+    private static void assertRejected(String file, int V) {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            CompactDigraph G = ParallelGraphBuilder.readHypernyms(file, V, pool, 1);
+            assertEquals(-1, ParallelGraphBuilder.root(G, pool));
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> new ShortestCommonAncestor(G));
+            assertTrue(e.getMessage().contains("rooted DAG"), e.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // same rows in the same order both ways, and so the same fingerprint
+    private static void assertSameGraph(CompactDigraph expected, CompactDigraph G, String what) {
+        assertEquals(expected.V(), G.V(), what);
+        assertEquals(expected.E(), G.E(), what);
+        for (int v = 0; v < expected.V(); v++) {
+            assertEquals(expected.outdegree(v), G.outdegree(v), what);
+            for (int i = 0; i < expected.outdegree(v); i++)
+                assertEquals(expected.neighbor(v, i), G.neighbor(v, i), what);
+            assertEquals(expected.indegree(v), G.indegree(v), what);
+            for (int i = 0; i < expected.indegree(v); i++)
+                assertEquals(expected.reverseNeighbor(v, i), G.reverseNeighbor(v, i), what);
+        }
+        assertEquals(expected.fingerprint(), G.fingerprint(), what);
+    }
+}
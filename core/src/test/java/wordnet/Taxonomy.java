@@ -0,0 +1,249 @@
+/******************************************************************************
+ *  Random rooted DAGs of synsets, with a brute-force oracle, for the tests.
+ ******************************************************************************/
+
+package wordnet;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The Taxonomy class draws a rooted DAG of synsets from a fixed seed: synset 0
+ * is the root and every other synset has one to three hypernyms with smaller
+ * ids, so the graph is acyclic by construction. Each synset has a noun of its
+ * own, and some share a second noun, so nouns have several senses.
+ * <p>
+ * The answers the tests expect come from a plain breadth-first search over
+ * these lists, with none of the code under test involved.
+ */
+final class Taxonomy {
+    final int V;
+    final String[] synsets; // space-separated nouns of each synset
+    final int[][] hypernyms; // hypernyms of each synset, in file order
+
+    private Taxonomy(String[] synsets, int[][] hypernyms) {
+        this.V = synsets.length;
+        this.synsets = synsets;
+        this.hypernyms = hypernyms;
+    }
+
+    /**
+     * Draws a taxonomy.
+     *
+     * @param V    the number of synsets
+     * @param seed the seed of the draw
+     * @return the taxonomy
+     */
+    static Taxonomy random(int V, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        String[] synsets = new String[V];
+        int[][] hypernyms = new int[V][];
+        for (int v = 0; v < V; v++) {
+            synsets[v] = "s" + v;
+            if (v > 0 && random.nextInt(3) == 0)
+                synsets[v] += " w" + random.nextInt(Math.max(1, V / 8));
+
+            int degree = (v == 0) ? 0 : Math.min(v, random.nextInt(5) == 0 ? 2 + random.nextInt(2) : 1);
+            TreeSet<Integer> up = new TreeSet<Integer>();
+            while (up.size() < degree) {
+                // mostly close parents, for long chains, and some far ones
+                up.add(random.nextBoolean() ? v - 1 - random.nextInt(Math.min(v, 4)) : random.nextInt(v));
+            }
+            hypernyms[v] = new int[degree];
+            int i = 0;
+            for (int w : up)
+                hypernyms[v][i++] = w;
+        }
+        return new Taxonomy(synsets, hypernyms);
+    }
+
+    /**
+     * Returns the first V synsets of this taxonomy, which are closed under
+     * their hypernyms.
+     *
+     * @param V the number of synsets to keep
+     * @return the smaller taxonomy
+     */
+    Taxonomy prefix(int V) {
+        return new Taxonomy(Arrays.copyOf(synsets, V), Arrays.copyOf(hypernyms, V));
+    }
+
+    /**
+     * Returns the first V synsets with only the first hypernym of each: a
+     * taxonomy that adding the other synsets and hypernyms grows back into this
+     * one.
+     *
+     * @param V the number of synsets to keep
+     * @return the smaller taxonomy, still rooted at synset 0
+     */
+    Taxonomy base(int V) {
+        int[][] kept = new int[V][];
+        for (int v = 0; v < V; v++)
+            kept[v] = Arrays.copyOf(hypernyms[v], Math.min(1, hypernyms[v].length));
+        return new Taxonomy(Arrays.copyOf(synsets, V), kept);
+    }
+
+    /**
+     * Writes synsets.txt and hypernyms.txt into the directory.
+     *
+     * @param dir the directory
+     * @return the paths of the synsets file and the hypernyms file
+     * @throws IOException if a file cannot be written
+     */
+    String[] write(Path dir) throws IOException {
+        Path s = dir.resolve("synsets.txt");
+        Path h = dir.resolve("hypernyms.txt");
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(s, StandardCharsets.UTF_8))) {
+            for (int v = 0; v < V; v++)
+                out.print(v + "," + synsets[v] + ",gloss of synset " + v + "\n");
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(h, StandardCharsets.UTF_8))) {
+            for (int v = 0; v < V; v++) {
+                out.print(v);
+                for (int w : hypernyms[v])
+                    out.print("," + w);
+                out.print("\n");
+            }
+        }
+        return new String[] { s.toString(), h.toString() };
+    }
+
+    /**
+     * Builds the hypernym graph with Digraph.addEdge.
+     *
+     * @return the graph
+     */
+    Digraph digraph() {
+        Digraph G = new Digraph(V);
+        for (int v = 0; v < V; v++) {
+            for (int w : hypernyms[v])
+                G.addEdge(v, w);
+        }
+        return G;
+    }
+
+    /**
+     * Returns every noun of the taxonomy, sorted.
+     *
+     * @return the nouns
+     */
+    List<String> nouns() {
+        return new ArrayList<String>(ids().keySet());
+    }
+
+    /**
+     * Returns the synsets of every noun.
+     *
+     * @return the ids of the synsets each noun belongs to, by noun
+     */
+    Map<String, List<Integer>> ids() {
+        Map<String, List<Integer>> ids = new TreeMap<String, List<Integer>>();
+        for (int v = 0; v < V; v++) {
+            for (String noun : synsets[v].split(" "))
+                ids.computeIfAbsent(noun, k -> new ArrayList<Integer>()).add(v);
+        }
+        return ids;
+    }
+
+    /**
+     * Returns the distance from v to each of its ancestors, by breadth-first
+     * search up the hypernym lists.
+     *
+     * @param v the synset
+     * @return the distance to each synset, or -1 if it is not an ancestor of v
+     */
+    int[] up(int v) {
+        int[] dist = new int[V];
+        Arrays.fill(dist, -1);
+        int[] queue = new int[V];
+        int head = 0, tail = 0;
+        dist[v] = 0;
+        queue[tail++] = v;
+        while (head < tail) {
+            int x = queue[head++];
+            for (int y : hypernyms[x]) {
+                if (dist[y] < 0) {
+                    dist[y] = dist[x] + 1;
+                    queue[tail++] = y;
+                }
+            }
+        }
+        return dist;
+    }
+
+    /**
+     * The oracle for one query: the shortest ancestral path between any of the
+     * synsets a and any of the synsets b.
+     */
+    final class Answer {
+        final int length; // length of a shortest ancestral path, or -1
+        final HashSet<Integer> ancestors = new HashSet<Integer>(); // every ancestor at that length
+
+        Answer(List<Integer> a, List<Integer> b, Map<Integer, int[]> ups) {
+            int best = Integer.MAX_VALUE;
+            for (int v : a) {
+                int[] dv = ups.computeIfAbsent(v, Taxonomy.this::up);
+                for (int w : b) {
+                    int[] dw = ups.computeIfAbsent(w, Taxonomy.this::up);
+                    for (int x = 0; x < V; x++) {
+                        if (dv[x] < 0 || dw[x] < 0)
+                            continue;
+                        int d = dv[x] + dw[x];
+                        if (d < best) {
+                            best = d;
+                            ancestors.clear();
+                        }
+                        if (d == best)
+                            ancestors.add(x);
+                    }
+                }
+            }
+            this.length = (best == Integer.MAX_VALUE) ? -1 : best;
+        }
+    }
+
+    /**
+     * Answers a query between two sets of synsets.
+     *
+     * @param a   the synsets on one side
+     * @param b   the synsets on the other side
+     * @param ups the ancestor distances found so far, by synset; filled in
+     * @return the answer
+     */
+    Answer answer(List<Integer> a, List<Integer> b, Map<Integer, int[]> ups) {
+        return new Answer(a, b, ups);
+    }
+
+    /**
+     * Answers a query between two synsets.
+     *
+     * @param v   one synset
+     * @param w   the other synset
+     * @param ups the ancestor distances found so far, by synset; filled in
+     * @return the answer
+     */
+    Answer answer(int v, int w, Map<Integer, int[]> ups) {
+        return new Answer(Arrays.asList(v), Arrays.asList(w), ups);
+    }
+
+    /**
+     * Returns an empty memo for answer().
+     *
+     * @return a map to pass to answer()
+     */
+    static Map<Integer, int[]> memo() {
+        return new HashMap<Integer, int[]>();
+    }
+}
@@ -0,0 +1,121 @@
+package wordnet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+// generation stamps across the wrap-around of the counter, and the ring
+// buffer queue against an ArrayDeque
+class TraversalContextTest {
+
+    @Test
+    void resetUnmarksEverything() {
+        TraversalContext c = new TraversalContext(8);
+        c.reset();
+        assertTrue(c.visit(3, 2));
+        assertFalse(c.visit(3, 5));
+        assertEquals(2, c.dist(3));
+        c.reset();
+        assertFalse(c.isMarked(3));
+        assertEquals(-1, c.dist(3));
+        assertTrue(c.visit(3, 7));
+        assertEquals(7, c.dist(3));
+    }
+
+    // a stamp left from generation 1 would look current again once the counter
+    // wraps to 0 and restarts at 1, unless the marks are cleared
+    @Test
+    void wrapAroundClearsOldStamps() {
+        TraversalContext c = new TraversalContext(8);
+        c.reset(); // generation 1
+        c.visit(4, 1);
+        c.setGeneration(-1);
+        c.reset(); // wraps to 0, clears, restarts at 1
+        assertFalse(c.isMarked(4));
+        assertEquals(-1, c.dist(4));
+        assertTrue(c.visit(4, 3));
+        assertEquals(3, c.dist(4));
+    }
+
+    @Test
+    void overflowToNegativeGenerations() {
+        TraversalContext c = new TraversalContext(8);
+        c.setGeneration(Integer.MAX_VALUE - 1);
+        c.reset(); // Integer.MAX_VALUE
+        c.visit(2, 1);
+        assertTrue(c.isMarked(2));
+        c.reset(); // overflows to Integer.MIN_VALUE
+        assertFalse(c.isMarked(2));
+        assertTrue(c.visit(2, 4));
+        assertEquals(4, c.dist(2));
+        c.reset();
+        assertFalse(c.isMarked(2));
+    }
+
+    // the thread's own contexts, pushed to just before the wrap, answer a run
+    // of searches across it exactly as the oracle does
+    @Test
+    void searchesAcrossTheWrapAround() {
+        Taxonomy t = Taxonomy.random(800, 3);
+        CompactDigraph G = new CompactDigraph(t.digraph());
+        AncestorSearch search = new AncestorSearch(G);
+        Map<Integer, int[]> memo = Taxonomy.memo();
+        SplittableRandom random = new SplittableRandom(3);
+        for (int start : new int[] { -20, Integer.MAX_VALUE - 20 }) {
+            TraversalContext.forThread(0, G.V()).setGeneration(start);
+            TraversalContext.forThread(1, G.V()).setGeneration(start + 7);
+            for (int q = 0; q < 60; q++) {
+                int v = random.nextInt(G.V()), w = random.nextInt(G.V());
+                search.search(v, w);
+                Taxonomy.Answer expected = t.answer(v, w, memo);
+                assertEquals(expected.length, search.length(), v + " " + w);
+                assertTrue(expected.ancestors.contains(search.ancestor()), v + " " + w);
+            }
+        }
+    }
+
+    @Test
+    void forThreadReusesItsContexts() {
+        TraversalContext c = TraversalContext.forThread(0, 100);
+        c.visit(7, 0);
+        assertSame(c, TraversalContext.forThread(0, 50));
+        assertFalse(c.isMarked(7));
+        assertNotSame(c, TraversalContext.forThread(1, 100));
+        TraversalContext larger = TraversalContext.forThread(0, 200);
+        larger.visit(199, 0);
+        assertTrue(larger.isMarked(199));
+    }
+
+    @Test
+    void queueMatchesArrayDeque() {
+        TraversalContext c = new TraversalContext(1);
+        ArrayDeque<Integer> model = new ArrayDeque<Integer>();
+        SplittableRandom random = new SplittableRandom(1);
+        for (int op = 0; op < 100000; op++) {
+            // grows while the ring has wrapped, as well as while it has not
+            if (model.isEmpty() || random.nextInt(5) < 3) {
+                int v = random.nextInt();
+                c.enqueue(v);
+                model.addLast(v);
+            }
+            else
+                assertEquals((int) model.removeFirst(), c.dequeue());
+            assertEquals(model.size(), c.queueSize());
+        }
+        while (!model.isEmpty())
+            assertEquals((int) model.removeFirst(), c.dequeue());
+        assertThrows(IllegalStateException.class, c::dequeue);
+        c.enqueue(5);
+        c.reset();
+        assertEquals(0, c.queueSize());
+    }
+}
@@ -0,0 +1,120 @@
+package wordnet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// distance() and sca() between nouns of several senses, answered through the
+// index, the labels and the ancestor cache of the engine, against brute force
+class WordNetIndexesTest {
+    private static final int V = 600;
+
+    @TempDir
+    Path dir;
+
+    @AfterEach
+    void tearDown() {
+        Metrics.disable();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "search", "index", "labels", "loaded labels", "cache", "index cache" })
+    void answersMatchBruteForce(String mode) throws IOException {
+        Taxonomy t = Taxonomy.random(V, 31);
+        String[] files = t.write(dir);
+        WordNet wordnet = WordNet.load(files[0], files[1]);
+        if (mode.contains("index"))
+            wordnet.buildIndex();
+        if (mode.equals("labels"))
+            wordnet.buildLabels();
+        if (mode.equals("loaded labels")) {
+            String labels = dir.resolve("labels.bin").toString();
+            WordNet.load(files[0], files[1]).saveLabels(labels);
+            wordnet.loadLabels(labels);
+        }
+        if (mode.contains("cache"))
+            wordnet.enableAncestorCache(1 << 12);
+
+        CountingRegistry counter = new CountingRegistry();
+        Metrics.install(counter);
+        Map<String, List<Integer>> ids = t.ids();
+        Map<Integer, int[]> memo = Taxonomy.memo();
+        List<String> nouns = new ArrayList<String>(ids.keySet());
+        int pairs = 0, several = 0;
+        for (int i = 0; i < nouns.size(); i += 7) {
+            for (int j = i % 5; j < nouns.size(); j += 11) {
+                String a = nouns.get(i), b = nouns.get(j);
+                Taxonomy.Answer expected = t.answer(ids.get(a), ids.get(b), memo);
+                assertEquals(expected.length, wordnet.distance(a, b), a + " " + b);
+                String sca = wordnet.sca(a, b);
+                assertTrue(expected.ancestors.stream().anyMatch(x -> t.synsets[x].equals(sca)), a + " " + b + ": " + sca);
+                pairs++;
+                if (ids.get(a).size() > 1 || ids.get(b).size() > 1)
+                    several++;
+            }
+        }
+        assertTrue(several > 100, "only " + several + " pairs with several senses");
+
+        // with labels or a cache, no pair needs a search, whatever its senses
+        if (mode.contains("labels") || mode.contains("cache"))
+            assertEquals(0, counter.get(Metric.ANSWERED_BY_SEARCH));
+        if (mode.contains("labels"))
+            assertEquals(2 * pairs, counter.get(Metric.ANSWERED_BY_LABELS));
+        if (mode.equals("search"))
+            assertEquals(2 * pairs, counter.get(Metric.ANSWERED_BY_SEARCH));
+        if (mode.equals("index"))
+            assertTrue(counter.get(Metric.ANSWERED_BY_INDEX) > 0);
+    }
+
+    @Test
+    void indexAnswersNounsWhoseSensesAreAllChains() {
+        // two nouns of two senses each, on a tree, so every sense is a chain vertex
+        Digraph tree = new Digraph(7);
+        int[][] edges = { { 1, 0 }, { 2, 0 }, { 3, 1 }, { 4, 1 }, { 5, 2 }, { 6, 5 } };
+        for (int[] e : edges)
+            tree.addEdge(e[0], e[1]);
+        ShortestCommonAncestor engine = new ShortestCommonAncestor(tree);
+        engine.buildIndex();
+        AncestorSearch s = engine.searcher();
+        CountingRegistry counter = new CountingRegistry();
+        Metrics.install(counter);
+
+        int[] senses = { 3, 6, 4, 5 };
+        s.search(senses, 0, 2, senses, 2, 4);
+        assertEquals(1, counter.get(Metric.ANSWERED_BY_INDEX));
+        assertEquals(0, counter.get(Metric.ANSWERED_BY_SEARCH));
+        assertEquals(1, s.length()); // 6 and 5
+        assertEquals(5, s.ancestor());
+
+        s.search(senses, 0, 1, senses, 2, 3);
+        assertEquals(2, s.length()); // 3 and 4 below 1
+        assertEquals(1, s.ancestor());
+    }
+
+    @Test
+    void switchesRequireRootedDag() throws IOException {
+        Taxonomy t = Taxonomy.random(50, 2);
+        String[] files = t.write(dir);
+        // a second root
+        Files.write(Path.of(files[0]), "50,orphan,gloss\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        WordNet wordnet = WordNet.load(files[0], files[1]);
+        assertThrows(IllegalArgumentException.class, wordnet::buildIndex);
+        assertThrows(IllegalArgumentException.class, () -> wordnet.enableAncestorCache(100));
+        assertThrows(IllegalArgumentException.class, () -> wordnet.loadLabels(null));
+    }
+}
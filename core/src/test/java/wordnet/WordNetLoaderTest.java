@@ -0,0 +1,97 @@
+package wordnet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// the byte-level loader against Digraph, and the malformed input it must reject
+class WordNetLoaderTest {
+    @TempDir
+    Path dir;
+
+    private String file(String name, String text) throws IOException {
+        return Files.write(dir.resolve(name), text.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    @Test
+    void readsTheSameGraphAsDigraph() throws IOException {
+        Taxonomy t = Taxonomy.random(1000, 5);
+        String[] files = t.write(dir);
+        SynsetTable synsets = WordNetLoader.readSynsets(files[0]);
+        assertEquals(t.V, synsets.size());
+        for (int v = 0; v < t.V; v++)
+            assertEquals(t.synsets[v], synsets.get(v));
+
+        CompactDigraph G = WordNetLoader.readHypernyms(files[1], t.V);
+        assertEquals(new CompactDigraph(t.digraph()).fingerprint(), G.fingerprint());
+    }
+
+    @Test
+    void acceptsWindowsLineBreaks() throws IOException {
+        String hypernyms = file("h.txt", "0\r\n1,0\r\n2,1,0");
+        CompactDigraph G = WordNetLoader.readHypernyms(hypernyms, 3);
+        assertEquals(3, G.E());
+        assertEquals(0, G.neighbor(2, 0)); // most recent edge first
+        assertEquals(1, G.neighbor(2, 1));
+    }
+
+    @Test
+    void largestIntIsOutOfRangeNotTooLarge() throws IOException {
+        String hypernyms = file("h.txt", "0\n1," + Integer.MAX_VALUE + "\n");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> WordNetLoader.readHypernyms(hypernyms, 2));
+        assertTrue(e.getMessage().contains("is not between"), e.getMessage());
+    }
+
+    // 2^32 + 1 used to wrap around to synset 1, and 2^31 to a negative id
+    @ParameterizedTest
+    @ValueSource(strings = { "4294967297,0", "2147483648,0", "1,2147483648", "1,99999999999999999999" })
+    void rejectsNumbersThatOverflow(String line) throws IOException {
+        String hypernyms = file("h.txt", "0\n" + line + "\n");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> WordNetLoader.readHypernyms(hypernyms, 2));
+        assertTrue(e.getMessage().contains("too large"), e.getMessage());
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            e = assertThrows(IllegalArgumentException.class,
+                    () -> ParallelGraphBuilder.readHypernyms(hypernyms, 2, pool));
+            assertTrue(e.getMessage().contains("too large"), e.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsSynsetIdThatOverflows() throws IOException {
+        String synsets = file("s.txt", "0,a,gloss\n4294967297,b,gloss\n");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> WordNetLoader.readSynsets(synsets));
+        assertTrue(e.getMessage().contains("too large"), e.getMessage());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "1,2", "2,0", "1,-1", "1,,0", "1,0,", "x,0", "1;0" })
+    void rejectsMalformedLines(String line) throws IOException {
+        String hypernyms = file("h.txt", "0\n" + line + "\n");
+        assertThrows(IllegalArgumentException.class, () -> WordNetLoader.readHypernyms(hypernyms, 2));
+    }
+
+    @Test
+    void validateChecksBothEnds() {
+        WordNetLoader.validate(0, 1, "f");
+        assertThrows(IllegalArgumentException.class, () -> WordNetLoader.validate(-1, 1, "f"));
+        assertThrows(IllegalArgumentException.class, () -> WordNetLoader.validate(1, 1, "f"));
+    }
+}
@@ -0,0 +1,173 @@
+package wordnet;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// batches from many threads against serial queries, updates published while a
+// batch is still running, and who shuts down the executor
+class WordNetServiceTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void batchesFromManyThreadsMatchSerialDistance() throws Exception {
+        Taxonomy t = Taxonomy.random(3000, 8);
+        String[] files = t.write(dir);
+        WordNet wordnet = WordNet.load(files[0], files[1]);
+        List<String> nouns = t.nouns();
+        SplittableRandom random = new SplittableRandom(8);
+        String[][] pairs = new String[5000][];
+        int[] expected = new int[pairs.length];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = new String[] { nouns.get(random.nextInt(nouns.size())), nouns.get(random.nextInt(nouns.size())) };
+            expected[i] = wordnet.distance(pairs[i][0], pairs[i][1]);
+        }
+
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        ExecutorService shared = Executors.newFixedThreadPool(3);
+        try (WordNetService owned = new WordNetService(wordnet, 8);
+             WordNetService borrowed = new WordNetService(wordnet, shared, 3)) {
+            assertArrayEquals(expected, owned.distances(pairs));
+            List<Future<int[]>> batches = new ArrayList<Future<int[]>>();
+            for (int k = 0; k < 8; k++) {
+                WordNetService service = (k % 2 == 0) ? owned : borrowed;
+                batches.add(callers.submit(() -> service.distances(pairs)));
+            }
+            for (Future<int[]> batch : batches)
+                assertArrayEquals(expected, batch.get());
+            for (int i = 0; i < pairs.length; i += 50)
+                assertEquals(expected[i], owned.distance(pairs[i][0], pairs[i][1]));
+            assertArrayEquals(new int[0], owned.distances(new String[0][]));
+        } finally {
+            callers.shutdown();
+            shared.shutdown();
+        }
+    }
+
+    // a batch reads the WordNet once, before its tasks start: while its tasks
+    // are held back, an update goes through and later queries see it, and the
+    // batch still answers from the WordNet it started with
+    @Test
+    void updatePublishesWhileBatchIsInFlight() throws Exception {
+        WordNet chain = chain(41);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch gate = new CountDownLatch(1);
+        ThreadPoolExecutor held = new ThreadPoolExecutor(2, 2, 0, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>()) {
+            @Override
+            protected void beforeExecute(Thread thread, Runnable task) {
+                started.countDown();
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try (WordNetService service = new WordNetService(chain, held, 2)) {
+            String[][] pairs = new String[16][];
+            for (int i = 0; i < pairs.length; i++)
+                pairs[i] = new String[] { "c40", "c" + i };
+            Future<int[]> batch = caller.submit(() -> service.distances(pairs));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            WordNet next = service.update(new WordNetUpdate().addHypernym(40, 0));
+            assertSame(next, service.wordnet());
+            assertEquals(1, service.distance("c40", "c0"));
+            assertEquals("c0", service.sca("c40", "c3"));
+            assertFalse(batch.isDone(), "the batch was held back");
+
+            gate.countDown();
+            int[] distances = batch.get(10, TimeUnit.SECONDS);
+            for (int i = 0; i < pairs.length; i++)
+                assertEquals(40 - i, distances[i]);
+            assertEquals(40, chain.distance("c40", "c0"));
+        } finally {
+            gate.countDown();
+            caller.shutdown();
+            held.shutdown();
+        }
+    }
+
+    @Test
+    void rejectedUpdateKeepsTheCurrentWordNet() throws IOException {
+        WordNet chain = chain(5);
+        try (WordNetService service = new WordNetService(chain, 2)) {
+            assertThrows(IllegalArgumentException.class, () -> service.update(new WordNetUpdate().addHypernym(0, 4)));
+            assertSame(chain, service.wordnet());
+            assertEquals(4, service.distance("c4", "c0"));
+        }
+    }
+
+    @Test
+    void closeShutsDownOnlyTheOwnedPool() throws IOException {
+        WordNet chain = chain(5);
+        String[][] pairs = { { "c1", "c4" }, { "c0", "c2" } };
+
+        WordNetService owned = new WordNetService(chain, 2);
+        assertArrayEquals(new int[] { 3, 2 }, owned.distances(pairs));
+        owned.close();
+        assertThrows(RejectedExecutionException.class, () -> owned.distances(pairs));
+        assertEquals(3, owned.distance("c1", "c4")); // single queries run on the caller
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            WordNetService borrowed = new WordNetService(chain, executor, 2);
+            borrowed.close();
+            assertFalse(executor.isShutdown());
+            assertArrayEquals(new int[] { 3, 2 }, borrowed.distances(pairs));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void batchFailuresReachTheCaller() throws IOException {
+        try (WordNetService service = new WordNetService(chain(5), 2)) {
+            assertThrows(IllegalArgumentException.class, () -> service.distances(null));
+            assertThrows(IllegalArgumentException.class, () -> service.distances(new String[][] { { "c1" } }));
+            assertThrows(IllegalArgumentException.class,
+                    () -> service.distances(new String[][] { { "c1", "c2" }, { "c3", "nothing" } }));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new WordNetService(null, 2));
+        assertThrows(IllegalArgumentException.class, () -> new WordNetService(chain(5), 0));
+    }
+
+    // synsets c0 <- c1 <- ... <- c(V-1)
+    private WordNet chain(int V) throws IOException {
+        StringBuilder synsets = new StringBuilder();
+        StringBuilder hypernyms = new StringBuilder();
+        for (int v = 0; v < V; v++) {
+            synsets.append(v).append(",c").append(v).append(",gloss\n");
+            hypernyms.append(v).append(v > 0 ? "," + (v - 1) : "").append('\n');
+        }
+        Path d = Files.createTempDirectory(dir, "chain");
+        Path s = d.resolve("synsets.txt"), h = d.resolve("hypernyms.txt");
+        Files.writeString(s, synsets);
+        Files.writeString(h, hypernyms);
+        return WordNet.load(s.toString(), h.toString());
+    }
+}
@@ -0,0 +1,238 @@
+package wordnet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// a WordNet with nouns outside ASCII, loaded both ways and through a snapshot
+class WordNetSnapshotTest {
+    private static final String SYNSETS =
+            "0,entité entity,the root\n"
+            + "1,café coffee_house,a place\n"
+            + "2,naïve_art café,a style\n"
+            + "3,Zürich,a city\n"
+            + "4,日本 Japan,a country\n"
+            + "5,𝄞_clef clef,a sign\n"
+            + "6,façade,a front\n";
+    private static final String HYPERNYMS =
+            "0\n"
+            + "1,0\n"
+            + "2,0\n"
+            + "3,1\n"
+            + "4,1,2\n"
+            + "5,2\n"
+            + "6,3,5\n";
+
+    @TempDir
+    Path dir;
+
+    private String synsets;
+    private String hypernyms;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        synsets = Files.write(dir.resolve("synsets.txt"), SYNSETS.getBytes(StandardCharsets.UTF_8)).toString();
+        hypernyms = Files.write(dir.resolve("hypernyms.txt"), HYPERNYMS.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    @Test
+    void loadersAgree() {
+        WordNet scanned = new WordNet(synsets, hypernyms);
+        WordNet loaded = WordNet.load(synsets, hypernyms);
+        assertEquals(list(scanned.nouns()), list(loaded.nouns()));
+        assertEquals(Arrays.asList("Japan", "Zürich", "café", "clef", "coffee_house", "entity", "entité",
+                "façade", "naïve_art", "日本", "𝄞_clef"), list(loaded.nouns()));
+        assertAnswers(loaded);
+        assertAnswers(scanned);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void snapshotRoundTrip(boolean verify) {
+        WordNet loaded = WordNet.load(synsets, hypernyms);
+        String snapshot = dir.resolve("wordnet.snapshot").toString();
+        loaded.save(snapshot);
+
+        WordNet opened = WordNet.open(snapshot, verify);
+        assertEquals(list(loaded.nouns()), list(opened.nouns()));
+        assertAnswers(opened);
+
+        // the opened WordNet can be updated like a loaded one
+        WordNet updated = opened.update(new WordNetUpdate().addSynset(7, "crème_brûlée").addHypernym(7, 6));
+        assertEquals(3, updated.distance("crème_brûlée", "naïve_art"));
+        assertFalse(opened.isNoun("crème_brûlée"));
+    }
+
+    @Test
+    void snapshotOfRandomTaxonomyAnswersAlike() throws IOException {
+        Taxonomy t = Taxonomy.random(500, 23);
+        String[] files = t.write(Files.createDirectory(dir.resolve("random")));
+        WordNet loaded = WordNet.load(files[0], files[1]);
+        String snapshot = dir.resolve("random.snapshot").toString();
+        loaded.save(snapshot);
+        WordNet opened = WordNet.open(snapshot);
+
+        List<String> nouns = t.nouns();
+        assertEquals(nouns, list(opened.nouns()));
+        for (int i = 0; i < nouns.size(); i += 3) {
+            for (int j = i; j < nouns.size(); j += 17) {
+                String a = nouns.get(i), b = nouns.get(j);
+                assertEquals(loaded.distance(a, b), opened.distance(a, b), a + " " + b);
+                assertEquals(loaded.sca(a, b), opened.sca(a, b), a + " " + b);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = { true, false })
+    void labelsRoundTripNextToSnapshot(boolean verify) throws IOException {
+        Taxonomy t = Taxonomy.random(400, 29);
+        String[] files = t.write(Files.createDirectory(dir.resolve("random")));
+        WordNet loaded = WordNet.load(files[0], files[1]);
+        String snapshot = dir.resolve("random.snapshot").toString();
+        loaded.save(snapshot);
+        assertFalse(Files.exists(Path.of(WordNet.labels(snapshot))), "no labels were built");
+
+        loaded.buildLabels();
+        loaded.save(snapshot);
+        assertTrue(Files.exists(Path.of(WordNet.labels(snapshot))));
+
+        // found next to the snapshot, or named explicitly
+        assertAnsweredByLabels(t, loaded, WordNet.open(snapshot, verify));
+        Files.move(Path.of(WordNet.labels(snapshot)), dir.resolve("elsewhere.labels"));
+        assertAnsweredByLabels(t, loaded, WordNet.open(snapshot, verify, dir.resolve("elsewhere.labels").toString()));
+    }
+
+    @Test
+    void staleLabelsNextToSnapshotAreIgnored() throws IOException {
+        String snapshot = dir.resolve("wordnet.snapshot").toString();
+        WordNet.load(synsets, hypernyms).save(snapshot);
+        Taxonomy t = Taxonomy.random(400, 29);
+        String[] files = t.write(Files.createDirectory(dir.resolve("random")));
+        WordNet.load(files[0], files[1]).saveLabels(WordNet.labels(snapshot));
+
+        CountingRegistry counter = new CountingRegistry();
+        Metrics.install(counter);
+        try {
+            assertAnswers(WordNet.open(snapshot));
+            assertEquals(0, counter.get(Metric.ANSWERED_BY_LABELS));
+        } finally {
+            Metrics.disable();
+        }
+
+        // named explicitly, the same file is an error
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> WordNet.open(snapshot, true, WordNet.labels(snapshot)));
+        assertTrue(e.getMessage().contains("different graph"), e.getMessage());
+    }
+
+    @Test
+    void rejectsDamagedSnapshot() throws IOException {
+        Path snapshot = dir.resolve("wordnet.snapshot");
+        WordNet.load(synsets, hypernyms).save(snapshot.toString());
+        byte[] bytes = Files.readAllBytes(snapshot);
+
+        byte[] flipped = bytes.clone();
+        flipped[flipped.length / 2] ^= 1;
+        Files.write(snapshot, flipped);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> WordNet.open(snapshot.toString()));
+        assertTrue(e.getMessage().contains("checksum"), e.getMessage());
+
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length - 1));
+        e = assertThrows(IllegalArgumentException.class, () -> WordNet.open(snapshot.toString(), false));
+        assertTrue(e.getMessage().contains("truncated"), e.getMessage());
+
+        Files.write(snapshot, "not a snapshot, just some text".getBytes(StandardCharsets.UTF_8));
+        e = assertThrows(IllegalArgumentException.class, () -> WordNet.open(snapshot.toString()));
+        assertTrue(e.getMessage().contains("not a WordNet snapshot"), e.getMessage());
+    }
+
+    // opened answers like loaded, every query from the labels
+    private static void assertAnsweredByLabels(Taxonomy t, WordNet loaded, WordNet opened) {
+        CountingRegistry counter = new CountingRegistry();
+        Metrics.install(counter);
+        try {
+            List<String> nouns = t.nouns();
+            for (int i = 0; i < nouns.size(); i += 5) {
+                for (int j = i; j < nouns.size(); j += 13) {
+                    String a = nouns.get(i), b = nouns.get(j);
+                    assertEquals(loaded.distance(a, b), opened.distance(a, b), a + " " + b);
+                }
+            }
+            assertEquals(0, counter.get(Metric.ANSWERED_BY_SEARCH));
+            assertTrue(counter.get(Metric.ANSWERED_BY_LABELS) > 0);
+        } finally {
+            Metrics.disable();
+        }
+    }
+
+    // without the checksum, damage to the root or the offsets is still caught
+    // on open, rather than as an exception deep inside a query
+    @Test
+    void uncheckedOpenRejectsInconsistentSnapshot() throws IOException {
+        Path snapshot = dir.resolve("wordnet.snapshot");
+        WordNet.load(synsets, hypernyms).save(snapshot.toString());
+        byte[] bytes = Files.readAllBytes(snapshot);
+        int payload = 24; // magic, version, length and checksum
+        ByteOrder order = (ByteBuffer.wrap(bytes).getInt(payload + 12) == MappedDigraph.LITTLE_ENDIAN)
+                ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+
+        for (int root : new int[] { 7, -2, 3 }) { // out of range, or a vertex with hypernyms
+            ByteBuffer damaged = ByteBuffer.wrap(bytes.clone());
+            damaged.putInt(payload, root);
+            Files.write(snapshot, damaged.array());
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> WordNet.open(snapshot.toString(), false));
+            assertTrue(e.getMessage().contains("invalid root"), e.getMessage());
+        }
+
+        // offsets[1] past offsets[2]
+        ByteBuffer damaged = ByteBuffer.wrap(bytes.clone()).order(order);
+        int offsets = payload + 16;
+        damaged.putInt(offsets + 4, damaged.getInt(offsets + 8) + 1);
+        Files.write(snapshot, damaged.array());
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> WordNet.open(snapshot.toString(), false));
+        assertTrue(e.getMessage().contains("invalid CSR offsets"), e.getMessage());
+    }
+
+    private static void assertAnswers(WordNet w) {
+        assertTrue(w.isNoun("café"));
+        assertTrue(w.isNoun("日本"));
+        assertTrue(w.isNoun("𝄞_clef"));
+        assertFalse(w.isNoun("cafe"));
+        assertFalse(w.isNoun("Zurich"));
+
+        // café is both 1 and 2, so façade meets it through either parent
+        assertEquals(2, w.distance("façade", "café"));
+        assertEquals(1, w.distance("日本", "café"));
+        assertEquals(2, w.distance("Zürich", "entité"));
+        assertEquals("Zürich", w.sca("façade", "Zürich"));
+        assertEquals(4, w.distance("Zürich", "𝄞_clef"));
+        assertEquals("entité entity", w.sca("Zürich", "𝄞_clef"));
+    }
+
+    private static List<String> list(Iterable<String> nouns) {
+        List<String> list = new ArrayList<String>();
+        for (String noun : nouns)
+            list.add(noun);
+        return list;
+    }
+}
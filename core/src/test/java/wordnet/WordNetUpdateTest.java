@@ -0,0 +1,207 @@
+package wordnet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+// WordNet.update and ShortestCommonAncestor.addHypernyms against a full rebuild
+// of the same taxonomy, and the additions that an update must reject
+class WordNetUpdateTest {
+    private static final int V = 240; // synsets after the update
+    private static final int BASE = 200; // synsets before the update
+
+    @TempDir
+    Path dir;
+
+    private Taxonomy full;
+    private Taxonomy base;
+    private WordNet before;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        full = Taxonomy.random(V, 25);
+        base = full.base(BASE);
+        String[] files = base.write(Files.createDirectory(dir.resolve("base")));
+        before = WordNet.load(files[0], files[1]);
+    }
+
+    // the synsets from BASE on, and every hypernym that base() left out
+    private WordNetUpdate additions() {
+        WordNetUpdate update = new WordNetUpdate();
+        for (int v = BASE; v < V; v++)
+            update.addSynset(v, full.synsets[v]);
+        for (int v = 0; v < V; v++) {
+            for (int i = (v < BASE) ? 1 : 0; i < full.hypernyms[v].length; i++)
+                update.addHypernym(v, full.hypernyms[v][i]);
+        }
+        return update;
+    }
+
+    @Test
+    void updateMatchesRebuild() throws IOException {
+        String[] files = full.write(Files.createDirectory(dir.resolve("full")));
+        WordNet rebuilt = WordNet.load(files[0], files[1]);
+        WordNet updated = before.update(additions());
+
+        List<String> nouns = full.nouns();
+        assertEquals(nouns, list(updated.nouns()));
+        assertEquals(nouns, list(rebuilt.nouns()));
+
+        Map<String, List<Integer>> ids = full.ids();
+        Map<Integer, int[]> ups = Taxonomy.memo();
+        for (int i = 0; i < nouns.size(); i++) {
+            for (int j = i; j < nouns.size(); j += 3) {
+                String a = nouns.get(i), b = nouns.get(j);
+                Taxonomy.Answer expected = full.answer(ids.get(a), ids.get(b), ups);
+                assertEquals(expected.length, rebuilt.distance(a, b), a + " " + b);
+                assertEquals(expected.length, updated.distance(a, b), a + " " + b);
+                assertTrue(isAncestor(expected, updated.sca(a, b)), a + " " + b);
+            }
+        }
+
+        // copy-on-write: the WordNet that was updated is left as it was
+        assertFalse(before.isNoun("s" + BASE));
+        assertEquals(base.nouns(), list(before.nouns()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "search", "index", "cache" })
+    void addHypernymsMatchesRebuild(String engine) {
+        ShortestCommonAncestor sca = engine(new CompactDigraph(base.digraph()), engine);
+        for (int v = 1; v < BASE; v += 7)
+            sca.length(v, BASE - v); // fills the cache, if any, with entries to invalidate
+
+        List<Integer> tails = new ArrayList<Integer>();
+        List<Integer> heads = new ArrayList<Integer>();
+        for (int v = 0; v < V; v++) {
+            for (int i = (v < BASE) ? 1 : 0; i < full.hypernyms[v].length; i++) {
+                tails.add(v);
+                heads.add(full.hypernyms[v][i]);
+            }
+        }
+        ShortestCommonAncestor updated = sca.addHypernyms(V, ints(tails), ints(heads));
+        ShortestCommonAncestor rebuilt = engine(new CompactDigraph(full.digraph()), engine);
+        assertEquals(rebuilt.root(), updated.root());
+
+        Map<Integer, int[]> ups = Taxonomy.memo();
+        for (int v = 0; v < V; v++) {
+            for (int w = v; w < V; w++) {
+                Taxonomy.Answer expected = full.answer(v, w, ups);
+                assertEquals(rebuilt.length(v, w), updated.length(v, w), v + " " + w);
+                assertEquals(expected.length, updated.length(v, w), v + " " + w);
+                assertTrue(expected.ancestors.contains(updated.ancestor(v, w)), v + " " + w);
+            }
+        }
+    }
+
+    @Test
+    void rootMovesToAddedSynset() {
+        WordNet updated = before.update(new WordNetUpdate()
+                .addSynset(BASE, "top")
+                .addHypernym(0, BASE));
+        assertEquals(1, updated.distance("s0", "top"));
+        assertEquals("top", updated.sca("top", "s" + (BASE - 1)));
+    }
+
+    @Test
+    void rejectsSelfLoop() {
+        assertRejected(new WordNetUpdate().addHypernym(5, 5), "closes a cycle");
+    }
+
+    @Test
+    void rejectsCycle() {
+        // 1 is below 0, so an edge from 0 up to 1 closes a cycle
+        assertRejected(new WordNetUpdate().addHypernym(0, 1), "closes a cycle");
+
+        // so does one through an added synset
+        assertRejected(new WordNetUpdate()
+                .addSynset(BASE, "loop")
+                .addHypernym(BASE, 7)
+                .addHypernym(3, BASE)
+                .addHypernym(7, 3), "closes a cycle");
+    }
+
+    @Test
+    void rejectsIdGap() {
+        assertRejected(new WordNetUpdate()
+                .addSynset(BASE + 1, "gap")
+                .addHypernym(BASE + 1, 0), "is not between");
+        assertRejected(new WordNetUpdate()
+                .addSynset(BASE, "one")
+                .addSynset(BASE, "two")
+                .addHypernym(BASE, 0), "added twice");
+    }
+
+    @Test
+    void rejectsRootlessAddition() {
+        // a synset without hypernyms would be a second root
+        assertRejected(new WordNetUpdate().addSynset(BASE, "orphan"), "rooted DAG");
+
+        // and so would the top of an added chain that never joins the old taxonomy
+        assertRejected(new WordNetUpdate()
+                .addSynset(BASE, "child")
+                .addSynset(BASE + 1, "parent")
+                .addHypernym(BASE, BASE + 1), "rooted DAG");
+    }
+
+    @Test
+    void rejectsNegativeIds() {
+        assertThrows(IllegalArgumentException.class, () -> new WordNetUpdate().addSynset(-1, "x"));
+        assertThrows(IllegalArgumentException.class, () -> new WordNetUpdate().addHypernym(1, -1));
+    }
+
+    // the update fails with the message, and the WordNet still answers as before
+    private void assertRejected(WordNetUpdate update, String message) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> before.update(update));
+        assertTrue(e.getMessage().contains(message), e.getMessage());
+        Map<Integer, int[]> ups = Taxonomy.memo();
+        assertEquals(base.answer(5, BASE - 1, ups).length, before.distance("s5", "s" + (BASE - 1)));
+        assertFalse(before.isNoun("orphan"));
+    }
+
+    // is the synset text that sca() returned one of the expected ancestors?
+    private boolean isAncestor(Taxonomy.Answer expected, String synset) {
+        for (int x : expected.ancestors) {
+            if (full.synsets[x].equals(synset))
+                return true;
+        }
+        return false;
+    }
+
+    private static ShortestCommonAncestor engine(CompactDigraph G, String engine) {
+        ShortestCommonAncestor sca = new ShortestCommonAncestor(G);
+        if (engine.equals("index"))
+            sca.buildIndex();
+        else if (engine.equals("cache"))
+            sca.enableAncestorCache(1 << 12);
+        return sca;
+    }
+
+    private static List<String> list(Iterable<String> nouns) {
+        List<String> list = new ArrayList<String>();
+        for (String noun : nouns)
+            list.add(noun);
+        return list;
+    }
+
+    private static int[] ints(List<Integer> list) {
+        int[] a = new int[list.size()];
+        for (int i = 0; i < a.length; i++)
+            a[i] = list.get(i);
+        return a;
+    }
+}